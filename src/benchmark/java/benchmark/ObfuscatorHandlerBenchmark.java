@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import model.language.IClass;
+import model.language.enums.Architecture;
+import model.language.javascript.JavaScriptClass;
+import model.language.javascript.JavaScriptFunction;
+import model.language.powershell.PowershellClass;
+import model.language.powershell.PowershellFunction;
+import model.language.vba.VbaClass;
+import model.language.vba.VbaFunction;
+import model.obfuscator.IObfuscatorHandler;
+import model.obfuscator.generic.ObfuscatorProfile;
+import model.obfuscator.javascript.JavaScriptObfuscatorHandler;
+import model.obfuscator.powershell.PowershellObfuscatorHandler;
+import model.obfuscator.vba.VbaObfuscatorHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput and latency of the language specific obfuscator
+ * handlers for every obfuscation profile. Each benchmark obfuscates a fresh
+ * copy of a synthetic snippet and builds the result, which equals the work
+ * that is done for a single build request. The allocation rate is reported
+ * when the benchmarks are executed with the GC profiler, which is the default
+ * in the <code>benchmark</code> Maven profile.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ObfuscatorHandlerBenchmark {
+
+    /**
+     * The size of a synthetic snippet, expressed in the amount of functions
+     * and the amount of lines per function
+     */
+    public enum SnippetSize {
+        SMALL(2, 5),
+        MEDIUM(10, 25),
+        LARGE(20, 50);
+
+        /**
+         * The amount of functions in the snippet
+         */
+        private final int functions;
+
+        /**
+         * The amount of lines in the body of each function
+         */
+        private final int lines;
+
+        /**
+         * Creates a snippet size
+         *
+         * @param functions the amount of functions in the snippet
+         * @param lines the amount of lines in the body of each function
+         */
+        private SnippetSize(int functions, int lines) {
+            this.functions = functions;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * The language of the snippet, which determines the handler that is used
+     */
+    @Param({"JAVASCRIPT", "POWERSHELL", "VBA"})
+    public String language;
+
+    /**
+     * The obfuscation profile to apply
+     */
+    @Param({"NONE", "LOW", "MEDIUM", "HIGH"})
+    public ObfuscatorProfile profile;
+
+    /**
+     * The size of the synthetic snippet
+     */
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public SnippetSize size;
+
+    /**
+     * The handler that obfuscates the snippet
+     */
+    private IObfuscatorHandler handler;
+
+    /**
+     * The synthetic snippet, which is copied prior to every obfuscation as the
+     * handlers alter the given object
+     */
+    private IClass template;
+
+    /**
+     * Creates the handler and the synthetic snippet once per trial
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (language) {
+            case "JAVASCRIPT":
+                handler = new JavaScriptObfuscatorHandler();
+                template = createJavaScriptClass();
+                break;
+            case "POWERSHELL":
+                handler = new PowershellObfuscatorHandler();
+                template = createPowershellClass();
+                break;
+            case "VBA":
+                handler = new VbaObfuscatorHandler();
+                template = createVbaClass();
+                break;
+            default:
+                throw new IllegalArgumentException("No handler exists for the language: " + language);
+        }
+    }
+
+    /**
+     * Obfuscates a copy of the synthetic snippet and builds the result
+     *
+     * @return the build of the obfuscated snippet, which is returned to avoid
+     * dead code elimination
+     */
+    @Benchmark
+    public String obfuscate() {
+        return handler.obfuscate(template.copy(), profile).build();
+    }
+
+    /**
+     * Creates a synthetic JavaScript snippet, where every line of every
+     * function contains a string literal
+     *
+     * @return the synthetic JavaScript snippet
+     */
+    private IClass createJavaScriptClass() {
+        StringBuilder script = new StringBuilder();
+        JavaScriptClass classObject = new JavaScriptClass(Architecture.WINDOWS_X86, "");
+        for (int i = 0; i < size.functions; i++) {
+            StringBuilder body = new StringBuilder();
+            for (int line = 0; line < size.lines; line++) {
+                body.append("var value").append(line).append(" = \"line ").append(line).append(" of function ").append(i).append("\";\n");
+            }
+            body.append("return value0;");
+            classObject.addFunction(new JavaScriptFunction("function" + i, createArguments("", ""), body.toString()));
+            script.append("WScript.Echo(function").append(i).append("(\"first\", \"second\"));\n");
+        }
+        classObject.setScript(script.toString());
+        return classObject;
+    }
+
+    /**
+     * Creates a synthetic Powershell snippet, where every line of every
+     * function contains a string literal
+     *
+     * @return the synthetic Powershell snippet
+     */
+    private IClass createPowershellClass() {
+        StringBuilder script = new StringBuilder();
+        PowershellClass classObject = new PowershellClass(Architecture.WINDOWS_X86, "");
+        for (int i = 0; i < size.functions; i++) {
+            StringBuilder body = new StringBuilder();
+            for (int line = 0; line < size.lines; line++) {
+                body.append("$value").append(line).append(" = \"line ").append(line).append(" of function ").append(i).append("\";\n");
+            }
+            body.append("return $value0;");
+            classObject.addFunction(new PowershellFunction("function" + i, createArguments("$", "[string]"), body.toString()));
+            script.append("Write-Host (function").append(i).append(" \"first\" \"second\")\n");
+        }
+        classObject.setScript(script.toString());
+        return classObject;
+    }
+
+    /**
+     * Creates a synthetic VBA snippet, where every line of every function
+     * contains a string literal
+     *
+     * @return the synthetic VBA snippet
+     */
+    private IClass createVbaClass() {
+        VbaClass classObject = new VbaClass(Architecture.WINDOWS_X86);
+        for (int i = 0; i < size.functions; i++) {
+            StringBuilder body = new StringBuilder();
+            for (int line = 0; line < size.lines; line++) {
+                body.append("MsgBox \"line ").append(line).append(" of function ").append(i).append("\"\n");
+            }
+            classObject.addFunction(new VbaFunction("Sub", "function" + i, createArguments("", "ByVal"), "", body.toString()));
+        }
+        return classObject;
+    }
+
+    /**
+     * Creates the arguments that every synthetic function has
+     *
+     * @param prefix the language specific prefix of an argument's name
+     * @param type the language specific type of an argument
+     * @return the arguments of a synthetic function
+     */
+    private Map<String, String> createArguments(String prefix, String type) {
+        Map<String, String> arguments = new LinkedHashMap<>();
+        arguments.put(prefix + "first", type);
+        arguments.put(prefix + "second", type);
+        return arguments;
+    }
+}
@@ -21,13 +21,23 @@ import exception.JsonFolderNotFoundException;
 import exception.JsonParseException;
 import exception.ObfuscatorNotFoundException;
 import exception.SnippetNotFoundException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import javax.ejb.Stateless;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import model.language.IClass;
 import model.snippet.Snippet;
+import model.snippet.SnippetBatchAlteration;
 import service.BuildSnippetService;
 
 /**
@@ -41,6 +51,7 @@ import service.BuildSnippetService;
  */
 @Stateless
 @Path("build")
+@Compress
 public class BuildSnippetController {
 
     /**
@@ -63,7 +74,9 @@ public class BuildSnippetController {
      * specified in <code>service.BuildSnippetService</code>).
      *
      * If the operation is successful, the HTTP OK (200) status is returned,
-     * together with the plain text version of the generated sample. If an error
+     * together with the plain text version of the generated sample. The sample
+     * is streamed into the response while it is built, meaning that it is never
+     * stored as a single string. If an error
      * occurred, the user will be given a JSON object which contains a single
      * field name "message", which contains the error message.
      *
@@ -81,8 +94,18 @@ public class BuildSnippetController {
             BuildSnippetService buildSnippetService = new BuildSnippetService();
             //Uses the build snippet service to create a snippet object from the given JSON string
             Snippet snippet = buildSnippetService.buildSnippet(json);
-            //Builds the snippet via the class object's build function
-            String snippetBuild = snippet.getClassObject().build();
+            //Get the class object, which is built while the response is written
+            final IClass classObject = snippet.getClassObject();
+            //Stream the build of the snippet directly into the response, instead of building it into a single string first
+            StreamingOutput snippetBuild = new StreamingOutput() {
+                @Override
+                public void write(OutputStream outputStream) throws IOException, WebApplicationException {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                    //Builds the snippet via the class object's build function
+                    classObject.build(writer);
+                    writer.flush();
+                }
+            };
             //Returns the HTTP OK (200) status together with the generated snippet
             return Response.status(Response.Status.OK).entity(snippetBuild).build();
         } catch (SnippetNotFoundException | AlteratorNotFoundException | JsonFolderNotFoundException | JsonParseException ex) {
@@ -92,4 +115,61 @@ public class BuildSnippetController {
             return Response.status(Response.Status.NOT_FOUND).entity(message.toString()).build();
         }
     }
+
+    /**
+     * This method is a only reachable when a POST request is sent to the API
+     * base (as specified in <code>controller.RestConfig.java</code>), after
+     * which the path for this class (as specified above in <code>@Path</code>)
+     * needs to be appended. Additionally, the method's <code>@Path</code> needs
+     * to be appended.
+     *
+     * An example of this is: <code>api/v1/build/batch</code>
+     *
+     * The method requires a JSON object in the POST body with an array named
+     * "alterations", which contains one or more <code>SnippetAlteration</code>
+     * objects (as described in the <code>build</code> method), and an optional
+     * field named "variants", which is the amount of variants that is built
+     * for each alteration (one by default).
+     *
+     * The variants are built in parallel using the
+     * <code>BuildSnippetService</code> (as specified in
+     * <code>service.BuildSnippetService</code>). Each result is streamed back
+     * as a single line of JSON (newline delimited JSON), which contains the
+     * index of the alteration, the variant, the snippet id, and either the
+     * build or an error message.
+     *
+     * If the input cannot be parsed, the user will be given a JSON object
+     * which contains a single field name "message", which contains the error
+     * message.
+     *
+     * @param json the JSON input as specified above
+     * @return the results of all builds, one per line
+     */
+    @POST
+    @Path("batch")
+    @Produces("application/x-ndjson")
+    public Response buildBatch(String json) {
+        try {
+            //Creates the build snippet service
+            final BuildSnippetService buildSnippetService = new BuildSnippetService();
+            //Uses the build snippet service to parse the batch from the given JSON string
+            final SnippetBatchAlteration batch = buildSnippetService.parseSnippetBatchAlteration(json);
+            //Stream the results into the response while the batch is built
+            StreamingOutput results = new StreamingOutput() {
+                @Override
+                public void write(OutputStream outputStream) throws IOException, WebApplicationException {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                    buildSnippetService.buildSnippets(batch, writer);
+                    writer.flush();
+                }
+            };
+            //Returns the HTTP OK (200) status together with the results
+            return Response.status(Response.Status.OK).entity(results).build();
+        } catch (JsonParseException ex) {
+            //The exception message is stored in a message object
+            Message message = new Message(ex.getMessage());
+            //The error message is returned in JSON form, together with a HTTP NOT FOUND (404) status code
+            return Response.status(Response.Status.NOT_FOUND).type(MediaType.APPLICATION_JSON).entity(message.toString()).build();
+        }
+    }
 }
@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import model.snippet.SnippetConstants;
+
+/**
+ * Compresses the responses of the controllers and methods that are annotated
+ * with <code>Compress</code>, using either gzip or deflate, depending on the
+ * <code>Accept-Encoding</code> header of the request. If the client accepts
+ * both, the encoding with the highest quality value is used, where gzip is
+ * preferred if both are equal.
+ *
+ * The body is buffered until it reaches the size threshold (as specified in
+ * <code>SnippetConstants.COMPRESSION_THRESHOLD</code>), as small bodies do not
+ * benefit from compression. Once the threshold is reached, or once the body is
+ * flushed, the body is compressed while it is written. Every flush sends all
+ * data that was compressed so far, meaning streamed responses remain
+ * streamed.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+@Provider
+@Compress
+public class CompressionInterceptor implements WriterInterceptor {
+
+    /**
+     * The name of the gzip encoding
+     */
+    private static final String GZIP = "gzip";
+
+    /**
+     * The name of the deflate encoding, which is the zlib format
+     */
+    private static final String DEFLATE = "deflate";
+
+    /**
+     * The headers of the request
+     */
+    @Context
+    private HttpHeaders requestHeaders;
+
+    /**
+     * Writes the response, which is compressed if the client accepts gzip or
+     * deflate, and if the body is larger than the size threshold
+     *
+     * @param context the context of the response
+     * @throws IOException if the response cannot be written
+     */
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+        //Caches have to know that the body depends on the accepted encodings, unless the response already says so
+        if (!containsVary(headers)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        String encoding = negotiate(requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        //A body that is already encoded is not encoded again
+        if (encoding == null || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            context.proceed();
+            return;
+        }
+        CompressingOutputStream output = new CompressingOutputStream(context.getOutputStream(), headers, encoding);
+        context.setOutputStream(output);
+        try {
+            context.proceed();
+            //Write the remainder of the body, which is either the buffered body or the end of the compressed body
+            output.finish();
+        } catch (IOException | RuntimeException ex) {
+            //Release the native memory of the deflater if the body cannot be written
+            output.end();
+            throw ex;
+        }
+    }
+
+    /**
+     * Checks if the response already varies on the
+     * <code>Accept-Encoding</code> header
+     *
+     * @param headers the headers of the response
+     * @return true if the header is present, false if not
+     */
+    private boolean containsVary(MultivaluedMap<String, Object> headers) {
+        List<Object> values = headers.get(HttpHeaders.VARY);
+        if (values == null) {
+            return false;
+        }
+        for (Object value : values) {
+            if (String.valueOf(value).toLowerCase().contains(HttpHeaders.ACCEPT_ENCODING.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Selects the encoding to use, based on the value of the
+     * <code>Accept-Encoding</code> header
+     *
+     * @param acceptEncoding the value of the header, which may be null
+     * @return "gzip", "deflate", or null if neither is accepted
+     */
+    private String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        float gzip = 0;
+        float deflate = 0;
+        float wildcard = 0;
+        boolean gzipListed = false;
+        boolean deflateListed = false;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            float quality = getQuality(parts);
+            //An explicit value for an encoding overrules the wildcard
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+                gzipListed = true;
+            } else if (coding.equals(DEFLATE)) {
+                deflate = quality;
+                deflateListed = true;
+            } else if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        if (!gzipListed) {
+            gzip = wildcard;
+        }
+        if (!deflateListed) {
+            deflate = wildcard;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        if (deflate > 0) {
+            return DEFLATE;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the quality value of an element of the
+     * <code>Accept-Encoding</code> header
+     *
+     * @param parts the element, split on the semicolons
+     * @return the quality value, which is 1 if none is given, and 0 if it is
+     * malformed
+     */
+    private float getQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(parameter.substring(2));
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * An output stream that buffers the body until it reaches the size
+     * threshold, after which the headers of the response are altered and the
+     * body is compressed into the given output stream. A body that remains
+     * below the threshold is written as-is.
+     */
+    private static class CompressingOutputStream extends OutputStream {
+
+        /**
+         * The output stream of the response
+         */
+        private final OutputStream output;
+
+        /**
+         * The headers of the response, which can be altered until the first
+         * byte is written to the output stream of the response
+         */
+        private final MultivaluedMap<String, Object> headers;
+
+        /**
+         * The encoding to use
+         */
+        private final String encoding;
+
+        /**
+         * The body that is written prior to reaching the threshold, which is
+         * null once the threshold has been reached
+         */
+        private ByteArrayOutputStream buffer;
+
+        /**
+         * The compressing stream, which is null until the threshold has been
+         * reached
+         */
+        private DeflaterOutputStream compressor;
+
+        /**
+         * The deflater of the compressing stream, which is null until the
+         * threshold has been reached
+         */
+        private Deflater deflater;
+
+        /**
+         * True once the body has been finished
+         */
+        private boolean finished;
+
+        /**
+         * Creates a stream that compresses the body if it reaches the
+         * threshold
+         *
+         * @param output the output stream of the response
+         * @param headers the headers of the response
+         * @param encoding the encoding to use
+         */
+        private CompressingOutputStream(OutputStream output, MultivaluedMap<String, Object> headers, String encoding) {
+            this.output = output;
+            this.headers = headers;
+            this.encoding = encoding;
+            buffer = new ByteArrayOutputStream();
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            write(new byte[]{(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            try {
+                if (compressor != null) {
+                    compressor.write(bytes, offset, length);
+                    return;
+                }
+                buffer.write(bytes, offset, length);
+                //The body is compressed once it is known to be large enough
+                if (buffer.size() >= SnippetConstants.COMPRESSION_THRESHOLD) {
+                    startCompression();
+                }
+            } catch (IOException | RuntimeException ex) {
+                end();
+                throw ex;
+            }
+        }
+
+        /**
+         * Flushes the body, after which the client receives everything that
+         * was written so far. A buffered body is compressed first, as the
+         * headers of the response cannot be changed once the first byte is
+         * sent, and a streamed body is likely to exceed the threshold.
+         *
+         * @throws IOException if the output cannot be flushed
+         */
+        @Override
+        public void flush() throws IOException {
+            try {
+                if (compressor == null && buffer != null && buffer.size() > 0) {
+                    startCompression();
+                }
+                if (compressor != null) {
+                    //The compressing stream flushes the deflater as well, as it is created with syncFlush
+                    compressor.flush();
+                } else {
+                    output.flush();
+                }
+            } catch (IOException | RuntimeException ex) {
+                end();
+                throw ex;
+            }
+        }
+
+        /**
+         * Finishes the body, after which the output stream of the response is
+         * closed
+         *
+         * @throws IOException if the body cannot be written
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } catch (IOException | RuntimeException ex) {
+                end();
+                throw ex;
+            }
+            output.close();
+        }
+
+        /**
+         * Releases the native memory of the deflater, if there is one. The
+         * deflater can no longer be used afterwards.
+         */
+        private void end() {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+
+        /**
+         * Writes the remainder of the body. A body that is below the threshold
+         * is written as-is, whereas a compressed body is finished. The output
+         * stream of the response remains open.
+         *
+         * @throws IOException if the body cannot be written
+         */
+        private void finish() throws IOException {
+            //The body is only finished once, as the stream might be closed prior to the end of the interceptor
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (buffer != null) {
+                buffer.writeTo(output);
+                buffer = null;
+            } else if (compressor != null) {
+                compressor.finish();
+                compressor = null;
+                //Release the native memory of the deflater right away
+                end();
+            }
+            output.flush();
+        }
+
+        /**
+         * Alters the headers of the response, after which the buffered body is
+         * compressed
+         *
+         * @throws IOException if the body cannot be written
+         */
+        private void startCompression() throws IOException {
+            //The length of the compressed body is not known in advance
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+            if (encoding.equals(GZIP)) {
+                //Every flush sends the data that was compressed so far
+                compressor = new GZIPOutputStream(output, true) {
+                    {
+                        //Keep the deflater of the stream, so its native memory can be released
+                        def.setLevel(SnippetConstants.COMPRESSION_LEVEL);
+                        deflater = def;
+                    }
+                };
+            } else {
+                deflater = new Deflater(SnippetConstants.COMPRESSION_LEVEL);
+                //Every flush sends the data that was compressed so far
+                compressor = new DeflaterOutputStream(output, deflater, true);
+            }
+            buffer.writeTo(compressor);
+            buffer = null;
+        }
+    }
+}
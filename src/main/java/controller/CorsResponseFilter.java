@@ -68,5 +68,7 @@ public class CorsResponseFilter implements ContainerResponseFilter {
         headers.putSingle("Access-Control-Allow-Credentials", "true");
         headers.putSingle("Access-Control-Allow-Methods", methodHeader);
         headers.putSingle("Access-Control-Allow-Headers", "x-requested-with," + (requestHeaders == null ? "" : requestHeaders));
+        //Allow the front-end to read the entity tag, which it can send back in the If-None-Match header
+        headers.putSingle("Access-Control-Expose-Headers", "ETag");
     }
 }
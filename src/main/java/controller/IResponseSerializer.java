@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package controller;
+
+/**
+ * This interface is used by the controllers to serialize the body of a
+ * response on demand. The <code>ResponseCache</code> only calls it if the
+ * cached body is missing or outdated.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public interface IResponseSerializer {
+
+    /**
+     * Serializes the body of the response
+     *
+     * @return the body of the response in JSON format
+     */
+    public String serialize();
+}
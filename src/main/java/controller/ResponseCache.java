@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+/**
+ * Caches the serialized bodies of the catalog responses, together with their
+ * entity tags. A cached body belongs to a generation of the catalog, and is
+ * only serialized again once the generation has changed. If the request
+ * contains an <code>If-None-Match</code> header that matches the entity tag, a
+ * HTTP NOT MODIFIED (304) status is returned without a body.
+ *
+ * Streamed responses are not cached, as they are written directly to the
+ * client. Their entity tag is based on the name of the response and the
+ * generation of the catalog instead of the content.
+ *
+ * All entity tags are weak, as the body is compressed with the encoding that
+ * the client accepts (see <code>CompressionInterceptor</code>), meaning the
+ * same tag is used for bodies that differ byte for byte. For the same reason,
+ * every response varies on the <code>Accept-Encoding</code> header.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class ResponseCache {
+
+    /**
+     * The generation of responses that never change while Genesis is running,
+     * such as the supported languages or the MITRE ATT&CK techniques
+     */
+    public static final long STATIC_GENERATION = -1;
+
+    /**
+     * The cached responses, where the key is the name of the response
+     */
+    private static final ConcurrentMap<String, CachedResponse> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * A value that is unique for every start of Genesis, which is part of the
+     * entity tags of streamed responses, as the generations start anew when
+     * Genesis is restarted
+     */
+    private static final String INSTANCE = UUID.randomUUID().toString();
+
+    /**
+     * Creates the response for the given key. The cached body is used if it
+     * belongs to the given generation, otherwise the body is serialized and
+     * cached.
+     *
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
+     * @param key the name of the response, which is unique per endpoint and
+     * parameters
+     * @param generation the generation of the data that the response is based
+     * on
+     * @param serializer the serializer of the body, which is only used if
+     * there is no cached body for the given generation
+     * @return a HTTP OK (200) status with the body and the entity tag, or a
+     * HTTP NOT MODIFIED (304) status with the entity tag
+     */
+    public static Response respond(Request request, String key, long generation, IResponseSerializer serializer) {
+        CachedResponse cached = CACHE.get(key);
+        //The body is only serialized if it is missing or belongs to an older generation
+        if (cached == null || cached.generation != generation) {
+            cached = new CachedResponse(generation, serializer.serialize().getBytes(StandardCharsets.UTF_8));
+            CACHE.put(key, cached);
+        }
+        //If the client already has this version, nothing but the entity tag is returned
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(cached.tag);
+        if (notModified != null) {
+            return notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        return Response.status(Response.Status.OK).entity(cached.body).tag(cached.tag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+    }
+
+    /**
+     * Creates the streamed response for the given key. The output is only
+     * written if the client does not have the version of the given
+     * generation yet.
+     *
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
+     * @param key the name of the response, which is unique per endpoint and
+     * parameters
+     * @param generation the generation of the data that the response is based
+     * on
+     * @param output the output that writes the body to the client
+     * @return a HTTP OK (200) status with the streamed body and the entity
+     * tag, or a HTTP NOT MODIFIED (304) status with the entity tag
+     */
+    public static Response respond(Request request, String key, long generation, StreamingOutput output) {
+        EntityTag tag = createTag((INSTANCE + ":" + key + ":" + generation).getBytes(StandardCharsets.UTF_8));
+        //If the client already has this version, nothing but the entity tag is returned
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        return Response.status(Response.Status.OK).entity(output).tag(tag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+    }
+
+    /**
+     * Creates the weak entity tag of the given body, which is based on its
+     * content. As such, the tag remains the same if the catalog changes in a
+     * way that does not affect the body. The tag is weak, as it is shared by
+     * all content encodings of the body.
+     *
+     * @param body the body to create the entity tag for
+     * @return the entity tag of the body
+     */
+    private static EntityTag createTag(byte[] body) {
+        try {
+            //Hash the body, which is only done when the body is serialized
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(body);
+            StringBuilder tag = new StringBuilder(hash.length * 2);
+            for (byte value : hash) {
+                tag.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+            }
+            return new EntityTag(tag.toString(), true);
+        } catch (NoSuchAlgorithmException ex) {
+            //Every Java platform is required to support SHA-1
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * A serialized body, together with its entity tag and the generation that
+     * it belongs to
+     */
+    private static class CachedResponse {
+
+        /**
+         * The generation of the data that the body is based on
+         */
+        private final long generation;
+
+        /**
+         * The serialized body in UTF-8
+         */
+        private final byte[] body;
+
+        /**
+         * The entity tag of the body
+         */
+        private final EntityTag tag;
+
+        /**
+         * Creates a cached response
+         *
+         * @param generation the generation of the data that the body is based
+         * on
+         * @param body the serialized body in UTF-8
+         */
+        private CachedResponse(long generation, byte[] body) {
+            this.generation = generation;
+            this.body = body;
+            this.tag = createTag(body);
+        }
+    }
+}
@@ -36,6 +36,7 @@ import service.SearchService;
  */
 @Stateless
 @Path("search")
+@Compress
 public class SearchController {
 
     /**
@@ -83,4 +84,43 @@ public class SearchController {
         //Return a HTTP OK (200) status with the list of snippets in JSON format
         return Response.status(Response.Status.OK).entity(jsonOutput).build();
     }
+
+    /**
+     * This method returns all snippets where any of the fields (or any word
+     * within these fields) starts with the given prefix. The prefix is received
+     * as a base64 encoded string, which is decoded in the back-end. The same
+     * fields are used as in the keyword search.
+     *
+     * This method is a only reachable when a GET request is sent to the API
+     * base (as specified in <code>controller.RestConfig.java</code>), after
+     * which the path for this class (as specified above in <code>@Path</code>)
+     * needs to be appended, followed by <code>/prefix</code>. Additionally, the
+     * method's <code>@QueryParam</code> needs to be appended.
+     *
+     * An example of this is: <code>api/v1/search/prefix?prefix=myPrefix</code>
+     *
+     * If the operation is successful, a HTTP OK (200) status is returned,
+     * together with a JSON array of snippets. If no matches are found, the HTTP
+     * OK (200) status will be returned, together with an empty JSON array.
+     *
+     * @param prefix the prefix to search for in a base64 encoded format
+     * @return all snippets which contain a word that starts with the prefix
+     */
+    @GET
+    @Path("prefix")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response searchByPrefix(@QueryParam("prefix") String prefix) {
+        //Create a new gson object
+        Gson gson = new Gson();
+        //Create a new search service instance
+        SearchService searchService = new SearchService();
+        //Decode the given string into a normal string
+        prefix = new String(Base64.getDecoder().decode(prefix));
+        //Get all snippets based on the given prefix
+        List<Snippet> snippets = searchService.getSnippetByPrefix(prefix);
+        //Convert the snippet list into JSON format
+        String jsonOutput = gson.toJson(snippets);
+        //Return a HTTP OK (200) status with the list of snippets in JSON format
+        return Response.status(Response.Status.OK).entity(jsonOutput).build();
+    }
 }
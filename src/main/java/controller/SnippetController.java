@@ -22,7 +22,7 @@ import exception.JsonParseException;
 import exception.SnippetAlreadyExistsException;
 import exception.SnippetNotFoundException;
 import java.io.IOException;
-import java.util.List;
+import java.util.Set;
 import javax.ejb.Stateless;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -30,11 +30,15 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
-import model.language.enums.Architecture;
-import model.language.enums.Language;
 import model.snippet.Snippet;
+import model.snippet.SnippetConstants;
+import model.snippet.SnippetField;
+import model.snippet.SnippetPage;
 import service.SnippetService;
 
 /**
@@ -60,22 +64,64 @@ public class SnippetController {
      *
      * An example of this is: <code>api/v1/snippets</code>
      *
+     * The returned fields can be selected with a comma separated list of field
+     * names, where "metadata" selects the ID, title, description, author,
+     * date, language, architecture, and techniques, in which case the code of
+     * the snippets is not returned. An example of this is:
+     * <code>api/v1/snippets?fields=title,techniques</code>
+     *
+     * If the offset, the limit, or the cursor is given, a single page of
+     * snippets is returned. The cursor of the next page is included in the
+     * response. An example of this is:
+     * <code>api/v1/snippets?limit=50&amp;cursor={nextCursor}</code>
+     *
      * If the operation is successful, a HTTP OK (200) status is returned,
-     * together with a JSON array that contains all snippets.
+     * together with a JSON array that contains all snippets, or a JSON object
+     * with the page if the snippets are paginated. The JSON is written directly
+     * to the client. If the parameters are invalid, a HTTP BAD REQUEST (400)
+     * status is returned, together with a JSON object that contains the error
+     * message in the "message" field.
      *
-     * @return all snippets that are loaded into Genesis
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
+     * @param offset the amount of snippets to skip, which is optional
+     * @param limit the maximum amount of snippets on the page, which is
+     * optional
+     * @param cursor the cursor of the page, which is the value of the
+     * "nextCursor" field of the previous page, which is optional
+     * @param fields the comma separated names of the fields to return, which
+     * is optional
+     * @return all snippets that are loaded into Genesis, or the requested page
      */
     @GET
+    @Compress
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getAllSnippets() {
-        //Creates a new gson object
-        Gson gson = new Gson();
-        //Creates a new snippet service instance
-        SnippetService snippetService = new SnippetService();
-        //Gets al snippets, which are then converted into JSON format
-        String jsonOutput = gson.toJson(snippetService.getSnippets());
-        //Sends a HTTP OK (200) status as a response, together with the JSON array that contains all snippets
-        return Response.status(Response.Status.OK).entity(jsonOutput).build();
+    public Response getAllSnippets(@Context Request request, @QueryParam("offset") Integer offset, @QueryParam("limit") Integer limit, @QueryParam("cursor") String cursor, @QueryParam("fields") String fields) {
+        try {
+            //The complete snippets are returned if no fields are selected
+            Set<SnippetField> selectedFields = fields == null ? null : SnippetField.parse(fields);
+            //A page is only returned if any of the paging parameters is given
+            boolean paginated = offset != null || limit != null || cursor != null;
+            int pageOffset = offset == null ? 0 : offset;
+            int pageLimit = limit == null ? SnippetConstants.DEFAULT_PAGE_SIZE : Math.min(limit, SnippetConstants.MAX_PAGE_SIZE);
+            if (pageOffset < 0 || pageLimit < 1) {
+                throw new IllegalArgumentException("The offset cannot be negative, and the limit has to be at least 1!");
+            }
+            //Creates a new snippet service instance
+            SnippetService snippetService = new SnippetService();
+            //The generation is obtained prior to the snippets, so the response is never newer than its entity tag
+            long generation = snippetService.getGeneration();
+            SnippetPage page = paginated ? snippetService.getSnippetPage(cursor, pageOffset, pageLimit) : snippetService.getSnippetPage(null, 0, Integer.MAX_VALUE);
+            //The name of the response contains all parameters, as each combination results in a different body
+            String key = "snippets?fields=" + selectedFields + (paginated ? "&offset=" + pageOffset + "&limit=" + pageLimit + "&cursor=" + cursor : "");
+            //Sends a HTTP OK (200) status as a response, together with the snippets, which are written directly to the client
+            return ResponseCache.respond(request, key, generation, new SnippetListWriter(page, selectedFields, paginated));
+        } catch (IllegalArgumentException | SnippetNotFoundException ex) {
+            //Stores the exception message in a message object
+            Message message = new Message(ex.getMessage());
+            //Returns a HTTP BAD REQUEST (400) status, together with the message in JSON format
+            return Response.status(Response.Status.BAD_REQUEST).entity(message.toString()).build();
+        }
     }
 
     /**
@@ -136,6 +182,7 @@ public class SnippetController {
      * @return the snippet that corresponds with the given ID
      */
     @GET
+    @Compress
     @Path("{id}")
     @Produces(MediaType.APPLICATION_JSON)
     public Response getSnippetById(@PathParam("id") String id) {
@@ -203,6 +250,53 @@ public class SnippetController {
         }
     }
 
+    /**
+     * This method imports many snippets at once, each of which is based on
+     * the language specific snippet layout, as is the case when a single
+     * snippet is created. The snippets are validated in parallel, stored on
+     * the disk in the location that is specified at
+     * <code>model.snippet.SnippetConstants.java::SNIPPET_FOLDER</code>, and
+     * then added to the loaded snippets in the RAM in a single step. If any
+     * snippet is invalid or already exists, no snippet is imported.
+     *
+     * This method is a only reachable when a POST request is sent to the API
+     * base (as specified in <code>controller.RestConfig.java</code>), after
+     * which the path for this class (as specified above in <code>@Path</code>)
+     * needs to be appended. Additionally, the method's <code>@Path</code> needs
+     * to be appended.
+     *
+     * An example of this is: <code>api/v1/snippets/import</code>
+     *
+     * If the operation is successful, a HTTP OK (200) status is returned,
+     * together with a JSON object that contains a single field ("message"),
+     * which contains the amount of imported snippets. If the operation is
+     * unsuccessful, a HTTP NOT FOUND (404) status is returned, together with a
+     * JSON object that contains a single field ("message"), which contains the
+     * error message.
+     *
+     * @param snippetsJson the JSON array of the snippets that are to be added
+     * @return the amount of imported snippets
+     */
+    @POST
+    @Path("import")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importSnippets(String snippetsJson) {
+        try {
+            //Creates a new snippet service instance
+            SnippetService snippetService = new SnippetService();
+            //Imports the snippets via the service
+            int count = snippetService.importSnippets(snippetsJson);
+            //Sends a HTTP OK (200) status as a response, together with the amount of imported snippets
+            Message message = new Message("Imported " + count + " snippets");
+            return Response.status(Response.Status.OK).entity(message.toString()).build();
+        } catch (JsonParseException | IOException | SnippetAlreadyExistsException ex) {
+            //Stores the exception message in a message object
+            Message message = new Message(ex.getMessage());
+            //Sends a HTTP NOT FOUND (404) status, together with the error message in JSON format
+            return Response.status(Response.Status.NOT_FOUND).entity(message.toString()).build();
+        }
+    }
+
     /**
      * This method returns all languages that are supported within Genesis
      *
@@ -218,22 +312,22 @@ public class SnippetController {
      * together with a JSON array that contains the languages that are supported
      * by Genesis, as strings.
      *
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
      * @return all languages that are supported within Genesis
      */
     @GET
     @Path("languages")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getLanguages() {
-        //Creates a snippet service instance
-        SnippetService snippetService = new SnippetService();
-        //Gets the supported languages
-        List<Language> languages = snippetService.getLanguages();
-        //Creates a gson object
-        Gson gson = new Gson();
-        //Converts the list of languages into a JSON array of strings
-        String jsonOutput = gson.toJson(languages);
+    public Response getLanguages(@Context Request request) {
         //Sends a HTTP OK (200) status as a response, together with the JSON array that contains the languages
-        return Response.status(Response.Status.OK).entity(jsonOutput).build();
+        return ResponseCache.respond(request, "snippets/languages", ResponseCache.STATIC_GENERATION, new IResponseSerializer() {
+            @Override
+            public String serialize() {
+                //Gets the supported languages and converts them into a JSON array of strings
+                return new Gson().toJson(new SnippetService().getLanguages());
+            }
+        });
     }
 
     /**
@@ -251,21 +345,21 @@ public class SnippetController {
      * together with a JSON array that contains the architectures that are
      * supported by Genesis, as strings.
      *
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
      * @return all architectures that are supported within Genesis
      */
     @GET
     @Path("architectures")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getArchitectures() {
-        //Creates a snippet service instance
-        SnippetService snippetService = new SnippetService();
-        //Gets all supported architectures
-        List<Architecture> architectures = snippetService.getArchitectures();
-        //Creates a gson object
-        Gson gson = new Gson();
-        //Converts the list of architectures into a JSON array of strings
-        String jsonOutput = gson.toJson(architectures);
+    public Response getArchitectures(@Context Request request) {
         //Send a HTTP OK (200) status, together with the JSON array that contains the architectures
-        return Response.status(Response.Status.OK).entity(jsonOutput).build();
+        return ResponseCache.respond(request, "snippets/architectures", ResponseCache.STATIC_GENERATION, new IResponseSerializer() {
+            @Override
+            public String serialize() {
+                //Gets all supported architectures and converts them into a JSON array of strings
+                return new Gson().toJson(new SnippetService().getArchitectures());
+            }
+        });
     }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package controller;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import javax.ws.rs.core.StreamingOutput;
+import model.language.enums.Architecture;
+import model.language.enums.Language;
+import model.mitre.Technique;
+import model.snippet.KeyValuePair;
+import model.snippet.Snippet;
+import model.snippet.SnippetField;
+import model.snippet.SnippetMetadata;
+import model.snippet.SnippetPage;
+import service.SnippetService;
+
+/**
+ * Writes a list of snippets as JSON directly to the output stream of the
+ * response, one snippet at a time. Either the complete snippets are written,
+ * in the same form as <code>new Gson().toJson(snippet)</code>, or only the
+ * selected fields. If only fields of the metadata are selected, the code of
+ * the snippets is never loaded.
+ *
+ * A paginated list is written as an object that contains the total amount of
+ * snippets, the offset of the page, the cursor of the next page (if there is
+ * one), and the snippets. Otherwise, only the array with the snippets is
+ * written.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetListWriter implements StreamingOutput {
+
+    /**
+     * The amount of snippets of which the code is loaded at once
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    /**
+     * The type of the alterators of a snippet, as used by Gson
+     */
+    private static final Type ALTERATORS_TYPE = new TypeToken<List<KeyValuePair>>() {
+    }.getType();
+
+    /**
+     * The page with the snippets to write
+     */
+    private final SnippetPage page;
+
+    /**
+     * The fields to write, or null if the complete snippets are to be written
+     */
+    private final Set<SnippetField> fields;
+
+    /**
+     * True if the page is to be written as an object with the details of the
+     * page, false if only the array with the snippets is to be written
+     */
+    private final boolean paginated;
+
+    /**
+     * Creates a writer for the given page
+     *
+     * @param page the page with the snippets to write
+     * @param fields the fields to write, or null if the complete snippets are
+     * to be written
+     * @param paginated true if the page is to be written as an object with the
+     * details of the page, false if only the array with the snippets is to be
+     * written
+     */
+    public SnippetListWriter(SnippetPage page, Set<SnippetField> fields, boolean paginated) {
+        this.page = page;
+        this.fields = fields;
+        this.paginated = paginated;
+    }
+
+    /**
+     * Writes the snippets to the given output stream
+     *
+     * @param output the output stream of the response
+     * @throws IOException if the output stream cannot be written to
+     */
+    @Override
+    public void write(OutputStream output) throws IOException {
+        Gson gson = new Gson();
+        JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+        //Use the same settings as Gson does by default, meaning null values are omitted
+        writer.setHtmlSafe(true);
+        writer.setSerializeNulls(false);
+        if (paginated) {
+            writer.beginObject();
+            writer.name("total").value(page.getTotal());
+            writer.name("offset").value(page.getOffset());
+            writer.name("nextCursor").value(page.getNextCursor());
+            writer.name("snippets");
+        }
+        writer.beginArray();
+        if (fields != null && !requiresCode()) {
+            //The metadata suffices, meaning the code of the snippets is not loaded at all
+            for (SnippetMetadata snippet : page.getSnippets()) {
+                writeSnippet(gson, writer, snippet, null);
+            }
+        } else {
+            SnippetService snippetService = new SnippetService();
+            List<SnippetMetadata> snippets = page.getSnippets();
+            //The code is loaded in chunks, so only a chunk of snippets is referenced at once
+            for (int start = 0; start < snippets.size(); start += CHUNK_SIZE) {
+                List<SnippetMetadata> chunk = snippets.subList(start, Math.min(start + CHUNK_SIZE, snippets.size()));
+                for (Snippet snippet : snippetService.getSnippets(chunk)) {
+                    if (fields == null) {
+                        gson.toJson(snippet, Snippet.class, writer);
+                    } else {
+                        writeSnippet(gson, writer, new SnippetMetadata(snippet), snippet);
+                    }
+                }
+            }
+        }
+        writer.endArray();
+        if (paginated) {
+            writer.endObject();
+        }
+        //The output stream itself is closed by the container
+        writer.flush();
+    }
+
+    /**
+     * Checks if any of the selected fields requires the code of the snippets
+     *
+     * @return true if the code of the snippets is to be loaded, false if not
+     */
+    private boolean requiresCode() {
+        for (SnippetField field : fields) {
+            if (field.requiresCode()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the selected fields of a single snippet as an object
+     *
+     * @param gson the instance that is used to serialize the values
+     * @param writer the writer to write the snippet to
+     * @param snippetMetadata the metadata of the snippet
+     * @param snippet the complete snippet, which is only required if any of
+     * the selected fields requires the code of the snippet
+     * @throws IOException if the output stream cannot be written to
+     */
+    private void writeSnippet(Gson gson, JsonWriter writer, SnippetMetadata snippetMetadata, Snippet snippet) throws IOException {
+        writer.beginObject();
+        for (SnippetField field : fields) {
+            writer.name(field.getName());
+            switch (field) {
+                case ID:
+                    writer.value(snippetMetadata.getId());
+                    break;
+                case TITLE:
+                    writer.value(snippetMetadata.getTitle());
+                    break;
+                case DESCRIPTION:
+                    writer.value(snippetMetadata.getDescription());
+                    break;
+                case AUTHOR:
+                    writer.value(snippetMetadata.getAuthor());
+                    break;
+                case DATE:
+                    writer.value(snippetMetadata.getDate());
+                    break;
+                case LANGUAGE:
+                    gson.toJson(snippetMetadata.getLanguage(), Language.class, writer);
+                    break;
+                case ARCHITECTURE:
+                    gson.toJson(snippetMetadata.getArchitecture(), Architecture.class, writer);
+                    break;
+                case TECHNIQUES:
+                    writer.beginArray();
+                    for (Technique technique : snippetMetadata.getTechniques()) {
+                        gson.toJson(technique, Technique.class, writer);
+                    }
+                    writer.endArray();
+                    break;
+                case ALTERATORS:
+                    gson.toJson(snippet.getAlterators(), ALTERATORS_TYPE, writer);
+                    break;
+                case CLASS_OBJECT:
+                    //The class object is serialized based on its language specific type, as is done for complete snippets
+                    gson.toJson(snippet.getClassObject(), snippet.getClassObject().getClass(), writer);
+                    break;
+                default:
+                    throw new IllegalArgumentException("The field " + field + " cannot be written!");
+            }
+        }
+        writer.endObject();
+    }
+}
@@ -20,8 +20,11 @@ import javax.ejb.Stateless;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import service.SnippetService;
 import service.StatusService;
 
 /**
@@ -52,18 +55,23 @@ public class StatusController {
      * errors on its own during the start of the application on the server. If
      * there are no snippets, the value "0" is returned.
      *
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
      * @return the amount of loaded snippets in JSON format
      */
     @GET
     @Path("snippets")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getSnippetCount() {
+    public Response getSnippetCount(@Context Request request) {
         //Creates a status service instance
-        StatusService statusService = new StatusService();
-        //Stores the input in the message object
-        Message message = new Message(Integer.toString(statusService.getSnippetCount()));
-        //Send the HTTP OK (200) status with the message in JSON form as a response
-        return Response.status(Response.Status.OK).entity(message.toString()).build();
+        final StatusService statusService = new StatusService();
+        //Send the HTTP OK (200) status with the amount of snippets in JSON form as a response, which is only serialized again if the catalog has changed
+        return ResponseCache.respond(request, "status/snippets", new SnippetService().getGeneration(), new IResponseSerializer() {
+            @Override
+            public String serialize() {
+                return new Message(Integer.toString(statusService.getSnippetCount())).toString();
+            }
+        });
     }
 
     /**
@@ -81,18 +89,23 @@ public class StatusController {
      *
      * No error scenario is present, since the string is a constant value
      *
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
      * @return the version of Genesis in JSON format
      */
     @GET
     @Path("version")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getVersion() {
+    public Response getVersion(@Context Request request) {
         //Creates a status service instance
-        StatusService statusService = new StatusService();
-        //Stores the version in a message object
-        Message message = new Message(statusService.getVersion());
-        //Sends the HTTP OK (200) status with the version in JSON format
-        return Response.status(Response.Status.OK).entity(message.toString()).build();
+        final StatusService statusService = new StatusService();
+        //Sends the HTTP OK (200) status with the version in JSON format, which never changes
+        return ResponseCache.respond(request, "status/version", ResponseCache.STATIC_GENERATION, new IResponseSerializer() {
+            @Override
+            public String serialize() {
+                return new Message(statusService.getVersion()).toString();
+            }
+        });
     }
 
     /**
@@ -112,18 +125,23 @@ public class StatusController {
      * and one of the constant values is returned. If there are no snippets, a
      * dash ("-") is returned.
      *
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
      * @return the most used technique in all snippets
      */
     @GET
     @Path("topTechnique")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getMostUsedTechnique() {
-        //Creates a new status service instance
-        StatusService statusService = new StatusService();
-        //Stores the most used technique in a message object
-        Message message = new Message(statusService.getMostUsedTechnique());
-        //Sends a HTTP OK (200) status with the most used technique as a response
-        return Response.status(Response.Status.OK).entity(message.toString()).build();
+    public Response getMostUsedTechnique(@Context Request request) {
+        //Creates a status service instance
+        final StatusService statusService = new StatusService();
+        //Sends a HTTP OK (200) status with the most used technique as a response, which is only serialized again if the catalog has changed
+        return ResponseCache.respond(request, "status/topTechnique", new SnippetService().getGeneration(), new IResponseSerializer() {
+            @Override
+            public String serialize() {
+                return new Message(statusService.getMostUsedTechnique()).toString();
+            }
+        });
     }
 
     /**
@@ -144,19 +162,24 @@ public class StatusController {
      * loaded, the snippet count will stay at zero, meaning that the unique
      * count of techniques will also remain zero.
      *
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
      * @return the amount of unique techniques that are being used in the
      * snippets
      */
     @GET
     @Path("techniqueCount")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getTechniqueCount() {
-        //Creates a new status service instance
-        StatusService statusService = new StatusService();
-        //Stores the used technique count in a message object
-        Message message = new Message(statusService.getUsedTechniqueCount());
-        //Sends the HTTP OK (200) status with the used technique count message object as a response
-        return Response.status(Response.Status.OK).entity(message.toString()).build();
+    public Response getTechniqueCount(@Context Request request) {
+        //Creates a status service instance
+        final StatusService statusService = new StatusService();
+        //Sends the HTTP OK (200) status with the used technique count as a response, which is only serialized again if the catalog has changed
+        return ResponseCache.respond(request, "status/techniqueCount", new SnippetService().getGeneration(), new IResponseSerializer() {
+            @Override
+            public String serialize() {
+                return new Message(statusService.getUsedTechniqueCount()).toString();
+            }
+        });
     }
 
     /**
@@ -175,18 +198,81 @@ public class StatusController {
      * handling. If no snippets can be loaded, the snippet count will stay at
      * zero. In that case, a dash ("-") is returned.
      *
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
      * @return the amount of unique techniques that are being used in the
      * snippets
      */
     @GET
     @Path("topLanguage")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getMostUsedLanguage() {
-        //Creates a new status service instance
+    public Response getMostUsedLanguage(@Context Request request) {
+        //Creates a status service instance
+        final StatusService statusService = new StatusService();
+        //Sends the HTTP OK (200) status with the most used language as a response, which is only serialized again if the catalog has changed
+        return ResponseCache.respond(request, "status/topLanguage", new SnippetService().getGeneration(), new IResponseSerializer() {
+            @Override
+            public String serialize() {
+                return new Message(statusService.getMostUsedLanguage()).toString();
+            }
+        });
+    }
+
+    /**
+     * This method returns the amount of requested snippets of which the code
+     * was present in the snippet cache, in a JSON object. The object has a
+     * single field ("message"), which contains the value.
+     *
+     * This method is a only reachable when a GET request is sent to the API
+     * base (as specified in <code>controller.RestConfig.java</code>), after
+     * which the path for this class (as specified above in <code>@Path</code>)
+     * needs to be appended. Additionally, the method's <code>@Path</code> needs
+     * to be appended.
+     *
+     * An example of this is: <code>api/v1/status/cacheHits</code>
+     *
+     * No error scenario is present, since the value is a counter. As the
+     * counter changes with every requested snippet, the response is never
+     * cached.
+     *
+     * @return the amount of cache hits in JSON format
+     */
+    @GET
+    @Path("cacheHits")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getCacheHits() {
+        //Creates a status service instance
+        StatusService statusService = new StatusService();
+        //Sends the HTTP OK (200) status with the amount of cache hits as a response
+        return Response.status(Response.Status.OK).entity(new Message(statusService.getCacheHits()).toString()).build();
+    }
+
+    /**
+     * This method returns the amount of requested snippets of which the code
+     * had to be loaded from the disk, in a JSON object. The object has a
+     * single field ("message"), which contains the value.
+     *
+     * This method is a only reachable when a GET request is sent to the API
+     * base (as specified in <code>controller.RestConfig.java</code>), after
+     * which the path for this class (as specified above in <code>@Path</code>)
+     * needs to be appended. Additionally, the method's <code>@Path</code> needs
+     * to be appended.
+     *
+     * An example of this is: <code>api/v1/status/cacheMisses</code>
+     *
+     * No error scenario is present, since the value is a counter. As the
+     * counter changes with every requested snippet, the response is never
+     * cached.
+     *
+     * @return the amount of cache misses in JSON format
+     */
+    @GET
+    @Path("cacheMisses")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getCacheMisses() {
+        //Creates a status service instance
         StatusService statusService = new StatusService();
-        //Stores the most used language in a message object
-        Message message = new Message(statusService.getMostUsedLanguage());
-        //Sends the HTTP OK (200) status with the most used language message object as a response
-        return Response.status(Response.Status.OK).entity(message.toString()).build();
+        //Sends the HTTP OK (200) status with the amount of cache misses as a response
+        return Response.status(Response.Status.OK).entity(new Message(statusService.getCacheMisses()).toString()).build();
     }
 }
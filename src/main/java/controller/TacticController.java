@@ -23,8 +23,11 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import model.mitre.Tactic;
 import service.TacticService;
 
 /**
@@ -53,20 +56,22 @@ public class TacticController {
      * strings). Since this is a read-only operation within the back-end, no
      * failure is expected.
      *
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
      * @return all MITRE ATT&CK Tactics with corresponding ATT&CK Techniques per
      * Tactic
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getAllTactics() {
-        //Creates a new gson object
-        Gson gson = new Gson();
-        //Creates an instance of the tactic service
-        TacticService tacticService = new TacticService();
-        //Gets all tactics in JSON format
-        String jsonTactics = gson.toJson(tacticService.getAllTactics());
-        //Returns the HTTP OK (200) status, together with the tactics in JSON format
-        return Response.status(Response.Status.OK).entity(jsonTactics).build();
+    public Response getAllTactics(@Context Request request) {
+        //Returns the HTTP OK (200) status, together with the tactics in JSON format, which never change
+        return ResponseCache.respond(request, "tactics", ResponseCache.STATIC_GENERATION, new IResponseSerializer() {
+            @Override
+            public String serialize() {
+                //Gets all tactics in JSON format
+                return new Gson().toJson(new TacticService().getAllTactics());
+            }
+        });
     }
 
     /**
@@ -87,21 +92,26 @@ public class TacticController {
      * contains the exact error message.
      *
      * @param tactic the Tactic to get all Techniques for
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
      * @return all corresponding ATT&CK Techniques for the given Tactic
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("{tactic}")
-    public Response getTactic(@PathParam("tactic") String tactic) {
+    public Response getTactic(@PathParam("tactic") String tactic, @Context Request request) {
         try {
-            //Creates a new gson object
-            Gson gson = new Gson();
             //Create a new tactic service instance
             TacticService tacticService = new TacticService();
-            //Gets the tactic by the given name, which is then converted into JSON format
-            String jsonTactic = gson.toJson(tacticService.getTacticByName(tactic).getTechniques());
-            //Sends the HTTP OK (200) status, together with the tactic in JSON format
-            return Response.status(Response.Status.OK).entity(jsonTactic).build();
+            //Gets the tactic by the given name
+            final Tactic matchedTactic = tacticService.getTacticByName(tactic);
+            //Sends the HTTP OK (200) status, together with the tactic in JSON format, which never changes
+            return ResponseCache.respond(request, "tactics/" + matchedTactic.getName(), ResponseCache.STATIC_GENERATION, new IResponseSerializer() {
+                @Override
+                public String serialize() {
+                    return new Gson().toJson(matchedTactic.getTechniques());
+                }
+            });
         } catch (TacticNotFoundException ex) {
             //Stores the exception message in a message object
             Message message = new Message(ex.getMessage());
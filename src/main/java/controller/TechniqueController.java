@@ -21,7 +21,9 @@ import javax.ejb.Stateless;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import service.TechniqueService;
 
@@ -49,18 +51,20 @@ public class TechniqueController {
      * together with a JSON array that contains all techniques, where each
      * technique is a string.
      *
+     * @param request the request, which is used to evaluate the
+     * <code>If-None-Match</code> header
      * @return all MITRE ATT&CK techniques in a JSON array to the user
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getAllTechniques() {
-        //Creates a gson object
-        Gson gson = new Gson();
-        //Creates an instance of the technique service
-        TechniqueService techniqueService = new TechniqueService();
-        //Converts the technique list into a JSON array
-        String jsonOutput = gson.toJson(techniqueService.getAllTechniques());
-        //Return a HTTP OK (200) status, together with the JSON array that contains the techniques
-        return Response.status(Response.Status.OK).entity(jsonOutput).build();
+    public Response getAllTechniques(@Context Request request) {
+        //Return a HTTP OK (200) status, together with the JSON array that contains the techniques, which never change
+        return ResponseCache.respond(request, "techniques", ResponseCache.STATIC_GENERATION, new IResponseSerializer() {
+            @Override
+            public String serialize() {
+                //Converts the technique list into a JSON array
+                return new Gson().toJson(new TechniqueService().getAllTechniques());
+            }
+        });
     }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import exception.JsonParseException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import model.snippet.Snippet;
+
+/**
+ * A snippet that is loaded by parsing its JSON file again. The content of the
+ * file is compared with the hash of the content that was indexed, as the
+ * metadata in the catalog would otherwise not match the loaded snippet.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class FileSnippetSource implements ISnippetSource {
+
+    /**
+     * The loader that is used to parse the file
+     */
+    private final SnippetLoader loader;
+
+    /**
+     * The JSON file of the snippet
+     */
+    private final Path file;
+
+    /**
+     * The SHA-256 hash of the content of the file when it was indexed
+     */
+    private final byte[] hash;
+
+    /**
+     * Creates a source for the given file
+     *
+     * @param loader the loader that is used to parse the file
+     * @param file the JSON file of the snippet
+     * @param hash the SHA-256 hash of the content of the file when it was
+     * indexed
+     */
+    public FileSnippetSource(SnippetLoader loader, Path file, byte[] hash) {
+        this.loader = loader;
+        this.file = file;
+        this.hash = hash;
+    }
+
+    /**
+     * Reads and parses the file of the snippet
+     *
+     * @return the parsed snippet
+     * @throws JsonParseException if the file cannot be read or parsed, or if
+     * it has been altered since it was indexed
+     */
+    @Override
+    public Snippet load() throws JsonParseException {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (IOException ex) {
+            throw new JsonParseException("Unable to load " + file.toAbsolutePath() + "!");
+        }
+        //The snippets are to be loaded again once the file has been altered
+        if (!MessageDigest.isEqual(hash, loader.hash(content))) {
+            throw new JsonParseException("Unable to load " + file.toAbsolutePath() + " because it has been altered since the snippets were loaded!");
+        }
+        return loader.parseSnippet(file, content);
+    }
+
+    /**
+     * Gets the SHA-256 hash of the content of the file when it was indexed
+     *
+     * @return the hash of the content of the file
+     */
+    @Override
+    public byte[] getHash() {
+        return hash;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import exception.JsonFolderNotFoundException;
+import exception.JsonParseException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import model.snippet.Snippet;
+import model.snippet.SnippetConstants;
+
+/**
+ * The store that keeps every snippet in its own JSON file in the snippet
+ * folder (as specified in <code>SnippetConstants.SNIPPET_FOLDER</code>). The
+ * name of each file equals the ID of its snippet. Files can be added to the
+ * folder by hand, after which they are loaded once all snippets are loaded
+ * again, or directly if the folder is watched.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class FolderSnippetStore implements ISnippetStore {
+
+    /**
+     * The loader that reads and parses the snippet files
+     */
+    private final SnippetLoader loader;
+
+    /**
+     * Creates a store for the snippet folder
+     *
+     * @param bodyCache the cache in which the snippets that are parsed during
+     * a load are stored
+     */
+    public FolderSnippetStore(SnippetBodyCache bodyCache) {
+        loader = new SnippetLoader(bodyCache);
+    }
+
+    /**
+     * Loads all snippet files that reside in the snippet folder
+     *
+     * @return all snippet files, sorted on their name
+     * @throws JsonFolderNotFoundException if the snippet folder cannot be
+     * found, or if it is a file
+     * @throws JsonParseException if a snippet file cannot be parsed
+     */
+    @Override
+    public List<SnippetFile> load() throws JsonFolderNotFoundException, JsonParseException {
+        return loader.loadSnippetFiles();
+    }
+
+    /**
+     * Saves each snippet in the snippet file that is named after its ID. All
+     * snippets are written to temporary files first, which then replace the
+     * snippet files, after which the snippet folder is synchronised once. A
+     * crash therefore never leaves a partially written snippet file behind.
+     * Snippet files that are replaced are backed up first, so they are
+     * restored if any of the snippets cannot be saved.
+     *
+     * @param snippets the snippets to save
+     * @param contents the JSON form of the snippets, encoded in UTF-8, in the
+     * order of the given snippets
+     * @return the sources of the saved snippets, which read the snippet files
+     * @throws IOException if any of the snippet files cannot be written
+     */
+    @Override
+    public List<ISnippetSource> save(List<Snippet> snippets, List<byte[]> contents) throws IOException {
+        Path folder = loader.getFolder();
+        List<Path> temporaryFiles = new ArrayList<>(snippets.size());
+        List<Path> files = new ArrayList<>(snippets.size());
+        //The backups of the replaced snippet files, in the order of the snippets, where null means that no file was replaced
+        List<Path> backupFiles = new ArrayList<>(Collections.nCopies(snippets.size(), (Path) null));
+        List<ISnippetSource> sources = new ArrayList<>(snippets.size());
+        String fileName = null;
+        try {
+            //Write and flush all snippets to temporary files, so no snippet file is created unless all snippets can be written
+            for (int i = 0; i < snippets.size(); i++) {
+                fileName = snippets.get(i).getId() + ".json";
+                temporaryFiles.add(SnippetStoreFiles.writeTemporaryFile(folder, snippets.get(i).getId(), contents.get(i)));
+                Path file = folder.resolve(fileName);
+                files.add(file);
+                //The code of the snippet is loaded from its file once it is required
+                sources.add(new FileSnippetSource(loader, file, loader.hash(contents.get(i))));
+            }
+            //Move all temporary files to their snippet files, after which the folder is synchronised once for all of them
+            for (int i = 0; i < temporaryFiles.size(); i++) {
+                fileName = files.get(i).getFileName().toString();
+                //An existing snippet file is copied first, so it can be restored if a later snippet cannot be saved
+                if (Files.exists(files.get(i))) {
+                    backupFiles.set(i, Files.createTempFile(folder, snippets.get(i).getId() + ".", SnippetConstants.TEMPORARY_FILE_SUFFIX));
+                    Files.copy(files.get(i), backupFiles.get(i), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                SnippetStoreFiles.move(temporaryFiles.get(i), files.get(i));
+                temporaryFiles.set(i, null);
+            }
+            SnippetStoreFiles.syncDirectory(folder);
+            //All snippets are saved, meaning the backups are no longer required
+            for (Path backupFile : backupFiles) {
+                SnippetStoreFiles.deleteQuietly(backupFile);
+            }
+            return sources;
+        } catch (IOException ex) {
+            //Undo the files that were already written, so the snippets are not loaded partially after a restart
+            for (int i = 0; i < temporaryFiles.size(); i++) {
+                if (temporaryFiles.get(i) != null) {
+                    //The snippet file was not written, so only its temporary file and its backup are removed
+                    SnippetStoreFiles.deleteQuietly(temporaryFiles.get(i));
+                    SnippetStoreFiles.deleteQuietly(backupFiles.get(i));
+                } else if (backupFiles.get(i) == null) {
+                    //The snippet file did not exist prior to this save, so it is removed
+                    SnippetStoreFiles.deleteQuietly(files.get(i));
+                } else {
+                    //The snippet file replaced an existing file, which is restored
+                    restore(backupFiles.get(i), files.get(i));
+                }
+            }
+            SnippetStoreFiles.syncDirectory(folder);
+            throw new IOException("Unable to write '" + fileName + "' to " + folder + "! Check if the required permissions are granted before you try again.");
+        }
+    }
+
+    /**
+     * Restores the given snippet file from its backup. If the file cannot be
+     * restored, the backup is kept and the failure is logged, as the original
+     * content would be lost otherwise.
+     *
+     * @param backupFile the backup of the snippet file
+     * @param file the snippet file to restore
+     */
+    private static void restore(Path backupFile, Path file) {
+        try {
+            SnippetStoreFiles.move(backupFile, file);
+        } catch (IOException ex) {
+            Logger.getLogger(FolderSnippetStore.class.getName()).log(Level.SEVERE, "Unable to restore " + file.toAbsolutePath() + " from its backup " + backupFile.toAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * The folder store does not keep any resources open
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Gets the loader that reads and parses the snippet files, which is used
+     * when the snippet folder is watched
+     *
+     * @return the loader of this store
+     */
+    public SnippetLoader getLoader() {
+        return loader;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import exception.JsonParseException;
+import model.snippet.Snippet;
+
+/**
+ * The location from which the complete snippet (including the code) is
+ * loaded. The catalog only keeps the metadata of each snippet in memory, along
+ * with its source, after which the code is loaded on first use.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public interface ISnippetSource {
+
+    /**
+     * Loads the complete snippet. Every call returns a new instance.
+     *
+     * @return the loaded snippet
+     * @throws JsonParseException if the snippet cannot be loaded
+     */
+    public Snippet load() throws JsonParseException;
+
+    /**
+     * Gets the SHA-256 hash of the content that this source loads. Two sources
+     * with the same hash load the same snippet.
+     *
+     * @return the hash of the content, or null if the content is only known
+     * to this source
+     */
+    public byte[] getHash();
+}
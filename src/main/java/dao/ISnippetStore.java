@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import exception.JsonFolderNotFoundException;
+import exception.JsonParseException;
+import java.io.IOException;
+import java.util.List;
+import model.snippet.Snippet;
+
+/**
+ * The storage in which the snippets are persisted. The
+ * <code>SnippetManager</code> loads all snippets from the store during the
+ * start-up of Genesis, and saves new snippets in it. The complete snippets
+ * are loaded from the sources that the store provides, once they are
+ * required.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public interface ISnippetStore {
+
+    /**
+     * Loads all snippets that reside in the store
+     *
+     * @return the snippets in the store, each with the metadata of the snippet
+     * and the source from which the complete snippet is loaded
+     * @throws JsonFolderNotFoundException if the location of the store cannot
+     * be found
+     * @throws JsonParseException if a stored snippet cannot be parsed
+     */
+    public List<SnippetFile> load() throws JsonFolderNotFoundException, JsonParseException;
+
+    /**
+     * Saves the given snippets in the store, replacing stored snippets with the
+     * same ID. The snippets are either all saved, or none are saved, and are
+     * on the disk once this method returns.
+     *
+     * @param snippets the snippets to save
+     * @param contents the JSON form of the snippets, encoded in UTF-8, in the
+     * order of the given snippets
+     * @return the sources of the saved snippets, in the order of the given
+     * snippets
+     * @throws IOException if the snippets cannot be saved
+     */
+    public List<ISnippetSource> save(List<Snippet> snippets, List<byte[]> contents) throws IOException;
+
+    /**
+     * Releases all resources of the store, after which it is no longer used
+     */
+    public void close();
+}
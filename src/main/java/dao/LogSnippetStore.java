@@ -0,0 +1,986 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import exception.JsonFolderNotFoundException;
+import exception.JsonParseException;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import model.snippet.Snippet;
+import model.snippet.SnippetConstants;
+import model.snippet.SnippetMetadata;
+
+/**
+ * The store that appends all snippets to a log, which consists of numbered
+ * segment files in a single folder. Only the last segment is appended to,
+ * until it exceeds <code>SnippetConstants.SNIPPET_LOG_SEGMENT_SIZE</code>,
+ * after which a new segment is started. A snippet that is saved again is
+ * appended as well, after which the record with the latest version of the
+ * snippet is the only one that is used.
+ *
+ * The log is read sequentially once, during which an index with the offset of
+ * the latest record of each snippet is created. A snippet is then loaded with
+ * a single read at its offset, rather than by opening its own file. Once the
+ * share of superseded records exceeds
+ * <code>SnippetConstants.SNIPPET_LOG_COMPACTION_RATIO</code>, all segments but
+ * the last are compacted in the background, by copying the records that are
+ * still in use to a single new segment.
+ *
+ * Each record consists of the length of the ID, the length of the content,
+ * the CRC-32 checksum of both the ID and the content, the ID, and the content
+ * (which is the JSON form of the snippet), where the lengths and the checksum
+ * are stored as integers. A record that was only partially written, because
+ * of a crash, is removed when the log is read.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class LogSnippetStore implements ISnippetStore {
+
+    /**
+     * The suffix of the segment files, whose name is the number of the segment
+     */
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * The size of the header of each record in bytes, which consists of the
+     * length of the ID, the length of the content, and the checksum
+     */
+    private static final int HEADER_SIZE = 12;
+
+    /**
+     * The amount of bytes of content that is parsed at once when the log is
+     * read, which bounds the amount of content in memory
+     */
+    private static final int PARSE_BATCH_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The folder in which the segment files reside
+     */
+    private final Path folder;
+
+    /**
+     * The loader that parses the content of the records
+     */
+    private final SnippetLoader loader;
+
+    /**
+     * The cache in which the snippets that are parsed while the log is read
+     * are stored
+     */
+    private final SnippetBodyCache bodyCache;
+
+    /**
+     * The lock that guards the segments and the index. Snippets are read
+     * while holding the read lock, whereas the write lock is held when records
+     * are appended, and when compacted segments are swapped in
+     */
+    private final ReentrantReadWriteLock lock;
+
+    /**
+     * All segments, where the key is the number of the segment. The last
+     * segment is the only one that is appended to
+     */
+    private final TreeMap<Long, Segment> segments;
+
+    /**
+     * The latest record of each snippet, where the key is the lower case ID of
+     * the snippet, in the order in which the snippets were saved
+     */
+    private final Map<String, Record> index;
+
+    /**
+     * The executor on which the segments are compacted
+     */
+    private final ExecutorService compactor;
+
+    /**
+     * True if a compaction has been scheduled, but has not yet completed
+     */
+    private final AtomicBoolean compactionScheduled;
+
+    /**
+     * True once the log has been read
+     */
+    private boolean opened;
+
+    /**
+     * True once the store has been closed
+     */
+    private boolean closed;
+
+    /**
+     * Creates a store for the log in the given folder. The log is read once
+     * the snippets are first loaded or saved.
+     *
+     * @param folder the folder in which the segment files reside, which is
+     * created if it does not exist
+     * @param bodyCache the cache in which the snippets that are parsed while
+     * the log is read are stored
+     */
+    public LogSnippetStore(Path folder, SnippetBodyCache bodyCache) {
+        this.folder = folder;
+        this.bodyCache = bodyCache;
+        loader = new SnippetLoader();
+        lock = new ReentrantReadWriteLock();
+        segments = new TreeMap<>();
+        index = new LinkedHashMap<>();
+        compactionScheduled = new AtomicBoolean();
+        //The compaction runs on a daemon thread, as it should never keep the application alive
+        compactor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Genesis snippet log compactor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Loads all snippets in the log. The log is only read from the disk
+     * during the first load, as it is only altered by this store.
+     *
+     * @return the latest version of all snippets, in the order in which they
+     * were saved
+     * @throws JsonFolderNotFoundException if the folder of the log cannot be
+     * created, or if it is a file
+     * @throws JsonParseException if the log cannot be read, or if a record
+     * cannot be parsed
+     */
+    @Override
+    public List<SnippetFile> load() throws JsonFolderNotFoundException, JsonParseException {
+        List<SnippetFile> files;
+        lock.writeLock().lock();
+        try {
+            open();
+            files = new ArrayList<>(index.size());
+            for (Record record : index.values()) {
+                files.add(new SnippetFile(record.source.id, 0, record.contentLength, record.source.hash, record.metadata, record.source));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleCompaction();
+        return files;
+    }
+
+    /**
+     * Appends the given snippets to the last segment, after which the segment
+     * is flushed to the disk once. If the snippets cannot be written, the
+     * segment is truncated to its previous size.
+     *
+     * @param snippets the snippets to save
+     * @param contents the JSON form of the snippets, encoded in UTF-8, in the
+     * order of the given snippets
+     * @return the sources of the saved snippets, which read the records
+     * @throws IOException if the log cannot be read or written
+     */
+    @Override
+    public List<ISnippetSource> save(List<Snippet> snippets, List<byte[]> contents) throws IOException {
+        //Encode all records prior to obtaining the lock
+        List<byte[]> ids = new ArrayList<>(snippets.size());
+        long length = 0;
+        for (int i = 0; i < snippets.size(); i++) {
+            byte[] id = snippets.get(i).getId().getBytes(StandardCharsets.UTF_8);
+            ids.add(id);
+            length += HEADER_SIZE + id.length + contents.get(i).length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        for (int i = 0; i < snippets.size(); i++) {
+            byte[] id = ids.get(i);
+            byte[] content = contents.get(i);
+            buffer.putInt(id.length);
+            buffer.putInt(content.length);
+            buffer.putInt(checksum(id, content));
+            buffer.put(id);
+            buffer.put(content);
+        }
+        buffer.flip();
+        List<ISnippetSource> sources = new ArrayList<>(snippets.size());
+        lock.writeLock().lock();
+        try {
+            try {
+                open();
+            } catch (JsonFolderNotFoundException | JsonParseException ex) {
+                throw new IOException(ex.getMessage());
+            }
+            Segment segment = getSegment(length);
+            long position = segment.size;
+            try {
+                SnippetStoreFiles.write(segment.getChannel(), buffer, position);
+                //All records are on the disk once this method returns
+                segment.getChannel().force(true);
+            } catch (IOException ex) {
+                //Remove the records that were written partially, so the log remains valid
+                try {
+                    segment.getChannel().truncate(position);
+                } catch (IOException truncateException) {
+                    Logger.getLogger(LogSnippetStore.class.getName()).log(Level.WARNING, "Unable to truncate " + segment.file.toAbsolutePath(), truncateException);
+                }
+                throw new IOException("Unable to write the snippets to " + segment.file.toAbsolutePath() + "! Check if the required permissions are granted before you try again.");
+            }
+            segment.size = position + length;
+            //Only the latest record of each snippet is used from now on
+            for (int i = 0; i < snippets.size(); i++) {
+                Snippet snippet = snippets.get(i);
+                Record record = new Record(segment, position, ids.get(i).length, contents.get(i).length, new LogSnippetSource(snippet.getId(), loader.hash(contents.get(i))));
+                record.metadata = new SnippetMetadata(snippet);
+                put(record);
+                sources.add(record.source);
+                position += record.getLength();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleCompaction();
+        return sources;
+    }
+
+    /**
+     * Closes all segments, after which the snippets can no longer be loaded
+     * from this store. A compaction that is in progress is abandoned.
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        lock.writeLock().lock();
+        try {
+            closed = true;
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the log, if it has not been read yet, which creates the index.
+     * Each segment is read sequentially, during which the records are parsed
+     * in parallel in batches. A partially written record at the end of the last
+     * segment is removed. Must only be called while the write lock is held.
+     *
+     * @throws JsonFolderNotFoundException if the folder of the log cannot be
+     * created, or if it is a file
+     * @throws JsonParseException if the log cannot be read, if a segment other
+     * than the last is corrupt, or if a record cannot be parsed
+     */
+    private void open() throws JsonFolderNotFoundException, JsonParseException {
+        if (closed) {
+            throw new JsonParseException("Unable to load the snippet log because it has been closed!");
+        }
+        if (opened) {
+            return;
+        }
+        Logger logger = Logger.getLogger(LogSnippetStore.class.getName());
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(folder);
+        } catch (IOException ex) {
+            throw new JsonFolderNotFoundException("Unable to load the snippet log because " + folder.toAbsolutePath() + " cannot be created, or is a file!");
+        }
+        try {
+            //List the segments, which are sorted on their number
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+                for (Path file : stream) {
+                    String name = file.getFileName().toString();
+                    //A temporary file is left behind by a compaction that was interrupted, and is never used
+                    if (name.endsWith(SnippetConstants.TEMPORARY_FILE_SUFFIX)) {
+                        SnippetStoreFiles.deleteQuietly(file);
+                        continue;
+                    }
+                    if (!name.endsWith(SEGMENT_SUFFIX)) {
+                        continue;
+                    }
+                    try {
+                        long number = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                        segments.put(number, new Segment(number, file, FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)));
+                    } catch (NumberFormatException ex) {
+                        logger.log(Level.WARNING, "Ignoring {0}, as it is not a segment of the snippet log", file.toAbsolutePath());
+                    }
+                }
+            }
+            //Read all segments in order, as later records replace earlier records of the same snippet
+            for (Segment segment : segments.values()) {
+                read(segment, segment == segments.lastEntry().getValue());
+            }
+        } catch (IOException | JsonParseException ex) {
+            //Nothing is kept of a log that cannot be read completely
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+            index.clear();
+            if (ex instanceof JsonParseException) {
+                throw (JsonParseException) ex;
+            }
+            throw new JsonParseException("Unable to read the snippet log in " + folder.toAbsolutePath() + "!");
+        }
+        opened = true;
+        logger.log(Level.INFO, "Read {0} snippets from {1} segments of the snippet log in {2} ms", new Object[]{index.size(), segments.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)});
+    }
+
+    /**
+     * Reads all records of the given segment sequentially, which are added to
+     * the index and parsed in batches
+     *
+     * @param segment the segment to read
+     * @param last true if the segment is the last segment, in which case an
+     * invalid record that is not followed by any valid record is removed
+     * @throws IOException if the segment cannot be read
+     * @throws JsonParseException if the segment is corrupt, or if a record
+     * cannot be parsed
+     */
+    private void read(Segment segment, boolean last) throws IOException, JsonParseException {
+        FileChannel channel = segment.getChannel();
+        long size = channel.size();
+        //The stream is not closed, as that would close the channel of the segment
+        DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0)), 64 * 1024));
+        List<Record> batch = new ArrayList<>();
+        List<byte[]> batchContents = new ArrayList<>();
+        long batchSize = 0;
+        long offset = 0;
+        while (offset < size) {
+            Record record = null;
+            byte[] content = null;
+            if (size - offset >= HEADER_SIZE) {
+                int idLength = input.readInt();
+                int contentLength = input.readInt();
+                int checksum = input.readInt();
+                //The lengths are only trusted if the record fits in the segment
+                if (idLength > 0 && contentLength >= 0 && size - offset - HEADER_SIZE >= (long) idLength + contentLength) {
+                    byte[] id = new byte[idLength];
+                    input.readFully(id);
+                    content = new byte[contentLength];
+                    input.readFully(content);
+                    if (checksum(id, content) == checksum) {
+                        record = new Record(segment, offset, idLength, contentLength, new LogSnippetSource(new String(id, StandardCharsets.UTF_8), loader.hash(content)));
+                    }
+                }
+            }
+            if (record == null) {
+                /*
+                 * Only the end of the log can be written partially, as records are never altered once they are written. A crash can also
+                 * leave a record of which the length reached the disk while its data did not, meaning the record is torn if no valid record
+                 * follows it. An invalid record that is followed by a valid record is corrupt instead, and is never removed
+                 */
+                if (!last || hasRecordAfter(channel, offset, size)) {
+                    throw new JsonParseException("Unable to read " + segment.file.toAbsolutePath() + " because it is corrupt at offset " + offset + "!");
+                }
+                Logger.getLogger(LogSnippetStore.class.getName()).log(Level.WARNING, "Removing the incomplete record at offset {0} of {1}", new Object[]{offset, segment.file.toAbsolutePath()});
+                channel.truncate(offset);
+                channel.force(true);
+                break;
+            }
+            put(record);
+            batch.add(record);
+            batchContents.add(content);
+            batchSize += content.length;
+            offset += record.getLength();
+            if (batchSize >= PARSE_BATCH_SIZE) {
+                parse(batch, batchContents);
+                batchSize = 0;
+            }
+        }
+        parse(batch, batchContents);
+        segment.size = offset;
+    }
+
+    /**
+     * Checks if a complete record with a valid checksum starts anywhere after
+     * the given offset in the given segment. Each position is checked, as the
+     * length of an invalid record cannot be trusted to find the next record.
+     * This is only used once an invalid record is found, so the cost of the
+     * scan is not paid while the log is read normally.
+     *
+     * @param channel the channel of the segment
+     * @param offset the offset of the invalid record
+     * @param size the size of the segment
+     * @return true if a valid record follows the given offset, false if not
+     * @throws IOException if the segment cannot be read
+     */
+    private boolean hasRecordAfter(FileChannel channel, long offset, long size) throws IOException {
+        //The remainder is read instead of mapped, as a mapped file cannot be truncated on every platform
+        ByteBuffer buffer = ByteBuffer.allocate((int) (size - offset));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        for (int position = 1; buffer.limit() - position >= HEADER_SIZE; position++) {
+            int idLength = buffer.getInt(position);
+            int contentLength = buffer.getInt(position + 4);
+            //Most positions are rejected by their lengths, which avoids computing the checksum for them
+            if (idLength <= 0 || contentLength < 0 || buffer.limit() - position - HEADER_SIZE < (long) idLength + contentLength) {
+                continue;
+            }
+            byte[] id = new byte[idLength];
+            byte[] content = new byte[contentLength];
+            ByteBuffer record = buffer.duplicate();
+            record.position(position + HEADER_SIZE);
+            record.get(id);
+            record.get(content);
+            if (checksum(id, content) == buffer.getInt(position + 8)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses the content of the given records in parallel, after which the
+     * metadata of each record is set, and the parsed snippets are stored in
+     * the cache. The given lists are cleared afterwards.
+     *
+     * @param records the records to parse
+     * @param contents the content of the records, in the order of the records
+     * @throws JsonParseException if a record cannot be parsed
+     */
+    private void parse(List<Record> records, List<byte[]> contents) throws JsonParseException {
+        List<String> locations = new ArrayList<>(records.size());
+        for (Record record : records) {
+            locations.add(record.getLocation());
+        }
+        List<Snippet> snippets = loader.parseSnippets(locations, contents);
+        for (int i = 0; i < records.size(); i++) {
+            Record record = records.get(i);
+            record.metadata = new SnippetMetadata(snippets.get(i));
+            //The parsed snippet is stored in the cache to avoid parsing it again on its first use
+            if (bodyCache != null) {
+                bodyCache.put(record.source, snippets.get(i));
+            }
+        }
+        records.clear();
+        contents.clear();
+    }
+
+    /**
+     * Adds the given record to the index, which marks the previous record of
+     * the same snippet as superseded. Must only be called while the write lock
+     * is held.
+     *
+     * @param record the record to add
+     */
+    private void put(Record record) {
+        String key = record.source.id.toLowerCase();
+        //The record is removed first, so the index remains in the order in which the snippets were saved
+        Record previous = index.remove(key);
+        if (previous != null) {
+            previous.segment.deadBytes += previous.getLength();
+        }
+        index.put(key, record);
+    }
+
+    /**
+     * Gets the segment to append records of the given length to. A new
+     * segment is started if the last segment would exceed the maximum size of
+     * a segment. Must only be called while the write lock is held.
+     *
+     * @param length the length of the records to append
+     * @return the segment to append to
+     * @throws IOException if a new segment cannot be created
+     */
+    private Segment getSegment(long length) throws IOException {
+        Segment segment = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (segment == null) {
+            return createSegment(1);
+        }
+        //An empty segment is always used, as the records would not fit in any segment
+        if (segment.size > 0 && segment.size + length > SnippetConstants.SNIPPET_LOG_SEGMENT_SIZE) {
+            return createSegment(segment.number + 1);
+        }
+        return segment;
+    }
+
+    /**
+     * Creates a new, empty, segment with the given number, which becomes the
+     * last segment. Must only be called while the write lock is held.
+     *
+     * @param number the number of the segment
+     * @return the new segment
+     * @throws IOException if the segment cannot be created
+     */
+    private Segment createSegment(long number) throws IOException {
+        Path file = folder.resolve(String.format("%016d", number) + SEGMENT_SUFFIX);
+        Segment segment = new Segment(number, file, FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        //Persist the creation of the segment itself
+        SnippetStoreFiles.syncDirectory(folder);
+        segments.put(number, segment);
+        return segment;
+    }
+
+    /**
+     * Reads and parses the latest record of the snippet of the given source
+     *
+     * @param source the source of the snippet
+     * @return the parsed snippet
+     * @throws JsonParseException if the record cannot be read or parsed, or if
+     * the snippet has been saved again with a different content
+     */
+    private Snippet read(LogSnippetSource source) throws JsonParseException {
+        byte[] content;
+        String location;
+        lock.readLock().lock();
+        try {
+            Record record = index.get(source.id.toLowerCase());
+            //The snippets are to be loaded again once the snippet has been altered
+            if (record == null || !MessageDigest.isEqual(record.source.hash, source.hash)) {
+                throw new JsonParseException("Unable to load the snippet (id: " + source.id + ") because it has been altered since the snippets were loaded!");
+            }
+            location = record.getLocation();
+            content = new byte[record.contentLength];
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            long position = record.getContentOffset();
+            //A single read at the offset of the record, rather than opening a file
+            while (buffer.hasRemaining()) {
+                int read = record.segment.getChannel().read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException();
+                }
+                position += read;
+            }
+        } catch (IOException ex) {
+            throw new JsonParseException("Unable to load the snippet (id: " + source.id + ") from the snippet log!");
+        } finally {
+            lock.readLock().unlock();
+        }
+        return loader.parseSnippet(location, content);
+    }
+
+    /**
+     * Schedules the compaction of the segments if the share of superseded
+     * records exceeds <code>SnippetConstants.SNIPPET_LOG_COMPACTION_RATIO</code>
+     * and no compaction is scheduled yet
+     */
+    private void scheduleCompaction() {
+        if (!needsCompaction() || !compactionScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            compactor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        compact();
+                    } catch (IOException ex) {
+                        Logger.getLogger(LogSnippetStore.class.getName()).log(Level.WARNING, "Unable to compact the snippet log", ex);
+                    } finally {
+                        compactionScheduled.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            //The store has been closed
+            compactionScheduled.set(false);
+        }
+    }
+
+    /**
+     * Checks if the share of superseded records exceeds
+     * <code>SnippetConstants.SNIPPET_LOG_COMPACTION_RATIO</code>
+     *
+     * @return true if the segments should be compacted, false if not
+     */
+    private boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            long size = 0;
+            long deadBytes = 0;
+            for (Segment segment : segments.values()) {
+                size += segment.size;
+                deadBytes += segment.deadBytes;
+            }
+            return deadBytes > 0 && deadBytes >= size * SnippetConstants.SNIPPET_LOG_COMPACTION_RATIO;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts all segments into a single segment. A new last segment is
+     * started first, after which all other segments no longer change. The
+     * records that are still in use are copied from them to a temporary file
+     * without holding the lock, meaning snippets can be read and saved in the
+     * meantime. The temporary file then replaces the last of the compacted
+     * segments, after which the other compacted segments are deleted.
+     *
+     * Records that are superseded during the copy are marked as such in the
+     * compacted segment. Should a crash occur before all compacted segments
+     * are deleted, the compacted segment still contains the latest records,
+     * as it is read after the segments that remain.
+     *
+     * @throws IOException if the compacted segment cannot be written
+     */
+    private void compact() throws IOException {
+        long start = System.nanoTime();
+        List<Segment> compactedSegments;
+        List<Record> records = new ArrayList<>();
+        Segment target;
+        long size = 0;
+        lock.writeLock().lock();
+        try {
+            if (closed || !needsCompaction()) {
+                return;
+            }
+            //Seal the last segment, so all superseded records can be removed
+            Segment last = segments.lastEntry().getValue();
+            if (last.size > 0) {
+                createSegment(last.number + 1);
+            }
+            compactedSegments = new ArrayList<>(segments.headMap(segments.lastKey()).values());
+            if (compactedSegments.isEmpty()) {
+                return;
+            }
+            target = compactedSegments.get(compactedSegments.size() - 1);
+            for (Record record : index.values()) {
+                if (compactedSegments.contains(record.segment)) {
+                    records.add(record);
+                }
+            }
+            for (Segment segment : compactedSegments) {
+                size += segment.size;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        //Copy the records that are in use, in the order of the index, as the compacted segments are no longer altered
+        Path temporaryFile = Files.createTempFile(folder, "compaction.", SnippetConstants.TEMPORARY_FILE_SUFFIX);
+        long position = 0;
+        List<Long> offsets = new ArrayList<>(records.size());
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+            for (Record record : records) {
+                ByteBuffer buffer = ByteBuffer.allocate(record.getLength());
+                long readPosition = record.offset;
+                while (buffer.hasRemaining()) {
+                    int read = record.segment.getChannel().read(buffer, readPosition);
+                    if (read < 0) {
+                        throw new EOFException("Unable to read " + record.getLocation());
+                    }
+                    readPosition += read;
+                }
+                buffer.flip();
+                SnippetStoreFiles.write(channel, buffer, position);
+                offsets.add(position);
+                position += record.getLength();
+            }
+            channel.force(true);
+        } catch (IOException ex) {
+            SnippetStoreFiles.deleteQuietly(temporaryFile);
+            throw ex;
+        }
+
+        //Replace the compacted segments with the new segment
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                SnippetStoreFiles.deleteQuietly(temporaryFile);
+                return;
+            }
+            Segment compacted;
+            try {
+                SnippetStoreFiles.move(temporaryFile, target.file);
+                compacted = new Segment(target.number, target.file, FileChannel.open(target.file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            } catch (IOException ex) {
+                SnippetStoreFiles.deleteQuietly(temporaryFile);
+                throw ex;
+            }
+            compacted.size = position;
+            for (int i = 0; i < records.size(); i++) {
+                Record record = records.get(i);
+                Record copy = new Record(compacted, offsets.get(i), record.idLength, record.contentLength, record.source);
+                copy.metadata = record.metadata;
+                String key = record.source.id.toLowerCase();
+                //The index keeps its order, as the snippet is already present
+                if (index.get(key) == record) {
+                    index.put(key, copy);
+                } else {
+                    compacted.deadBytes += copy.getLength();
+                }
+            }
+            for (Segment segment : compactedSegments) {
+                segments.remove(segment.number);
+                segment.close();
+                if (segment != target) {
+                    SnippetStoreFiles.deleteQuietly(segment.file);
+                }
+            }
+            segments.put(compacted.number, compacted);
+            SnippetStoreFiles.syncDirectory(folder);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Logger.getLogger(LogSnippetStore.class.getName()).log(Level.INFO, "Compacted {0} segments of the snippet log from {1} to {2} bytes in {3} ms", new Object[]{compactedSegments.size(), size, position, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)});
+    }
+
+    /**
+     * Calculates the CRC-32 checksum of the given ID and content
+     *
+     * @param id the ID of the record
+     * @param content the content of the record
+     * @return the checksum
+     */
+    private int checksum(byte[] id, byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(id);
+        crc.update(content);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A segment file of the log
+     */
+    private static class Segment {
+
+        /**
+         * The number of the segment, which determines the order of the
+         * segments
+         */
+        private final long number;
+
+        /**
+         * The segment file
+         */
+        private final Path file;
+
+        /**
+         * The channel to read and write the segment file
+         */
+        private FileChannel channel;
+
+        /**
+         * True once the segment is closed, after which its channel is never
+         * opened again
+         */
+        private boolean retired;
+
+        /**
+         * The size of the records in the segment in bytes
+         */
+        private long size;
+
+        /**
+         * The size of the superseded records in the segment in bytes
+         */
+        private long deadBytes;
+
+        /**
+         * Creates a segment
+         *
+         * @param number the number of the segment
+         * @param file the segment file
+         * @param channel the channel to read and write the segment file
+         */
+        private Segment(long number, Path file, FileChannel channel) {
+            this.number = number;
+            this.file = file;
+            this.channel = channel;
+        }
+
+        /**
+         * Gets the channel of the segment. A channel is closed if a thread is
+         * interrupted while it uses the channel, in which case the segment is
+         * opened again, unless the segment itself has been closed.
+         *
+         * @return the channel of the segment
+         * @throws IOException if the channel cannot be opened again
+         */
+        private synchronized FileChannel getChannel() throws IOException {
+            if (!channel.isOpen()) {
+                if (retired) {
+                    throw new ClosedChannelException();
+                }
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return channel;
+        }
+
+        /**
+         * Closes the channel of the segment. Errors are logged, rather than
+         * thrown.
+         */
+        private synchronized void close() {
+            retired = true;
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                Logger.getLogger(LogSnippetStore.class.getName()).log(Level.WARNING, "Unable to close " + file.toAbsolutePath(), ex);
+            }
+        }
+    }
+
+    /**
+     * A record in a segment, which contains a single version of a snippet
+     */
+    private static class Record {
+
+        /**
+         * The segment that contains the record
+         */
+        private final Segment segment;
+
+        /**
+         * The offset of the record in the segment
+         */
+        private final long offset;
+
+        /**
+         * The length of the ID in bytes
+         */
+        private final int idLength;
+
+        /**
+         * The length of the content in bytes
+         */
+        private final int contentLength;
+
+        /**
+         * The source of the snippet of the record
+         */
+        private final LogSnippetSource source;
+
+        /**
+         * The metadata of the snippet of the record, which is set once the
+         * record is parsed
+         */
+        private SnippetMetadata metadata;
+
+        /**
+         * Creates a record
+         *
+         * @param segment the segment that contains the record
+         * @param offset the offset of the record in the segment
+         * @param idLength the length of the ID in bytes
+         * @param contentLength the length of the content in bytes
+         * @param source the source of the snippet of the record
+         */
+        private Record(Segment segment, long offset, int idLength, int contentLength, LogSnippetSource source) {
+            this.segment = segment;
+            this.offset = offset;
+            this.idLength = idLength;
+            this.contentLength = contentLength;
+            this.source = source;
+        }
+
+        /**
+         * Gets the length of the complete record in bytes
+         *
+         * @return the length of the record
+         */
+        private int getLength() {
+            return HEADER_SIZE + idLength + contentLength;
+        }
+
+        /**
+         * Gets the offset of the content of the record in the segment
+         *
+         * @return the offset of the content
+         */
+        private long getContentOffset() {
+            return offset + HEADER_SIZE + idLength;
+        }
+
+        /**
+         * Gets a description of the location of the record, which is used in
+         * messages
+         *
+         * @return the location of the record
+         */
+        private String getLocation() {
+            return "offset " + offset + " of " + segment.file.toAbsolutePath();
+        }
+    }
+
+    /**
+     * The source of a snippet in the log, which reads the latest record of the
+     * snippet, as long as the content of the snippet is unchanged. The source
+     * therefore remains usable once the record has been moved by a compaction.
+     */
+    private class LogSnippetSource implements ISnippetSource {
+
+        /**
+         * The ID of the snippet
+         */
+        private final String id;
+
+        /**
+         * The SHA-256 hash of the content of the record
+         */
+        private final byte[] hash;
+
+        /**
+         * Creates a source for the snippet with the given ID
+         *
+         * @param id the ID of the snippet
+         * @param hash the SHA-256 hash of the content of the record
+         */
+        private LogSnippetSource(String id, byte[] hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        /**
+         * Reads and parses the latest record of the snippet
+         *
+         * @return the parsed snippet
+         * @throws JsonParseException if the record cannot be read or parsed, or
+         * if the snippet has been altered since it was loaded
+         */
+        @Override
+        public Snippet load() throws JsonParseException {
+            return read(this);
+        }
+
+        /**
+         * Gets the SHA-256 hash of the content of the record
+         *
+         * @return the hash of the content of the record
+         */
+        @Override
+        public byte[] getHash() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import exception.JsonParseException;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import model.language.IClass;
+import model.language.IFunction;
+import model.language.IVariable;
+import model.language.javascript.JavaScriptClass;
+import model.language.powershell.PowershellClass;
+import model.snippet.Snippet;
+
+/**
+ * A cache with the complete snippets (including their code) that were used
+ * most recently. The catalog only contains the metadata of the snippets, after
+ * which the complete snippet is loaded from its source when it is first
+ * required. The size of the cache is limited by the amount of characters in
+ * the code of the cached snippets, after which the least recently used
+ * snippets are evicted.
+ *
+ * A cached snippet is only used if it was loaded from an equal source, as the
+ * snippet with a given ID might have been changed in the meantime. The amount
+ * of hits and misses is counted, which shows how effective the size of the
+ * cache is.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetBodyCache {
+
+    /**
+     * The estimated size of a snippet without any code, in characters
+     */
+    private static final int OVERHEAD = 256;
+
+    /**
+     * The maximum total size of the cached snippets, in characters
+     */
+    private final long capacity;
+
+    /**
+     * The cached snippets, where the key is the lower case ID of the snippet.
+     * The entries are ordered from the least to the most recently used one
+     */
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * The total size of the cached snippets, in characters
+     */
+    private long size;
+
+    /**
+     * The amount of requested snippets that were present in the cache
+     */
+    private final AtomicLong hits;
+
+    /**
+     * The amount of requested snippets that had to be loaded from their source
+     */
+    private final AtomicLong misses;
+
+    /**
+     * Creates an empty cache
+     *
+     * @param capacity the maximum total size of the cached snippets, in
+     * characters
+     */
+    public SnippetBodyCache(long capacity) {
+        this.capacity = capacity;
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+    }
+
+    /**
+     * Gets the snippet with the given ID, which is loaded from the given source
+     * if it is not present in the cache. The returned snippet is shared, and
+     * should therefore never be altered: a copy is to be made instead.
+     *
+     * @param id the ID of the snippet
+     * @param source the source that the snippet is loaded from
+     * @return the snippet
+     * @throws JsonParseException if the snippet cannot be loaded from the
+     * source
+     */
+    public Snippet get(String id, ISnippetSource source) throws JsonParseException {
+        String key = id.toLowerCase();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isLoadedFrom(source)) {
+                hits.incrementAndGet();
+                return entry.snippet;
+            }
+        }
+        misses.incrementAndGet();
+        //The snippet is loaded without holding the lock, so other snippets can be obtained in the meantime
+        Snippet snippet = source.load();
+        put(source, snippet);
+        return snippet;
+    }
+
+    /**
+     * Gets the snippet with the given ID for a read that touches many snippets
+     * once, such as a listing or a search. A cached snippet is used if it is
+     * present, but a snippet that is not cached is loaded from the given
+     * source without being stored. As such, a scan over all snippets does not
+     * evict the snippets that are used to build samples. The returned snippet
+     * is shared, and should therefore never be altered: a copy is to be made
+     * instead.
+     *
+     * @param id the ID of the snippet
+     * @param source the source that the snippet is loaded from
+     * @return the snippet
+     * @throws JsonParseException if the snippet cannot be loaded from the
+     * source
+     */
+    public Snippet scan(String id, ISnippetSource source) throws JsonParseException {
+        String key = id.toLowerCase();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isLoadedFrom(source)) {
+                hits.incrementAndGet();
+                return entry.snippet;
+            }
+        }
+        misses.incrementAndGet();
+        return source.load();
+    }
+
+    /**
+     * Stores the given snippet, which was loaded from the given source. This
+     * is used to store the snippets that were parsed during the loading of the
+     * snippets, which avoids loading them again on their first use. The given
+     * snippet should not be altered afterwards.
+     *
+     * @param source the source that the snippet was loaded from
+     * @param snippet the snippet to store
+     */
+    public synchronized void put(ISnippetSource source, Snippet snippet) {
+        String key = snippet.getId().toLowerCase();
+        Entry entry = new Entry(source, snippet);
+        //A snippet that is larger than the cache is not stored at all
+        if (entry.size > capacity) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            size -= previous.size;
+        }
+        size += entry.size;
+        //Evict the least recently used snippets until the cache is small enough
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (size > capacity && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            size -= eldest.size;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes all snippets from the cache. The counters are not reset.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * Gets the amount of requested snippets that were present in the cache
+     *
+     * @return the amount of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the amount of requested snippets that had to be loaded from their
+     * source
+     *
+     * @return the amount of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the amount of snippets in the cache
+     *
+     * @return the amount of cached snippets
+     */
+    public synchronized int getCount() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the total size of the cached snippets
+     *
+     * @return the size of the cached snippets, in characters
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Estimates the size of the given snippet, based on the length of its code
+     *
+     * @param snippet the snippet to estimate the size of
+     * @return the estimated size of the snippet, in characters
+     */
+    private static long getSize(Snippet snippet) {
+        long snippetSize = OVERHEAD;
+        IClass classObject = snippet.getClassObject();
+        //Only JavaScript and Powershell classes have a script
+        if (classObject instanceof JavaScriptClass) {
+            snippetSize += getLength(((JavaScriptClass) classObject).getScript());
+        } else if (classObject instanceof PowershellClass) {
+            snippetSize += getLength(((PowershellClass) classObject).getScript());
+        }
+        for (IFunction function : classObject.getFunctions()) {
+            snippetSize += getLength(function.getBody());
+        }
+        for (IVariable variable : classObject.getVariables()) {
+            snippetSize += getLength(variable.getBody());
+        }
+        return snippetSize;
+    }
+
+    /**
+     * Gets the length of the given string
+     *
+     * @param string the string, which may be null
+     * @return the length of the string, or 0 if it is null
+     */
+    private static int getLength(String string) {
+        return string == null ? 0 : string.length();
+    }
+
+    /**
+     * A cached snippet, together with the source that it was loaded from
+     */
+    private static class Entry {
+
+        /**
+         * The source that the snippet was loaded from
+         */
+        private final ISnippetSource source;
+
+        /**
+         * The cached snippet
+         */
+        private final Snippet snippet;
+
+        /**
+         * The estimated size of the snippet, in characters
+         */
+        private final long size;
+
+        /**
+         * Creates an entry for the given snippet
+         *
+         * @param source the source that the snippet was loaded from
+         * @param snippet the snippet to cache
+         */
+        private Entry(ISnippetSource source, Snippet snippet) {
+            this.source = source;
+            this.snippet = snippet;
+            size = getSize(snippet);
+        }
+
+        /**
+         * Checks if the snippet of this entry is equal to the snippet of the
+         * given source. Sources are equal if they are the same, or if the
+         * hashes of their content are equal.
+         *
+         * @param other the source to compare with
+         * @return true if the snippet was loaded from an equal source, false
+         * if not
+         */
+        private boolean isLoadedFrom(ISnippetSource other) {
+            if (source == other) {
+                return true;
+            }
+            return source.getHash() != null && other.getHash() != null && MessageDigest.isEqual(source.getHash(), other.getHash());
+        }
+    }
+}
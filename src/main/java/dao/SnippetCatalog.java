@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import model.snippet.SnippetMetadata;
+
+/**
+ * This class indexes the metadata of the loaded snippets, which allows a
+ * snippet to be found based on its ID, or based on its content (the value of
+ * <code>snippet.toString()</code>), without iterating through all snippets.
+ * Additionally, the order in which the snippets are added is kept, which is
+ * used when all snippets are listed. The code of the snippets is not part of
+ * the catalog.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetCatalog {
+
+    /**
+     * All snippets in the order in which they were added
+     */
+    private final List<SnippetMetadata> snippets;
+
+    /**
+     * The positions of the snippets in the ordered list, where the key is the
+     * lower case ID of the snippet
+     */
+    private final Map<String, Integer> positionsById;
+
+    /**
+     * A set with strings (each entry is equal to
+     * <code>snippet.toString()</code>) that is used to check if a snippet is
+     * already present in the catalog
+     */
+    private final Set<String> snippetHashes;
+
+    /**
+     * Creates an empty snippet catalog
+     */
+    public SnippetCatalog() {
+        snippets = new ArrayList<>();
+        positionsById = new HashMap<>();
+        snippetHashes = new HashSet<>();
+    }
+
+    /**
+     * Creates a snippet catalog that contains all given snippets. Snippets that
+     * are already present in the catalog are skipped.
+     *
+     * @param snippets the snippets to add
+     */
+    public SnippetCatalog(List<SnippetMetadata> snippets) {
+        this();
+        //Add all given snippets, duplicates are ignored
+        for (SnippetMetadata snippet : snippets) {
+            add(snippet);
+        }
+    }
+
+    /**
+     * Creates a snippet catalog that contains all snippets of the given
+     * catalog, in the same order. The snippets themselves are shared.
+     *
+     * @param catalog the catalog to copy
+     */
+    public SnippetCatalog(SnippetCatalog catalog) {
+        snippets = new ArrayList<>(catalog.snippets);
+        positionsById = new HashMap<>(catalog.positionsById);
+        snippetHashes = new HashSet<>(catalog.snippetHashes);
+    }
+
+    /**
+     * Adds the given snippet to the catalog, if it is not yet present
+     *
+     * @param snippet the snippet to add
+     * @return true if the snippet is added, false if it was already present
+     */
+    public boolean add(SnippetMetadata snippet) {
+        //If the snippet is already present, it is not added again
+        if (!snippetHashes.add(snippet.toString())) {
+            return false;
+        }
+        //Index the snippet based on its ID
+        positionsById.put(getKey(snippet.getId()), snippets.size());
+        //Add the snippet to the ordered list
+        snippets.add(snippet);
+        return true;
+    }
+
+    /**
+     * Checks if the catalog contains a snippet with the same content as the
+     * given snippet
+     *
+     * @param snippet the snippet to check
+     * @return true if a snippet with the same content is present, false if not
+     */
+    public boolean contains(SnippetMetadata snippet) {
+        return snippetHashes.contains(snippet.toString());
+    }
+
+    /**
+     * Gets the snippet that matches the given ID (disregarding the casing)
+     *
+     * @param id the ID of the snippet
+     * @return the snippet, or null if no snippet matches the given ID
+     */
+    public SnippetMetadata get(String id) {
+        //A missing ID never matches a snippet
+        if (id == null) {
+            return null;
+        }
+        Integer position = positionsById.get(getKey(id));
+        return position == null ? null : snippets.get(position);
+    }
+
+    /**
+     * Gets the position of the snippet that matches the given ID
+     * (disregarding the casing) in the order in which the snippets were added
+     *
+     * @param id the ID of the snippet
+     * @return the position of the snippet, or -1 if no snippet matches the
+     * given ID
+     */
+    public int indexOf(String id) {
+        //A missing ID never matches a snippet
+        if (id == null) {
+            return -1;
+        }
+        Integer position = positionsById.get(getKey(id));
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Gets all snippets in the order in which they were added
+     *
+     * @return a read-only view of all snippets
+     */
+    public List<SnippetMetadata> getSnippets() {
+        return Collections.unmodifiableList(snippets);
+    }
+
+    /**
+     * Gets the amount of snippets in the catalog
+     *
+     * @return the amount of snippets
+     */
+    public int size() {
+        return snippets.size();
+    }
+
+    /**
+     * Gets the key that is used in the mapping for the given ID, as IDs are
+     * matched regardless of their casing
+     *
+     * @param id the ID to get the key for
+     * @return the key for the given ID
+     */
+    private String getKey(String id) {
+        return id.toLowerCase();
+    }
+}
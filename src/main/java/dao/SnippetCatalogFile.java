@@ -0,0 +1,922 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import exception.JsonParseException;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import model.language.IClass;
+import model.language.IFunction;
+import model.language.IVariable;
+import model.language.enums.Architecture;
+import model.language.enums.Language;
+import model.language.javascript.JavaScriptClass;
+import model.language.javascript.JavaScriptFunction;
+import model.language.javascript.JavaScriptVariable;
+import model.language.powershell.PowershellClass;
+import model.language.powershell.PowershellFunction;
+import model.language.powershell.PowershellVariable;
+import model.language.vba.VbaClass;
+import model.language.vba.VbaFunction;
+import model.language.vba.VbaVariable;
+import model.mitre.Technique;
+import model.snippet.KeyValuePair;
+import model.snippet.Snippet;
+import model.snippet.SnippetMetadata;
+
+/**
+ * A compact binary snapshot of the parsed snippet files, which is used to
+ * avoid parsing unchanged JSON files when Genesis starts. The snapshot is
+ * memory-mapped when it is read, and every file in it is validated against
+ * the snippet folder by the loader prior to its use.
+ *
+ * The snapshot consists of a header, a region with the code bodies (the
+ * scripts and the bodies of the functions and variables), a table with all
+ * distinct strings (i.e. titles, authors, and names), the entries, and a
+ * footer with the sizes of these parts. Entries refer to a string by its index
+ * in the table, and to a code body by its offset and length in the body
+ * region. The techniques of a snippet are stored as a bitset of the ordinals
+ * of the techniques. The code bodies precede the entries, so they are written
+ * to the disk directly, rather than being kept in memory until the snapshot
+ * is complete.
+ *
+ * Every entry starts with its length, followed by the metadata of the file
+ * and the snippet, and ends with the code of the snippet. When the snapshot
+ * is read, only the metadata is decoded. The code of a snippet is decoded from
+ * the mapped snapshot once the snippet is required, which keeps the code of
+ * the snippets out of the heap until then.
+ *
+ * A snapshot is written to a temporary file, which then replaces the previous
+ * snapshot. A snapshot that cannot be read (i.e. because it was written by
+ * another version of Genesis) is ignored, after which all files are parsed.
+ *
+ * As the code in the snapshot is used without reading the snippet files, the
+ * snapshot is stored in a directory that only the user that runs Genesis can
+ * access. A snapshot that others can alter is ignored, as is a snapshot of
+ * which the SHA-256 digest, which is stored after the footer, does not match
+ * its content.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetCatalogFile {
+
+    /**
+     * The first four bytes of every snapshot ("GNSC")
+     */
+    private static final int MAGIC = 0x474E5343;
+
+    /**
+     * The version of the format of the snapshot
+     */
+    private static final int VERSION = 4;
+
+    /**
+     * The length of the footer, which contains the length of the body region,
+     * the amount of strings, the amount of files, and the length of the
+     * entries
+     */
+    private static final int FOOTER_LENGTH = 16;
+
+    /**
+     * The length of the SHA-256 digest at the end of the snapshot
+     */
+    private static final int DIGEST_LENGTH = 32;
+
+    /**
+     * The value of a reference to a string or body that is not set
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The location of the snapshot
+     */
+    private final Path file;
+
+    /**
+     * The snippet folder, of which the files are stored in the snapshot
+     */
+    private final Path folder;
+
+    /**
+     * Creates an instance for the snapshot at the given location
+     *
+     * @param file the location of the snapshot
+     * @param folder the snippet folder, of which the files are stored in the
+     * snapshot
+     */
+    public SnippetCatalogFile(Path file, Path folder) {
+        this.file = file;
+        this.folder = folder.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Reads the metadata of all snippet files from the snapshot. The source of
+     * each file decodes the complete snippet from the mapped snapshot, which
+     * remains mapped for as long as the source is used. If there is no
+     * snapshot, or if it cannot be read, no files are returned.
+     *
+     * @return the snippet files in the snapshot, where the key is the name of
+     * the file
+     */
+    public Map<String, SnippetFile> read() {
+        Map<String, SnippetFile> files = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            //A snapshot that others can alter could contain any code, and is therefore never used
+            checkOwnership(file);
+            checkOwnership(file.toAbsolutePath().getParent());
+            //A mapped buffer cannot be larger than two gigabytes
+            if (channel.size() > Integer.MAX_VALUE || channel.size() < DIGEST_LENGTH) {
+                throw new IllegalArgumentException("The snapshot is too large, or incomplete");
+            }
+            //The mapping remains valid once the channel is closed, which allows the sources to decode the snippets later on
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            //The content is only used if it matches the digest at its end, after which the digest is excluded from the buffer
+            checkDigest(buffer);
+            buffer.limit(buffer.capacity() - DIGEST_LENGTH);
+            Reader reader = new Reader(buffer);
+            for (int i = reader.readHeader(); i > 0; i--) {
+                SnippetFile snippetFile = reader.readFile();
+                files.put(snippetFile.getName(), snippetFile);
+            }
+            return files;
+        } catch (NoSuchFileException ex) {
+            //There is no snapshot yet
+            return files;
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException ex) {
+            Logger.getLogger(SnippetCatalogFile.class.getName()).log(Level.WARNING, "Ignoring the catalog snapshot at " + file + ": " + ex.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Writes the given snippet files into a new snapshot, which replaces the
+     * current snapshot. The snippets that were parsed recently are provided,
+     * whereas the snippets of the other files are loaded from their source.
+     *
+     * @param files the snippet files to store
+     * @param snippets the parsed snippets, where the key is the source of the
+     * snippet
+     * @throws IOException if the snapshot cannot be written, or if a snippet
+     * cannot be loaded from its source
+     */
+    public void write(Collection<SnippetFile> files, Map<ISnippetSource, Snippet> snippets) throws IOException {
+        //Write the snapshot next to the current one, so it can be moved in a single step
+        Path directory = file.toAbsolutePath().getParent();
+        createDirectory(directory);
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                OutputStream output = Channels.newOutputStream(channel);
+                //The content is followed by its digest, which is verified when the snapshot is read
+                MessageDigest digest = createDigest();
+                Writer writer = new Writer(new DataOutputStream(new BufferedOutputStream(new DigestOutputStream(output, digest))));
+                writer.writeHeader();
+                for (SnippetFile snippetFile : files) {
+                    Snippet snippet = snippets.get(snippetFile.getSource());
+                    if (snippet == null) {
+                        try {
+                            snippet = snippetFile.getSource().load();
+                        } catch (JsonParseException ex) {
+                            throw new IOException(ex.getMessage(), ex);
+                        }
+                    }
+                    writer.writeFile(snippetFile, snippet);
+                }
+                writer.writeFooter(files.size());
+                output.write(digest.digest());
+                //Ensure the content is on the disk prior to replacing the current snapshot
+                channel.force(true);
+            }
+            try {
+                Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Creates the given directory, if it does not exist yet. On file systems
+     * that support POSIX permissions, only the owner can access the directory.
+     *
+     * @param directory the directory to create
+     * @throws IOException if the directory cannot be created
+     */
+    private static void createDirectory(Path directory) throws IOException {
+        if (Files.isDirectory(directory)) {
+            return;
+        }
+        if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } else {
+            Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * Checks that the given file is owned by the user that runs Genesis, and
+     * that no one else can write to it. The check is skipped on file systems
+     * that do not support POSIX permissions.
+     *
+     * @param path the file or directory to check
+     * @throws IOException if the attributes cannot be read, or if the file
+     * can be altered by others
+     */
+    private static void checkOwnership(Path path) throws IOException {
+        if (!path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return;
+        }
+        PosixFileAttributes attributes = Files.readAttributes(path, PosixFileAttributes.class);
+        if (!attributes.owner().getName().equals(System.getProperty("user.name"))) {
+            throw new IOException(path + " is not owned by " + System.getProperty("user.name"));
+        }
+        Set<PosixFilePermission> permissions = attributes.permissions();
+        if (permissions.contains(PosixFilePermission.GROUP_WRITE) || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+            throw new IOException(path + " can be altered by others");
+        }
+    }
+
+    /**
+     * Checks that the digest at the end of the given buffer matches the
+     * content that precedes it
+     *
+     * @param buffer the complete snapshot
+     * @throws IllegalArgumentException if the digest does not match
+     */
+    private static void checkDigest(ByteBuffer buffer) {
+        ByteBuffer content = buffer.duplicate();
+        content.limit(content.capacity() - DIGEST_LENGTH);
+        MessageDigest digest = createDigest();
+        digest.update(content);
+        byte[] expected = new byte[DIGEST_LENGTH];
+        ByteBuffer trailer = buffer.duplicate();
+        trailer.position(trailer.capacity() - DIGEST_LENGTH);
+        trailer.get(expected);
+        if (!MessageDigest.isEqual(expected, digest.digest())) {
+            throw new IllegalArgumentException("The snapshot does not match its digest");
+        }
+    }
+
+    /**
+     * Creates a SHA-256 digest
+     *
+     * @return the digest
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            //Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Gets a value that changes when the techniques, languages, or
+     * architectures change, as their ordinals are stored in the snapshot
+     *
+     * @return the value of the current enumerations
+     */
+    private static int getSchema() {
+        StringBuilder schema = new StringBuilder();
+        for (Technique technique : Technique.values()) {
+            schema.append(technique.name()).append(',');
+        }
+        for (Language language : Language.values()) {
+            schema.append(language.name()).append(',');
+        }
+        for (Architecture architecture : Architecture.values()) {
+            schema.append(architecture.name()).append(',');
+        }
+        return schema.toString().hashCode();
+    }
+
+    /**
+     * Encodes snippet files, whilst collecting the distinct strings. The code
+     * bodies are written to the snapshot directly, whereas only the entries,
+     * which refer to the bodies by their offset, are kept in memory.
+     */
+    private class Writer {
+
+        /**
+         * The stream to write the snapshot to
+         */
+        private final DataOutputStream output;
+
+        /**
+         * The distinct strings, where the value is the index in the table
+         */
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+        /**
+         * The encoded entries
+         */
+        private final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+
+        /**
+         * The encoded entry that is currently written, which is required to
+         * prefix the entry with its length
+         */
+        private final ByteArrayOutputStream entryBuffer = new ByteArrayOutputStream();
+
+        /**
+         * The stream to write the current entry with
+         */
+        private final DataOutputStream entries = new DataOutputStream(entryBuffer);
+
+        /**
+         * The length of the code bodies that were written so far
+         */
+        private long bodiesLength;
+
+        /**
+         * Creates a writer that writes the snapshot to the given stream
+         *
+         * @param output the stream to write the snapshot to
+         */
+        private Writer(DataOutputStream output) {
+            this.output = output;
+        }
+
+        /**
+         * Writes the header, after which the code bodies are written
+         *
+         * @throws IOException if the output cannot be written to
+         */
+        private void writeHeader() throws IOException {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(getSchema());
+            byte[] folderName = folder.toString().getBytes(StandardCharsets.UTF_8);
+            output.writeInt(folderName.length);
+            output.write(folderName);
+        }
+
+        /**
+         * Encodes the given snippet file, together with its snippet
+         *
+         * @param snippetFile the snippet file to encode
+         * @param snippet the snippet of the file
+         * @throws IOException if the entry cannot be written
+         */
+        private void writeFile(SnippetFile snippetFile, Snippet snippet) throws IOException {
+            entryBuffer.reset();
+            writeString(snippetFile.getName());
+            entries.writeLong(snippetFile.getLastModified());
+            entries.writeLong(snippetFile.getSize());
+            entries.writeInt(snippetFile.getHash().length);
+            entries.write(snippetFile.getHash());
+
+            //The metadata of the snippet, which is decoded when the snapshot is read
+            IClass classObject = snippet.getClassObject();
+            Language language = classObject.getLanguage();
+            writeString(snippet.getId());
+            writeString(snippet.getTitle());
+            writeString(snippet.getDescription());
+            writeString(snippet.getAuthor());
+            writeString(snippet.getDate());
+            entries.writeInt(language.ordinal());
+            entries.writeInt(classObject.getArchitecture().ordinal());
+            //The techniques are stored as a bitset of their ordinals
+            BitSet techniques = new BitSet();
+            for (Technique technique : classObject.getTechniques()) {
+                techniques.set(technique.ordinal());
+            }
+            long[] words = techniques.toLongArray();
+            entries.writeInt(words.length);
+            for (long word : words) {
+                entries.writeLong(word);
+            }
+
+            //The remainder of the snippet, which is only decoded when the snippet is required
+            entries.writeInt(snippet.getAlterators().size());
+            for (KeyValuePair alterator : snippet.getAlterators()) {
+                writeString(alterator.getKey());
+                writeString(alterator.getValue());
+            }
+            writeStrings(classObject.getDependencies());
+            //Only JavaScript and Powershell classes have a script
+            switch (language) {
+                case JAVASCRIPT:
+                    writeBody(((JavaScriptClass) classObject).getScript());
+                    break;
+                case POWERSHELL:
+                    writeBody(((PowershellClass) classObject).getScript());
+                    break;
+                default:
+                    writeBody(null);
+                    break;
+            }
+
+            entries.writeInt(classObject.getFunctions().size());
+            for (IFunction function : classObject.getFunctions()) {
+                writeString(function.getName());
+                entries.writeInt(function.getArguments().size());
+                for (Map.Entry<String, String> argument : function.getArguments().entrySet()) {
+                    writeString(argument.getKey());
+                    writeString(argument.getValue());
+                }
+                writeStrings(function.getDependencies());
+                writeBody(function.getBody());
+                //Store the language specific fields of the function
+                switch (language) {
+                    case POWERSHELL:
+                        writeString(((PowershellFunction) function).getCmdletBinding());
+                        break;
+                    case VBA:
+                        writeString(((VbaFunction) function).getType());
+                        writeString(((VbaFunction) function).getReturnType());
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            entries.writeInt(classObject.getVariables().size());
+            for (IVariable variable : classObject.getVariables()) {
+                writeString(variable.getName());
+                writeBody(variable.getBody());
+            }
+
+            //Prefix the entry with its length, which allows the code to be skipped when the snapshot is read
+            entries.flush();
+            DataOutputStream entry = new DataOutputStream(entryBytes);
+            entry.writeInt(entryBuffer.size());
+            entryBuffer.writeTo(entry);
+            entry.flush();
+        }
+
+        /**
+         * Writes the string table, the entries, and the footer, after all
+         * files have been encoded, and flushes the output
+         *
+         * @param fileCount the amount of encoded files
+         * @throws IOException if the output cannot be written to
+         */
+        private void writeFooter(int fileCount) throws IOException {
+            for (String string : strings.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+            entryBytes.writeTo(output);
+            output.writeInt((int) bodiesLength);
+            output.writeInt(strings.size());
+            output.writeInt(fileCount);
+            output.writeInt(entryBytes.size());
+            output.flush();
+        }
+
+        /**
+         * Writes a reference to the given string, which is added to the table
+         * if it is not present yet
+         *
+         * @param string the string to refer to, which may be null
+         * @throws IOException if the entry cannot be written
+         */
+        private void writeString(String string) throws IOException {
+            if (string == null) {
+                entries.writeInt(NONE);
+                return;
+            }
+            Integer index = strings.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.put(string, index);
+            }
+            entries.writeInt(index);
+        }
+
+        /**
+         * Writes the amount of given strings, followed by a reference to each
+         * string
+         *
+         * @param values the strings to refer to
+         * @throws IOException if the entry cannot be written
+         */
+        private void writeStrings(Set<String> values) throws IOException {
+            entries.writeInt(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        /**
+         * Writes the given code body to the body region of the snapshot, and
+         * writes its offset and length in the entry
+         *
+         * @param body the code body, which may be null
+         * @throws IOException if the entry cannot be written
+         */
+        private void writeBody(String body) throws IOException {
+            if (body == null) {
+                entries.writeInt(NONE);
+                entries.writeInt(0);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            //The snapshot is mapped when it is read, which limits the offsets to two gigabytes
+            if (bodiesLength + bytes.length > Integer.MAX_VALUE) {
+                throw new IOException("The code of the snippets is too large to store in the snapshot");
+            }
+            entries.writeInt((int) bodiesLength);
+            entries.writeInt(bytes.length);
+            output.write(bytes);
+            bodiesLength += bytes.length;
+        }
+    }
+
+    /**
+     * Decodes the snippet files from a mapped snapshot
+     */
+    private class Reader {
+
+        /**
+         * The mapped snapshot, of which the position is the next value to read
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The string table, where the index in the array is the reference
+         */
+        private String[] strings;
+
+        /**
+         * The position of the body region in the snapshot
+         */
+        private int bodiesStart;
+
+        /**
+         * The length of the body region
+         */
+        private int bodiesLength;
+
+        /**
+         * The position of the end of the entries in the snapshot
+         */
+        private int entriesEnd;
+
+        /**
+         * Creates a reader for the given snapshot
+         *
+         * @param buffer the mapped snapshot
+         */
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Creates a reader for the same snapshot as the given reader, which has
+         * its own position. As such, both readers can be used at the same
+         * time.
+         *
+         * @param reader the reader of which the header has been read
+         */
+        private Reader(Reader reader) {
+            buffer = reader.buffer.duplicate();
+            strings = reader.strings;
+            bodiesStart = reader.bodiesStart;
+            bodiesLength = reader.bodiesLength;
+            entriesEnd = reader.entriesEnd;
+        }
+
+        /**
+         * Reads and validates the header, the footer, and the string table,
+         * after which the position is the first entry
+         *
+         * @return the amount of files in the snapshot
+         * @throws IllegalArgumentException if the snapshot has another format,
+         * or belongs to another folder
+         */
+        private int readHeader() {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != getSchema()) {
+                throw new IllegalArgumentException("The snapshot was written by another version of Genesis");
+            }
+            if (!folder.toString().equals(readUtf8(buffer.getInt()))) {
+                throw new IllegalArgumentException("The snapshot belongs to another snippet folder");
+            }
+            //The footer contains the sizes of the other parts, as they are only known once the bodies have been written
+            int footer = buffer.limit() - FOOTER_LENGTH;
+            bodiesStart = buffer.position();
+            bodiesLength = buffer.getInt(footer);
+            strings = new String[buffer.getInt(footer + 4)];
+            int fileCount = buffer.getInt(footer + 8);
+            int entriesLength = buffer.getInt(footer + 12);
+            if (bodiesLength < 0 || (long) bodiesStart + bodiesLength > footer) {
+                throw new IllegalArgumentException("The snapshot is incomplete");
+            }
+            buffer.position(bodiesStart + bodiesLength);
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readUtf8(buffer.getInt());
+            }
+            entriesEnd = buffer.position() + entriesLength;
+            if (entriesLength < 0 || entriesEnd != footer) {
+                throw new IllegalArgumentException("The snapshot is incomplete");
+            }
+            return fileCount;
+        }
+
+        /**
+         * Reads the metadata of the next snippet file, after which the code of
+         * the snippet is skipped
+         *
+         * @return the decoded snippet file
+         * @throws IllegalArgumentException if the entry is malformed
+         */
+        private SnippetFile readFile() {
+            int length = buffer.getInt();
+            int end = buffer.position() + length;
+            if (length < 0 || end > entriesEnd) {
+                throw new IllegalArgumentException("The snapshot contains a malformed entry");
+            }
+            String name = readString();
+            long lastModified = buffer.getLong();
+            long size = buffer.getLong();
+            byte[] hash = new byte[buffer.getInt()];
+            buffer.get(hash);
+
+            String id = readString();
+            String title = readString();
+            String description = readString();
+            String author = readString();
+            String date = readString();
+            Language language = Language.values()[buffer.getInt()];
+            Architecture architecture = Architecture.values()[buffer.getInt()];
+            long[] words = new long[buffer.getInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = buffer.getLong();
+            }
+            BitSet techniqueBits = BitSet.valueOf(words);
+            Set<Technique> techniques = new HashSet<>();
+            for (int i = techniqueBits.nextSetBit(0); i >= 0; i = techniqueBits.nextSetBit(i + 1)) {
+                techniques.add(Technique.values()[i]);
+            }
+            SnippetMetadata snippetMetadata = new SnippetMetadata(id, title, description, author, date, language, architecture, techniques);
+            //The code of the snippet starts at the current position, and is decoded once it is required
+            MappedSnippetSource source = new MappedSnippetSource(this, snippetMetadata, buffer.position(), hash);
+            buffer.position(end);
+            return new SnippetFile(name, lastModified, size, hash, snippetMetadata, source);
+        }
+
+        /**
+         * Reads the code of a snippet, which starts at the current position
+         *
+         * @param snippetMetadata the metadata of the snippet
+         * @return the decoded snippet
+         * @throws IllegalArgumentException if the entry is malformed
+         */
+        private Snippet readSnippet(SnippetMetadata snippetMetadata) {
+            int alteratorCount = buffer.getInt();
+            List<KeyValuePair> alterators = new ArrayList<>(alteratorCount);
+            for (int i = 0; i < alteratorCount; i++) {
+                alterators.add(new KeyValuePair(readString(), readString()));
+            }
+            Snippet snippet = new Snippet(snippetMetadata.getTitle(), snippetMetadata.getDescription(), snippetMetadata.getAuthor(), snippetMetadata.getDate(), alterators);
+
+            Language language = snippetMetadata.getLanguage();
+            Set<String> dependencies = readStrings();
+            String script = readBody();
+            IClass classObject;
+            switch (language) {
+                case JAVASCRIPT:
+                    classObject = new JavaScriptClass(snippetMetadata.getArchitecture(), script);
+                    break;
+                case POWERSHELL:
+                    classObject = new PowershellClass(snippetMetadata.getArchitecture(), script);
+                    break;
+                case VBA:
+                    classObject = new VbaClass(snippetMetadata.getArchitecture());
+                    break;
+                default:
+                    throw new IllegalArgumentException("The language " + language + " cannot be read from the snapshot");
+            }
+            classObject.setTechniques(new HashSet<>(snippetMetadata.getTechniques()));
+
+            for (int i = buffer.getInt(); i > 0; i--) {
+                String functionName = readString();
+                int argumentCount = buffer.getInt();
+                Map<String, String> arguments = new HashMap<>();
+                for (int j = 0; j < argumentCount; j++) {
+                    arguments.put(readString(), readString());
+                }
+                Set<String> functionDependencies = readStrings();
+                String body = readBody();
+                IFunction function;
+                switch (language) {
+                    case JAVASCRIPT:
+                        function = new JavaScriptFunction(functionName, arguments, body);
+                        break;
+                    case POWERSHELL:
+                        function = new PowershellFunction(functionName, readString(), arguments, body);
+                        break;
+                    default:
+                        String type = readString();
+                        function = new VbaFunction(type, functionName, arguments, readString(), body);
+                        break;
+                }
+                function.getDependencies().addAll(functionDependencies);
+                classObject.addFunction(function);
+            }
+
+            for (int i = buffer.getInt(); i > 0; i--) {
+                String variableName = readString();
+                String body = readBody();
+                IVariable variable;
+                switch (language) {
+                    case JAVASCRIPT:
+                        variable = new JavaScriptVariable(variableName, body);
+                        break;
+                    case POWERSHELL:
+                        variable = new PowershellVariable(variableName, body);
+                        break;
+                    default:
+                        variable = new VbaVariable(variableName, body);
+                        break;
+                }
+                classObject.addVariable(variable);
+            }
+            //The dependencies of the class are added after the functions, as adding a function adds its dependencies as well
+            classObject.getDependencies().addAll(dependencies);
+            snippet.setClassObject(classObject);
+            return snippet;
+        }
+
+        /**
+         * Reads a reference to a string
+         *
+         * @return the referred string, or null if no string is referred to
+         */
+        private String readString() {
+            int index = buffer.getInt();
+            return index == NONE ? null : strings[index];
+        }
+
+        /**
+         * Reads the amount of strings, followed by a reference to each string
+         *
+         * @return the referred strings
+         */
+        private Set<String> readStrings() {
+            int count = buffer.getInt();
+            Set<String> values = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        /**
+         * Reads the offset and length of a code body, after which the body is
+         * read from the body region
+         *
+         * @return the code body, or null if no body is referred to
+         */
+        private String readBody() {
+            int offset = buffer.getInt();
+            int length = buffer.getInt();
+            if (offset == NONE) {
+                return null;
+            }
+            if (offset < 0 || length < 0 || (long) offset + length > bodiesLength) {
+                throw new IllegalArgumentException("The snapshot contains a malformed body");
+            }
+            ByteBuffer body = buffer.duplicate();
+            body.position(bodiesStart + offset);
+            body.limit(bodiesStart + offset + length);
+            return StandardCharsets.UTF_8.decode(body).toString();
+        }
+
+        /**
+         * Reads a UTF-8 string of the given length at the current position
+         *
+         * @param length the length of the string in bytes
+         * @return the string
+         */
+        private String readUtf8(int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A snippet of which the code resides in a mapped snapshot. The snapshot
+     * is never altered once it is written, as a new snapshot replaces it
+     * instead, meaning the mapped snapshot remains valid.
+     */
+    private class MappedSnippetSource implements ISnippetSource {
+
+        /**
+         * The reader of the snapshot, of which the header has been read
+         */
+        private final Reader reader;
+
+        /**
+         * The metadata of the snippet
+         */
+        private final SnippetMetadata snippetMetadata;
+
+        /**
+         * The position of the code of the snippet in the snapshot
+         */
+        private final int position;
+
+        /**
+         * The SHA-256 hash of the content of the file of the snippet
+         */
+        private final byte[] hash;
+
+        /**
+         * Creates a source for the code at the given position
+         *
+         * @param reader the reader of the snapshot
+         * @param snippetMetadata the metadata of the snippet
+         * @param position the position of the code of the snippet in the
+         * snapshot
+         * @param hash the SHA-256 hash of the content of the file of the
+         * snippet
+         */
+        private MappedSnippetSource(Reader reader, SnippetMetadata snippetMetadata, int position, byte[] hash) {
+            this.reader = reader;
+            this.snippetMetadata = snippetMetadata;
+            this.position = position;
+            this.hash = hash;
+        }
+
+        /**
+         * Decodes the snippet from the mapped snapshot
+         *
+         * @return the decoded snippet
+         * @throws JsonParseException if the snippet cannot be decoded
+         */
+        @Override
+        public Snippet load() throws JsonParseException {
+            //Every load uses its own reader, as sources are loaded by multiple threads at once
+            Reader snippetReader = new Reader(reader);
+            snippetReader.buffer.position(position);
+            try {
+                return snippetReader.readSnippet(snippetMetadata);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException ex) {
+                throw new JsonParseException("Unable to load the snippet (id: " + snippetMetadata.getId() + ") from the catalog snapshot at " + file + ": " + ex.getMessage());
+            }
+        }
+
+        /**
+         * Gets the SHA-256 hash of the content of the file of the snippet
+         *
+         * @return the hash of the content of the file
+         */
+        @Override
+        public byte[] getHash() {
+            return hash;
+        }
+    }
+}
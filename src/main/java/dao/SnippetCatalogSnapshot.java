@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import exception.SnippetAlreadyExistsException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import model.snippet.SnippetMetadata;
+
+/**
+ * A consistent view of all loaded snippets, which consists of the catalog, the
+ * sources of the snippets, the search index, and the counters of the snippets,
+ * along with the generation of the view. A snapshot is never altered once it
+ * is published. Instead, a new snapshot is created when a snippet is added or
+ * when all snippets are loaded, after which it replaces the published
+ * snapshot. Readers therefore never observe a partially loaded catalog, nor
+ * do they need to wait for a change to complete.
+ *
+ * The snapshot only contains the metadata of the snippets. The complete
+ * snippet is loaded from its source when it is required.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetCatalogSnapshot {
+
+    /**
+     * The catalog with all snippets, which is indexed on both the ID and the
+     * content of each snippet
+     */
+    private final SnippetCatalog catalog;
+
+    /**
+     * The sources of all snippets in the catalog, where the key is the lower
+     * case ID of the snippet
+     */
+    private final Map<String, ISnippetSource> sources;
+
+    /**
+     * The inverted index on the searchable fields of all snippets in the
+     * catalog
+     */
+    private final SnippetSearchIndex searchIndex;
+
+    /**
+     * The counters of the techniques and languages of all snippets in the
+     * catalog
+     */
+    private final SnippetCounter counter;
+
+    /**
+     * The generation of this snapshot, which is higher than the generation of
+     * the snapshot it replaces
+     */
+    private final long generation;
+
+    /**
+     * Creates an empty snapshot, which is the first generation
+     */
+    public SnippetCatalogSnapshot() {
+        this(new SnippetCatalog(), new HashMap<String, ISnippetSource>(), new SnippetSearchIndex(), new SnippetCounter(), 0);
+    }
+
+    /**
+     * Creates a snapshot that contains the snippets of all given files.
+     * Snippets that are already present are skipped, meaning the first file in
+     * the given order wins if duplicates exist.
+     *
+     * @param files the snippet files to include
+     * @param generation the generation of the snapshot
+     */
+    public SnippetCatalogSnapshot(List<SnippetFile> files, long generation) {
+        //Index the snippets in the catalog first, as it removes the duplicates
+        catalog = new SnippetCatalog();
+        sources = new HashMap<>();
+        for (SnippetFile file : files) {
+            if (catalog.add(file.getSnippetMetadata())) {
+                sources.put(getKey(file.getSnippetMetadata().getId()), file.getSource());
+            }
+        }
+        //Index the searchable fields and count the techniques and languages of all snippets
+        searchIndex = new SnippetSearchIndex(catalog.getSnippets());
+        counter = new SnippetCounter(catalog.getSnippets());
+        this.generation = generation;
+    }
+
+    /**
+     * Creates a snapshot from the given parts
+     *
+     * @param catalog the catalog with all snippets
+     * @param sources the sources of the snippets
+     * @param searchIndex the search index of the snippets
+     * @param counter the counters of the snippets
+     * @param generation the generation of the snapshot
+     */
+    private SnippetCatalogSnapshot(SnippetCatalog catalog, Map<String, ISnippetSource> sources, SnippetSearchIndex searchIndex, SnippetCounter counter, long generation) {
+        this.catalog = catalog;
+        this.sources = sources;
+        this.searchIndex = searchIndex;
+        this.counter = counter;
+        this.generation = generation;
+    }
+
+    /**
+     * Creates a new snapshot, which contains all snippets of this snapshot and
+     * the given snippet, and which is the next generation. This snapshot
+     * itself is not altered.
+     *
+     * @param snippet the metadata of the snippet to add
+     * @param source the source of the snippet to add
+     * @return the new snapshot
+     * @throws SnippetAlreadyExistsException if the given snippet is already
+     * present in this snapshot
+     */
+    public SnippetCatalogSnapshot add(SnippetMetadata snippet, ISnippetSource source) throws SnippetAlreadyExistsException {
+        return add(Collections.singletonList(snippet), Collections.singletonList(source));
+    }
+
+    /**
+     * Creates a new snapshot, which contains all snippets of this snapshot and
+     * all given snippets, and which is the next generation. The snippets are
+     * either all added, or none are added. This snapshot itself is not
+     * altered.
+     *
+     * @param snippets the metadata of the snippets to add
+     * @param sources the sources of the snippets to add, in the order of the
+     * given snippets
+     * @return the new snapshot
+     * @throws SnippetAlreadyExistsException if any of the given snippets is
+     * already present in this snapshot, or is given more than once
+     */
+    public SnippetCatalogSnapshot add(List<SnippetMetadata> snippets, List<ISnippetSource> sources) throws SnippetAlreadyExistsException {
+        checkAbsent(snippets);
+        //Copy every part, after which the snippets are added to the copies only
+        SnippetCatalog newCatalog = new SnippetCatalog(catalog);
+        Map<String, ISnippetSource> newSources = new HashMap<>(this.sources);
+        SnippetSearchIndex newSearchIndex = new SnippetSearchIndex(searchIndex);
+        SnippetCounter newCounter = new SnippetCounter(counter);
+        for (int i = 0; i < snippets.size(); i++) {
+            SnippetMetadata snippet = snippets.get(i);
+            newCatalog.add(snippet);
+            newSources.put(getKey(snippet.getId()), sources.get(i));
+            newSearchIndex.add(snippet);
+            newCounter.add(snippet);
+        }
+        return new SnippetCatalogSnapshot(newCatalog, newSources, newSearchIndex, newCounter, generation + 1);
+    }
+
+    /**
+     * Checks that none of the given snippets is present in this snapshot, and
+     * that none of them is given more than once. A snippet is present if a
+     * snippet with the same ID (disregarding the casing) or with the same
+     * content is present. This is the same check that is used when the
+     * snippets are added, which allows the snippets to be checked before they
+     * are saved.
+     *
+     * @param snippets the metadata of the snippets to check
+     * @throws SnippetAlreadyExistsException if any of the given snippets is
+     * already present in this snapshot, or is given more than once
+     */
+    public void checkAbsent(List<SnippetMetadata> snippets) throws SnippetAlreadyExistsException {
+        Set<String> ids = new HashSet<>();
+        Set<String> contents = new HashSet<>();
+        for (SnippetMetadata snippet : snippets) {
+            String key = getKey(snippet.getId());
+            //Snippets cannot be present twice, which includes snippets that occur earlier in the given snippets
+            if (sources.containsKey(key) || catalog.contains(snippet) || !ids.add(key) || !contents.add(snippet.toString())) {
+                throw new SnippetAlreadyExistsException("The snippet (id: " + snippet.getId() + ") already exists!");
+            }
+        }
+    }
+
+    /**
+     * Gets the catalog with all snippets
+     *
+     * @return the catalog
+     */
+    public SnippetCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Gets the source of the snippet that matches the given ID (disregarding
+     * the casing)
+     *
+     * @param id the ID of the snippet
+     * @return the source of the snippet, or null if no snippet matches the
+     * given ID
+     */
+    public ISnippetSource getSource(String id) {
+        //A missing ID never matches a snippet
+        if (id == null) {
+            return null;
+        }
+        return sources.get(getKey(id));
+    }
+
+    /**
+     * Gets the search index of the snippets
+     *
+     * @return the search index
+     */
+    public SnippetSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Gets the statistics of the snippets
+     *
+     * @return the statistics
+     */
+    public SnippetStatistics getStatistics() {
+        return counter.getStatistics();
+    }
+
+    /**
+     * Gets the generation of this snapshot
+     *
+     * @return the generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the key that is used in the mapping for the given ID, as IDs are
+     * matched regardless of their casing
+     *
+     * @param id the ID to get the key for
+     * @return the key for the given ID
+     */
+    private String getKey(String id) {
+        return id.toLowerCase();
+    }
+}
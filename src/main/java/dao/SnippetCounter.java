@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import model.language.enums.Language;
+import model.mitre.Technique;
+import model.snippet.SnippetMetadata;
+
+/**
+ * Counts the techniques and languages of the snippets as they are added. After
+ * every addition, a new <code>SnippetStatistics</code> snapshot is published,
+ * which allows the statistics to be obtained without iterating through all
+ * snippets.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetCounter {
+
+    /**
+     * The amount of snippets that use each technique
+     */
+    private final Map<Technique, Integer> techniqueCounts;
+
+    /**
+     * The amount of snippets that use each language
+     */
+    private final Map<Language, Integer> languageCounts;
+
+    /**
+     * The amount of snippets
+     */
+    private int snippetCount;
+
+    /**
+     * The technique that is used in the most snippets, or null if there is
+     * none
+     */
+    private Technique mostUsedTechnique;
+
+    /**
+     * The language that is used in the most snippets, or null if there is none
+     */
+    private Language mostUsedLanguage;
+
+    /**
+     * The latest snapshot of the statistics
+     */
+    private SnippetStatistics statistics;
+
+    /**
+     * Creates a counter without any snippets
+     */
+    public SnippetCounter() {
+        techniqueCounts = new EnumMap<>(Technique.class);
+        languageCounts = new EnumMap<>(Language.class);
+        snippetCount = 0;
+        statistics = new SnippetStatistics(0, 0, null, null);
+    }
+
+    /**
+     * Creates a counter that contains all given snippets
+     *
+     * @param snippets the snippets to count
+     */
+    public SnippetCounter(List<SnippetMetadata> snippets) {
+        this();
+        for (SnippetMetadata snippet : snippets) {
+            count(snippet);
+        }
+        publish();
+    }
+
+    /**
+     * Creates a counter that contains the counts of the given counter
+     *
+     * @param counter the counter to copy
+     */
+    public SnippetCounter(SnippetCounter counter) {
+        techniqueCounts = new EnumMap<>(counter.techniqueCounts);
+        languageCounts = new EnumMap<>(counter.languageCounts);
+        snippetCount = counter.snippetCount;
+        mostUsedTechnique = counter.mostUsedTechnique;
+        mostUsedLanguage = counter.mostUsedLanguage;
+        statistics = counter.statistics;
+    }
+
+    /**
+     * Adds the techniques and the language of the given snippet to the
+     * counters, after which a new snapshot is published. The counter is not
+     * thread-safe, and should therefore not be altered once it is shared
+     * between threads.
+     *
+     * @param snippet the snippet to add
+     */
+    public void add(SnippetMetadata snippet) {
+        count(snippet);
+        publish();
+    }
+
+    /**
+     * Gets the latest snapshot of the statistics
+     *
+     * @return the statistics of all added snippets
+     */
+    public SnippetStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Adds the techniques and the language of the given snippet to the
+     * counters. Since counts only increase, the most used technique and
+     * language only need to be compared with the values that have changed.
+     * Ties are resolved in favour of the first value in the enumeration.
+     *
+     * @param snippet the snippet to count
+     */
+    private void count(SnippetMetadata snippet) {
+        snippetCount++;
+        for (Technique technique : snippet.getTechniques()) {
+            int count = increment(techniqueCounts, technique);
+            if (mostUsedTechnique == null || isMostUsed(count, technique, techniqueCounts.get(mostUsedTechnique), mostUsedTechnique)) {
+                mostUsedTechnique = technique;
+            }
+        }
+        Language language = snippet.getLanguage();
+        int count = increment(languageCounts, language);
+        if (mostUsedLanguage == null || isMostUsed(count, language, languageCounts.get(mostUsedLanguage), mostUsedLanguage)) {
+            mostUsedLanguage = language;
+        }
+    }
+
+    /**
+     * Publishes a new snapshot with the current values of the counters
+     */
+    private void publish() {
+        //The amount of keys equals the amount of distinct techniques that are used
+        statistics = new SnippetStatistics(snippetCount, techniqueCounts.size(), mostUsedTechnique, mostUsedLanguage);
+    }
+
+    /**
+     * Increments the count of the given key by one
+     *
+     * @param <T> the type of the key
+     * @param counts the counts to increment the key in
+     * @param key the key to increment
+     * @return the new count of the key
+     */
+    private <T extends Enum<T>> int increment(Map<T, Integer> counts, T key) {
+        Integer count = counts.get(key);
+        int newCount = count == null ? 1 : count + 1;
+        counts.put(key, newCount);
+        return newCount;
+    }
+
+    /**
+     * Checks if the given value is used more often than the current top value
+     *
+     * @param <T> the type of the values
+     * @param count the count of the value
+     * @param value the value to check
+     * @param topCount the count of the current top value
+     * @param topValue the current top value
+     * @return true if the given value is used more often, or equally often but
+     * comes first in the enumeration
+     */
+    private <T extends Enum<T>> boolean isMostUsed(int count, T value, int topCount, T topValue) {
+        return count > topCount || (count == topCount && value.ordinal() < topValue.ordinal());
+    }
+}
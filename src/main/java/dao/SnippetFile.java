@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import model.snippet.SnippetMetadata;
+
+/**
+ * A snippet file as it was last seen on the disk: the name, the last modified
+ * time, the size, and the hash of the content of the file, together with the
+ * metadata of the snippet that was parsed from it and the source from which
+ * the complete snippet can be loaded again. These values are used to check if
+ * a file has to be parsed again.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetFile {
+
+    /**
+     * The name of the file, relative to the snippet folder
+     */
+    private final String name;
+
+    /**
+     * The last modified time of the file, in milliseconds
+     */
+    private final long lastModified;
+
+    /**
+     * The size of the file in bytes
+     */
+    private final long size;
+
+    /**
+     * The SHA-256 hash of the content of the file
+     */
+    private final byte[] hash;
+
+    /**
+     * The metadata of the snippet that was parsed from the file
+     */
+    private final SnippetMetadata snippetMetadata;
+
+    /**
+     * The source from which the complete snippet is loaded
+     */
+    private final ISnippetSource source;
+
+    /**
+     * Creates a snippet file
+     *
+     * @param name the name of the file, relative to the snippet folder
+     * @param lastModified the last modified time of the file, in milliseconds
+     * @param size the size of the file in bytes
+     * @param hash the SHA-256 hash of the content of the file
+     * @param snippetMetadata the metadata of the snippet that was parsed from
+     * the file
+     * @param source the source from which the complete snippet is loaded
+     */
+    public SnippetFile(String name, long lastModified, long size, byte[] hash, SnippetMetadata snippetMetadata, ISnippetSource source) {
+        this.name = name;
+        this.lastModified = lastModified;
+        this.size = size;
+        this.hash = hash;
+        this.snippetMetadata = snippetMetadata;
+        this.source = source;
+    }
+
+    /**
+     * Gets the name of the file, relative to the snippet folder
+     *
+     * @return the name of the file
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the last modified time of the file
+     *
+     * @return the last modified time of the file, in milliseconds
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Gets the size of the file
+     *
+     * @return the size of the file in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the SHA-256 hash of the content of the file
+     *
+     * @return the hash of the content of the file
+     */
+    public byte[] getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets the metadata of the snippet that was parsed from the file
+     *
+     * @return the metadata of the snippet of the file
+     */
+    public SnippetMetadata getSnippetMetadata() {
+        return snippetMetadata;
+    }
+
+    /**
+     * Gets the source from which the complete snippet is loaded
+     *
+     * @return the source of the snippet of the file
+     */
+    public ISnippetSource getSource() {
+        return source;
+    }
+
+    /**
+     * Checks if the given metadata equals the metadata of this file, in which
+     * case the content of the file is assumed to be unchanged
+     *
+     * @param lastModified the last modified time, in milliseconds
+     * @param size the size in bytes
+     * @return true if the metadata is equal, false if not
+     */
+    public boolean hasMetadata(long lastModified, long size) {
+        return this.lastModified == lastModified && this.size == size;
+    }
+
+    /**
+     * Creates a copy of this file with the given metadata, which is used when
+     * a file has been touched without altering its content
+     *
+     * @param lastModified the new last modified time, in milliseconds
+     * @param size the new size in bytes
+     * @return the file with the new metadata
+     */
+    public SnippetFile withMetadata(long lastModified, long size) {
+        return new SnippetFile(name, lastModified, size, hash, snippetMetadata, source);
+    }
+}
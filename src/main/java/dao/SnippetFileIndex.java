@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import exception.JsonFolderNotFoundException;
+import exception.JsonParseException;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import model.snippet.SnippetConstants;
+
+/**
+ * Keeps track of the snippet files in a folder, along with the last modified
+ * time, the size, and the hash of the content of each file. When the index is
+ * refreshed, only the files that were added, changed or deleted are parsed
+ * again. A file of which the content hash is unchanged is not parsed again.
+ * If <code>SnippetConstants.TRUST_SNIPPET_FILE_METADATA</code> is true, a file
+ * of which the last modified time and size are unchanged is not read at all.
+ *
+ * A refresh either applies all changes or none at all: if a single file cannot
+ * be parsed, the index remains as it was, and the file is parsed again during
+ * the next refresh. After every refresh that alters the index, the catalog
+ * snapshot is written again.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetFileIndex {
+
+    /**
+     * The folder in which the snippet files reside
+     */
+    private final Path folder;
+
+    /**
+     * The loader that is used to load the snippet files
+     */
+    private final SnippetLoader loader;
+
+    /**
+     * The indexed files, where the key is the name of the file. The files are
+     * sorted on their name, which results in a stable order of the snippets
+     */
+    private Map<String, SnippetFile> files;
+
+    /**
+     * Creates an index for the folder of the given loader, which contains the
+     * given files
+     *
+     * @param loader the loader that is used to load the snippet files
+     * @param files the files that are currently in the folder
+     */
+    public SnippetFileIndex(SnippetLoader loader, Collection<SnippetFile> files) {
+        this.loader = loader;
+        folder = loader.getFolder();
+        this.files = new TreeMap<>();
+        for (SnippetFile file : files) {
+            this.files.put(file.getName(), file);
+        }
+    }
+
+    /**
+     * Gets the folder in which the snippet files reside
+     *
+     * @return the folder of the snippet files
+     */
+    public Path getFolder() {
+        return folder;
+    }
+
+    /**
+     * Gets all indexed files, sorted on their name
+     *
+     * @return all indexed files
+     */
+    public synchronized List<SnippetFile> getFiles() {
+        return new ArrayList<>(files.values());
+    }
+
+    /**
+     * Compares all files in the folder with the index. New and changed files
+     * are parsed, and files that no longer exist are removed from the index.
+     *
+     * @return true if any snippet was added, changed or removed, false if not
+     * @throws JsonFolderNotFoundException if the folder does not exist, or if
+     * it is a file
+     * @throws JsonParseException if a file cannot be read or parsed
+     */
+    public synchronized boolean refresh() throws JsonFolderNotFoundException, JsonParseException {
+        //Checks if the folder exists or if the folder is a file
+        if (!Files.exists(folder)) {
+            throw new JsonFolderNotFoundException("Unable to load the JSON folder because it does not exist!");
+        }
+        if (!Files.isDirectory(folder)) {
+            throw new JsonFolderNotFoundException("Unable to load the JSON folder because it is a file!");
+        }
+        //The changes are made in a copy, which only replaces the index if all files are parsed
+        Map<String, SnippetFile> newFiles = new TreeMap<>(files);
+        Set<String> presentFiles = new HashSet<>();
+        boolean changed = false;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+            for (Path file : stream) {
+                if (isIgnored(file)) {
+                    continue;
+                }
+                try {
+                    changed |= update(newFiles, file);
+                    presentFiles.add(file.getFileName().toString());
+                } catch (NoSuchFileException ex) {
+                    //The file has been deleted in the meantime, meaning it is removed below
+                } catch (IOException ex) {
+                    throw new JsonParseException("Unable to load " + file.toAbsolutePath() + "!");
+                }
+            }
+        } catch (IOException ex) {
+            throw new JsonParseException("Unable to list the files in " + folder.toAbsolutePath() + "!");
+        }
+        //Files that are no longer present are removed from the index
+        changed |= newFiles.keySet().retainAll(presentFiles);
+        apply(newFiles);
+        return changed;
+    }
+
+    /**
+     * Compares the given files with the index. Files that are new or changed
+     * are parsed, and files that no longer exist are removed from the index.
+     * Other files in the folder are not checked.
+     *
+     * @param fileNames the names of the files to compare, which reside in the
+     * folder of this index
+     * @return true if any snippet was added, changed or removed, false if not
+     * @throws JsonParseException if a file cannot be read or parsed
+     */
+    public synchronized boolean refresh(Collection<String> fileNames) throws JsonParseException {
+        //The changes are made in a copy, which only replaces the index if all files are parsed
+        Map<String, SnippetFile> newFiles = new TreeMap<>(files);
+        boolean changed = false;
+        for (String fileName : fileNames) {
+            Path file = folder.resolve(fileName);
+            if (isIgnored(file)) {
+                //A file that is deleted or replaced by a directory is no longer a snippet
+                changed |= newFiles.remove(fileName) != null;
+                continue;
+            }
+            try {
+                changed |= update(newFiles, file);
+            } catch (NoSuchFileException ex) {
+                //The file has been deleted in the meantime
+                changed |= newFiles.remove(fileName) != null;
+            } catch (IOException ex) {
+                throw new JsonParseException("Unable to load " + file.toAbsolutePath() + "!");
+            }
+        }
+        apply(newFiles);
+        return changed;
+    }
+
+    /**
+     * Loads the given file into the given index, based on the indexed version
+     * of the file
+     *
+     * @param index the index to update
+     * @param file the file to load
+     * @return true if the snippet of the file was added or changed, false if
+     * not
+     * @throws IOException if the file cannot be read
+     * @throws JsonParseException if the file cannot be parsed
+     */
+    private boolean update(Map<String, SnippetFile> index, Path file) throws IOException, JsonParseException {
+        String fileName = file.getFileName().toString();
+        SnippetFile indexedFile = index.get(fileName);
+        SnippetFile loadedFile = loader.loadSnippetFile(file, indexedFile);
+        index.put(fileName, loadedFile);
+        return indexedFile == null || loadedFile.getSource() != indexedFile.getSource();
+    }
+
+    /**
+     * Replaces the index with the given index. If any file differs, the
+     * catalog snapshot is written again.
+     *
+     * @param newFiles the new index
+     */
+    private void apply(Map<String, SnippetFile> newFiles) {
+        //Unchanged files are the same objects in both indices
+        boolean modified = newFiles.size() != files.size();
+        for (Map.Entry<String, SnippetFile> entry : newFiles.entrySet()) {
+            if (modified) {
+                break;
+            }
+            modified = entry.getValue() != files.get(entry.getKey());
+        }
+        files = newFiles;
+        if (modified) {
+            loader.saveSnippetFiles(newFiles.values());
+        }
+    }
+
+    /**
+     * Checks if the given path is not a snippet file. Directories, files that
+     * no longer exist, temporary files that are still being written, and the
+     * ".git" directory and all files that are within it are ignored.
+     *
+     * @param file the path to check
+     * @return true if the path should be ignored, false if it is a snippet
+     * file
+     */
+    private boolean isIgnored(Path file) {
+        return file.toAbsolutePath().toString().contains(".git") || file.getFileName().toString().endsWith(SnippetConstants.TEMPORARY_FILE_SUFFIX) || !Files.isRegularFile(file);
+    }
+}
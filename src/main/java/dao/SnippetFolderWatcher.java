@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import exception.JsonFolderNotFoundException;
+import exception.JsonParseException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches the snippet folder for files that are created, modified or deleted,
+ * and reloads only the snippets of these files in the
+ * <code>SnippetManager</code>. Events that arrive in quick succession (i.e.
+ * when an editor writes a file in multiple steps, or when multiple files are
+ * copied at once) are combined into a single reload.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetFolderWatcher implements Runnable {
+
+    /**
+     * The time in milliseconds to wait for additional events, after an event
+     * has been received, before the changed files are reloaded
+     */
+    private static final long SETTLE_TIME = 250;
+
+    /**
+     * The watch service that receives the events of the folder
+     */
+    private final WatchService watchService;
+
+    /**
+     * The thread in which the events are handled
+     */
+    private final Thread thread;
+
+    /**
+     * Creates a watcher for the given folder. Events are registered from this
+     * moment onwards, but are only handled once the watcher is started.
+     *
+     * @param folder the folder to watch
+     * @throws IOException if the folder cannot be watched
+     */
+    public SnippetFolderWatcher(Path folder) throws IOException {
+        watchService = folder.getFileSystem().newWatchService();
+        folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        thread = new Thread(this, "snippet-folder-watcher");
+        //The watcher should never keep the application alive
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts handling the events of the folder
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops watching the folder
+     */
+    public void stop() {
+        try {
+            //Closing the watch service wakes up the thread, which then ends
+            watchService.close();
+        } catch (IOException ex) {
+            Logger.getLogger(SnippetFolderWatcher.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    /**
+     * Waits for events and reloads the changed files, until the watcher is
+     * stopped
+     */
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                //Wait for the first event
+                WatchKey key = watchService.take();
+                Set<String> fileNames = new LinkedHashSet<>();
+                boolean overflow = false;
+                //Gather all events until the folder is quiet for a short while
+                while (key != null) {
+                    overflow |= collect(key, fileNames);
+                    //If the folder can no longer be watched (i.e. it has been deleted), the watcher stops
+                    if (!key.reset()) {
+                        Logger.getLogger(SnippetFolderWatcher.class.getName()).log(Level.WARNING, "The snippet folder can no longer be watched");
+                        return;
+                    }
+                    key = watchService.poll(SETTLE_TIME, TimeUnit.MILLISECONDS);
+                }
+                reload(fileNames, overflow);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            //The watcher has been stopped
+        }
+    }
+
+    /**
+     * Adds the names of the files of all pending events of the given key to
+     * the given set
+     *
+     * @param key the key to get the events from
+     * @param fileNames the set to add the names of the changed files to
+     * @return true if events have been lost, meaning the whole folder has to
+     * be compared with the index, false if not
+     */
+    private boolean collect(WatchKey key, Set<String> fileNames) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else {
+                //The context of a directory event is the path of the file, relative to the directory
+                fileNames.add(event.context().toString());
+            }
+        }
+        return overflow;
+    }
+
+    /**
+     * Reloads the given files. If events have been lost, all files are
+     * compared with the index instead. Errors are logged, as the next event
+     * causes the failed files to be loaded again.
+     *
+     * @param fileNames the names of the changed files
+     * @param overflow true if events have been lost, false if not
+     */
+    private void reload(Set<String> fileNames, boolean overflow) {
+        try {
+            if (overflow) {
+                SnippetManager.loadSnippets();
+            } else {
+                SnippetManager.loadSnippetFiles(fileNames);
+            }
+        } catch (JsonFolderNotFoundException ex) {
+            Logger.getLogger(SnippetFolderWatcher.class.getName()).log(Level.SEVERE, null, ex);
+        } catch (JsonParseException ex) {
+            Logger.getLogger(SnippetFolderWatcher.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+}
@@ -19,17 +19,36 @@ package dao;
 import dao.generic.IClassJsonParser;
 import exception.JsonFolderNotFoundException;
 import exception.JsonParseException;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import model.language.enums.Language;
 import model.snippet.Snippet;
 import model.snippet.SnippetConstants;
-import org.json.*;
+import model.snippet.SnippetMetadata;
+import org.json.JSONException;
+import org.json.JSONObject;
 import service.LanguageService;
 
 /**
@@ -47,10 +66,28 @@ import service.LanguageService;
 public class SnippetLoader {
 
     /**
-     * The description of the snippets that are loaded (in JSON format) are
-     * stored in this list. This way, duplicates are not loaded twice
+     * The maximum amount of threads that are used to parse the snippet files
      */
-    private List<String> loadedSnippets;
+    private static final int MAX_THREADS = 8;
+
+    /**
+     * The catalog snapshot, which contains the parsed snippet files of a
+     * previous load, or null if the snapshot is disabled
+     */
+    private final SnippetCatalogFile catalogFile;
+
+    /**
+     * The cache in which the parsed snippets are stored, which avoids loading
+     * them again on their first use, or null if they are not to be stored
+     */
+    private final SnippetBodyCache bodyCache;
+
+    /**
+     * The snippets that were parsed since the catalog snapshot was last
+     * written, where the key is the source of the snippet. These snippets are
+     * required to write the snapshot without parsing their files again
+     */
+    private final Map<ISnippetSource, Snippet> parsedSnippets;
 
     /**
      * Create an SnippetLoader object, which can load all snippets that are
@@ -58,99 +95,377 @@ public class SnippetLoader {
      * disk.
      */
     public SnippetLoader() {
-        loadedSnippets = new ArrayList<>();
+        this(null);
     }
 
     /**
-     * Loads a single snippet based on the ID. The file name is equal to the ID
-     * of the snippet plus ".json".
+     * Create an SnippetLoader object, which can load all snippets that are
+     * within the <code>SnippetConstants.SNIPPET_FOLDER</code> folder on the
+     * disk. All snippets that are parsed are stored in the given cache.
      *
-     * @param snippetId the id of the snippet to load
-     * @return the loaded snippet
-     * @throws JsonParseException if the json file cannot be parsed correctly
-     * @throws JsonFolderNotFoundException if the json file cannot be found
+     * @param bodyCache the cache in which the parsed snippets are stored
      */
-    protected Snippet loadSnippet(String snippetId) throws JsonParseException, JsonFolderNotFoundException {
-        //The folder in which all the JSON files reside (in the root of the file system)
-        File jsonFolder = new File(SnippetConstants.SNIPPET_FOLDER);
-        //Checks if the folder exists or if the folder is a file
-        if (!jsonFolder.exists()) {
-            throw new JsonFolderNotFoundException("Unable to load the JSON folder because it does not exist!");
+    public SnippetLoader(SnippetBodyCache bodyCache) {
+        this.bodyCache = bodyCache;
+        catalogFile = SnippetConstants.USE_CATALOG_SNAPSHOT ? new SnippetCatalogFile(Paths.get(SnippetConstants.CATALOG_SNAPSHOT_FILE), getFolder()) : null;
+        parsedSnippets = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Loads all snippet files that reside within
+     * <code>SnippetConstants.SNIPPET_FOLDER</code> folder in the file system.
+     * Files that are unchanged since the catalog snapshot was written are
+     * taken from the snapshot, whereas all other files are read and parsed in
+     * parallel. If any file differs from the snapshot, a new snapshot is
+     * written. The duration of each phase is logged.
+     *
+     * @return all snippet files, sorted on their name
+     * @throws JsonFolderNotFoundException is thrown if the
+     * <code>SnippetConstants.SNIPPET_FOLDER</code> folder cannot be found or if
+     * the folder is actually a file
+     * @throws JsonParseException is thrown if a JSON file cannot be parsed with
+     * one of the existing parsers
+     */
+    protected List<SnippetFile> loadSnippetFiles() throws JsonFolderNotFoundException, JsonParseException {
+        Logger logger = Logger.getLogger(SnippetLoader.class.getName());
+        //List all files in the folder
+        long start = System.nanoTime();
+        List<Path> jsonFiles = listFiles();
+        long listed = System.nanoTime();
+        logger.log(Level.INFO, "Listed {0} snippet files in {1} ms", new Object[]{jsonFiles.size(), toMillis(start, listed)});
+
+        //Read the files that were stored in the snapshot
+        Map<String, SnippetFile> snapshotFiles = catalogFile == null ? new HashMap<String, SnippetFile>() : catalogFile.read();
+        long read = System.nanoTime();
+        logger.log(Level.INFO, "Read {0} snippet files from the catalog snapshot in {1} ms", new Object[]{snapshotFiles.size(), toMillis(listed, read)});
+
+        //Validate, and if required parse, all files on a bounded amount of threads
+        int threads = getThreads(jsonFiles.size());
+        List<SnippetFile> files = loadSnippetFiles(jsonFiles, snapshotFiles, threads);
+        long loaded = System.nanoTime();
+        //Files that differ from the snapshot are counted, as are the files that had to be parsed
+        int changedFiles = 0;
+        int parsedFiles = 0;
+        for (SnippetFile file : files) {
+            SnippetFile snapshotFile = snapshotFiles.get(file.getName());
+            if (file != snapshotFile) {
+                changedFiles++;
+            }
+            if (snapshotFile == null || file.getSource() != snapshotFile.getSource()) {
+                parsedFiles++;
+            }
         }
-        if (jsonFolder.isFile()) {
-            throw new JsonFolderNotFoundException("Unable to load the JSON folder because it is a file!");
+        logger.log(Level.INFO, "Loaded {0} snippet files on {1} threads in {2} ms, of which {3} were parsed", new Object[]{files.size(), threads, toMillis(read, loaded), parsedFiles});
+
+        //The snapshot is only written if it differs from the folder
+        if (changedFiles > 0 || snapshotFiles.size() != files.size()) {
+            saveSnippetFiles(files);
+            logger.log(Level.INFO, "Wrote the catalog snapshot in {0} ms", toMillis(loaded, System.nanoTime()));
         }
+        return files;
+    }
 
-        //Listing all files in the folder
-        File[] jsonFiles = jsonFolder.listFiles();
-        for (File jsonFile : jsonFiles) {
-            try {
-                //Ignores the ".git" directory and all files that are within it
-                if (jsonFile.getAbsolutePath().contains(".git") || !jsonFile.getName().equalsIgnoreCase(snippetId + ".json")) {
-                    continue;
+    /**
+     * Loads the given snippet file. The file is read, and only parsed if the
+     * hash of the content differs from the given previous version. If
+     * <code>SnippetConstants.TRUST_SNIPPET_FILE_METADATA</code> is true and
+     * the last modified time and the size of the file equal those of the
+     * previous version, the previous version is returned without reading the
+     * file.
+     *
+     * @param jsonFile the file to load
+     * @param previous the previous version of the file, or null if there is
+     * none
+     * @return the loaded snippet file, which is the previous version if the
+     * file is unchanged
+     * @throws IOException if the file cannot be read
+     * @throws JsonParseException if the file cannot be parsed
+     */
+    protected SnippetFile loadSnippetFile(Path jsonFile, SnippetFile previous) throws IOException, JsonParseException {
+        BasicFileAttributes attributes = Files.readAttributes(jsonFile, BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        //If the metadata is unchanged, the content is only assumed to be unchanged as well if this is enabled, as an edit can retain the metadata
+        if (SnippetConstants.TRUST_SNIPPET_FILE_METADATA && previous != null && previous.hasMetadata(lastModified, attributes.size())) {
+            return previous;
+        }
+        byte[] content = Files.readAllBytes(jsonFile);
+        byte[] hash = hash(content);
+        //A file that has been touched, but not altered, does not need to be parsed again
+        if (previous != null && MessageDigest.isEqual(previous.getHash(), hash)) {
+            return previous.hasMetadata(lastModified, content.length) ? previous : previous.withMetadata(lastModified, content.length);
+        }
+        Snippet snippet = parseSnippet(jsonFile, content);
+        ISnippetSource source = new FileSnippetSource(this, jsonFile, hash);
+        //The parsed snippet is kept until the snapshot is written, and is stored in the cache to avoid parsing it again on its first use
+        parsedSnippets.put(source, snippet);
+        if (bodyCache != null) {
+            bodyCache.put(source, snippet);
+        }
+        return new SnippetFile(jsonFile.getFileName().toString(), lastModified, content.length, hash, new SnippetMetadata(snippet), source);
+    }
+
+    /**
+     * Stores the given snippet files in the catalog snapshot, if the snapshot
+     * is enabled. A failure is logged, as the snippets are loaded from the
+     * folder if the snapshot is missing.
+     *
+     * @param files the snippet files to store
+     */
+    protected void saveSnippetFiles(Collection<SnippetFile> files) {
+        if (catalogFile == null) {
+            parsedSnippets.clear();
+            return;
+        }
+        try {
+            catalogFile.write(files, parsedSnippets);
+        } catch (IOException ex) {
+            Logger.getLogger(SnippetLoader.class.getName()).log(Level.WARNING, "Unable to write the catalog snapshot", ex);
+        } finally {
+            //The parsed snippets are no longer required, as their code should not remain in memory
+            parsedSnippets.clear();
+        }
+    }
+
+    /**
+     * Parses the given JSON objects into snippets, using a bounded amount of
+     * threads. The snippets are returned in the order of the given objects.
+     *
+     * @param jsonObjects the snippet objects to parse
+     * @return the parsed snippets, in the order of the given objects
+     * @throws JsonParseException if any of the objects cannot be parsed, in
+     * which case the message contains the position of the first object that
+     * cannot be parsed
+     */
+    protected List<Snippet> parseSnippets(List<JSONObject> jsonObjects) throws JsonParseException {
+        List<Callable<Snippet>> tasks = new ArrayList<>(jsonObjects.size());
+        for (int i = 0; i < jsonObjects.size(); i++) {
+            final int position = i;
+            final JSONObject jsonObject = jsonObjects.get(i);
+            tasks.add(new Callable<Snippet>() {
+                @Override
+                public Snippet call() throws JsonParseException {
+                    try {
+                        return parseSnippet(jsonObject);
+                    } catch (JSONException | IllegalArgumentException | JsonParseException ex) {
+                        throw new JsonParseException("Unable to parse snippet " + position + ": " + ex.getMessage());
+                    }
                 }
+            });
+        }
+        return invokeAll(tasks, getThreads(tasks.size()));
+    }
 
-                //Load the file from the disk
-                JSONObject jsonObject = loadFileFromDisk(jsonFile);
-                //Return the parsed value
-                return parseSnippet(jsonObject);
-            } catch (IOException ex) {
-                throw new JsonParseException("Unable to load " + jsonFile.getAbsolutePath() + "!");
-            }
+    /**
+     * Parses the given contents, decoded as UTF-8, into snippets, using a
+     * bounded amount of threads. The snippets are returned in the order of the
+     * given contents.
+     *
+     * @param locations the locations of the contents, which are used in the
+     * message of the exception if a content cannot be parsed
+     * @param contents the contents to parse
+     * @return the parsed snippets, in the order of the given contents
+     * @throws JsonParseException if any of the contents cannot be parsed
+     */
+    protected List<Snippet> parseSnippets(List<String> locations, List<byte[]> contents) throws JsonParseException {
+        List<Callable<Snippet>> tasks = new ArrayList<>(contents.size());
+        for (int i = 0; i < contents.size(); i++) {
+            final String location = locations.get(i);
+            final byte[] content = contents.get(i);
+            tasks.add(new Callable<Snippet>() {
+                @Override
+                public Snippet call() throws JsonParseException {
+                    return parseSnippet(location, content);
+                }
+            });
         }
-        throw new JsonParseException("Unable to find a Snippet file for the given Snippet ID (" + snippetId + ")!");
+        return invokeAll(tasks, getThreads(tasks.size()));
     }
 
     /**
-     * Loads all snippets that reside within
-     * <code>SnippetConstants.SNIPPET_FOLDER</code> folder in the file system.
-     * All files are parsed with the corresponding parser and returned within a
-     * list.
+     * Loads the given files, using the given amount of threads
      *
-     * @return a list of all loaded snippets
-     * @throws JsonFolderNotFoundException is thrown if the
-     * <code>SnippetConstants.SNIPPET_FOLDER</code> folder cannot be found or if
-     * the folder is actually a file
+     * @param jsonFiles the files to load
+     * @param snapshotFiles the files in the snapshot, where the key is the
+     * name of the file
+     * @param threads the amount of threads to use
+     * @return the loaded files, in the order of the given files
      * @throws JsonParseException is thrown if a JSON file cannot be parsed with
      * one of the existing parsers
      */
-    protected List<Snippet> loadSnippets() throws JsonFolderNotFoundException, JsonParseException {
-        //To avoid duplicates, the variables are instantiated
-        List<Snippet> snippets = new ArrayList<>();
-        loadedSnippets = new ArrayList<>();
+    private List<SnippetFile> loadSnippetFiles(List<Path> jsonFiles, final Map<String, SnippetFile> snapshotFiles, int threads) throws JsonParseException {
+        List<Callable<SnippetFile>> tasks = new ArrayList<>(jsonFiles.size());
+        for (final Path jsonFile : jsonFiles) {
+            tasks.add(new Callable<SnippetFile>() {
+                @Override
+                public SnippetFile call() throws JsonParseException {
+                    return loadSnippetFile(jsonFile, snapshotFiles);
+                }
+            });
+        }
+        return invokeAll(tasks, threads);
+    }
+
+    /**
+     * Executes the given tasks, using the given amount of threads. If any task
+     * fails, the remaining tasks are cancelled.
+     *
+     * @param <T> the type of the result of the tasks
+     * @param tasks the tasks to execute
+     * @param threads the amount of threads to use
+     * @return the results, in the order of the given tasks
+     * @throws JsonParseException is thrown if any of the tasks fails
+     */
+    private <T> List<T> invokeAll(List<Callable<T>> tasks, int threads) throws JsonParseException {
+        List<T> results = new ArrayList<>(tasks.size());
+        //A single task, or a single thread, does not benefit from a pool
+        if (threads == 1) {
+            for (Callable<T> task : tasks) {
+                results.add(call(task));
+            }
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            //Submit all tasks, and keep the futures in the order of the tasks
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            //Collect the results in the order of the tasks, regardless of the order in which they are finished
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException ex) {
+            //Rethrow the exception that was thrown by the task
+            Throwable cause = ex.getCause();
+            if (cause instanceof JsonParseException) {
+                throw (JsonParseException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new JsonParseException("Unable to load the snippets: " + cause.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new JsonParseException("The loading of the snippets was interrupted!");
+        } finally {
+            //Remaining tasks are cancelled if a task failed
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Executes the given task on the current thread
+     *
+     * @param <T> the type of the result of the task
+     * @param task the task to execute
+     * @return the result of the task
+     * @throws JsonParseException is thrown if the task fails
+     */
+    private <T> T call(Callable<T> task) throws JsonParseException {
+        try {
+            return task.call();
+        } catch (JsonParseException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new JsonParseException("Unable to load the snippets: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Gets the amount of threads to use for the given amount of tasks, which
+     * is bound by the amount of processors and <code>MAX_THREADS</code>
+     *
+     * @param tasks the amount of tasks
+     * @return the amount of threads to use, which is at least 1
+     */
+    private int getThreads(int tasks) {
+        return Math.max(1, Math.min(tasks, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors())));
+    }
+
+    /**
+     * Loads the given file, based on the version in the snapshot
+     *
+     * @param jsonFile the file to load
+     * @param snapshotFiles the files in the snapshot, where the key is the
+     * name of the file
+     * @return the loaded file
+     * @throws JsonParseException if the file cannot be read or parsed
+     */
+    private SnippetFile loadSnippetFile(Path jsonFile, Map<String, SnippetFile> snapshotFiles) throws JsonParseException {
+        try {
+            return loadSnippetFile(jsonFile, snapshotFiles.get(jsonFile.getFileName().toString()));
+        } catch (IOException ex) {
+            throw new JsonParseException("Unable to load " + jsonFile.toAbsolutePath() + "!");
+        }
+    }
+
+    /**
+     * Lists all snippet files within the
+     * <code>SnippetConstants.SNIPPET_FOLDER</code> folder, sorted on their
+     * name. The ".git" directory, and all files that are within it, are
+     * ignored.
+     *
+     * @return all snippet files, sorted on their name
+     * @throws JsonFolderNotFoundException is thrown if the folder cannot be
+     * found or if the folder is actually a file
+     * @throws JsonParseException is thrown if the folder cannot be listed
+     */
+    private List<Path> listFiles() throws JsonFolderNotFoundException, JsonParseException {
         //The folder in which all the JSON files reside (in the root of the file system)
-        File jsonFolder = new File(SnippetConstants.SNIPPET_FOLDER);
+        Path jsonFolder = getFolder();
         //Checks if the folder exists or if the folder is a file
-        if (!jsonFolder.exists()) {
+        if (!Files.exists(jsonFolder)) {
             throw new JsonFolderNotFoundException("Unable to load the JSON folder because it does not exist!");
         }
-        if (jsonFolder.isFile()) {
+        if (!Files.isDirectory(jsonFolder)) {
             throw new JsonFolderNotFoundException("Unable to load the JSON folder because it is a file!");
         }
-
-        //Listing all files in the folder
-        File[] jsonFiles = jsonFolder.listFiles();
-        for (File jsonFile : jsonFiles) {
-            //Ignores the ".git" directory and all files that are within it
-            if (jsonFile.getAbsolutePath().contains(".git")) {
-                continue;
-            }
-            try {
-                //Load the file from the disk
-                JSONObject jsonObject = loadFileFromDisk(jsonFile);
-                Snippet snippet = parseSnippet(jsonObject);
-                //The loaded snippets are checked: if the newly loaded snippet already exists within the list, then it is skipped
-                if (!loadedSnippets.contains(snippet.toString())) {
-                    //Since the snippet is not loaded yet, it should be added to avoid duplicates of this snippet in the future
-                    loadedSnippets.add(snippet.toString());
-                    //The final list of all snippets should also contain this snippet
-                    snippets.add(snippet);
+        List<Path> jsonFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(jsonFolder)) {
+            for (Path jsonFile : stream) {
+                //Ignores the ".git" directory and all files that are within it, as well as files that are still being written
+                if (jsonFile.toAbsolutePath().toString().contains(".git") || jsonFile.getFileName().toString().endsWith(SnippetConstants.TEMPORARY_FILE_SUFFIX)) {
+                    continue;
                 }
-            } catch (IOException ex) {
-                throw new JsonParseException("Unable to load " + jsonFile.getAbsolutePath());
+                jsonFiles.add(jsonFile);
             }
+        } catch (IOException ex) {
+            throw new JsonParseException("Unable to list the files in " + jsonFolder.toAbsolutePath() + "!");
+        }
+        //Sort the files to obtain the same order on every file system
+        Collections.sort(jsonFiles);
+        return jsonFiles;
+    }
+
+    /**
+     * Parses the given content of a file, decoded as UTF-8, into a snippet
+     *
+     * @param jsonFile the file that contains the content
+     * @param content the content of the file
+     * @return the parsed snippet
+     * @throws JsonParseException if the content cannot be parsed
+     */
+    protected Snippet parseSnippet(Path jsonFile, byte[] content) throws JsonParseException {
+        return parseSnippet(jsonFile.toAbsolutePath().toString(), content);
+    }
+
+    /**
+     * Parses the given content, decoded as UTF-8, into a snippet
+     *
+     * @param location the location of the content, which is used in the
+     * message of the exception if the content cannot be parsed
+     * @param content the content to parse
+     * @return the parsed snippet
+     * @throws JsonParseException if the content cannot be parsed
+     */
+    protected Snippet parseSnippet(String location, byte[] content) throws JsonParseException {
+        try {
+            return parseSnippet(new JSONObject(new String(content, StandardCharsets.UTF_8)));
+        } catch (JSONException | IllegalArgumentException ex) {
+            throw new JsonParseException("Unable to parse " + location + ": " + ex.getMessage());
         }
-        return snippets;
     }
 
     /**
@@ -173,33 +488,37 @@ public class SnippetLoader {
     }
 
     /**
-     * Loads a file from the disk and creates a JSON object from it.
+     * Gets the folder in which the snippet files reside
      *
-     * @param file The file to be read
-     * @return the content of the file in the form of a JSON object
-     * @throws FileNotFoundException is thrown if the file cannot be found
-     * @throws IOException is thrown if something goes wrong when accessing the
-     * file
+     * @return the snippet folder
      */
-    private JSONObject loadFileFromDisk(File file) throws FileNotFoundException, IOException {
-        //Try to open the file using a file reader in a buffered reader to minimise the amount of system calls (and thus load on the system)
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            //Creates a new string builder object
-            StringBuilder sb = new StringBuilder();
-            //Reads a line from the buffered reader
-            String line = br.readLine();
+    protected Path getFolder() {
+        return Paths.get(SnippetConstants.SNIPPET_FOLDER);
+    }
 
-            //As long as the line is not null, it means that there is line
-            while (line != null) {
-                //The current line is appended
-                sb.append(line);
-                //A line separator is added based on the operating system
-                sb.append(System.lineSeparator());
-                //The next line is read
-                line = br.readLine();
-            }
-            //Return the string in the form of a JSON object
-            return new JSONObject(sb.toString());
+    /**
+     * Calculates the SHA-256 hash of the given content
+     *
+     * @param content the content to hash
+     * @return the hash of the content
+     */
+    protected byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException ex) {
+            //Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
         }
     }
+
+    /**
+     * Gets the amount of milliseconds between the given moments
+     *
+     * @param start the first moment, in nanoseconds
+     * @param end the last moment, in nanoseconds
+     * @return the amount of milliseconds between the moments
+     */
+    private long toMillis(long start, long end) {
+        return TimeUnit.NANOSECONDS.toMillis(end - start);
+    }
 }
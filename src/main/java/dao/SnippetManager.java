@@ -20,14 +20,20 @@ import exception.JsonFolderNotFoundException;
 import exception.JsonParseException;
 import exception.SnippetAlreadyExistsException;
 import exception.SnippetNotFoundException;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import model.snippet.Snippet;
 import model.snippet.SnippetConstants;
+import model.snippet.SnippetMetadata;
+import model.snippet.SnippetPage;
 import org.json.JSONObject;
 
 /**
@@ -36,94 +42,412 @@ import org.json.JSONObject;
  * which they're all accessible from the RAM, leading to much faster results
  * when searching through all snippets.
  *
+ * Only the metadata of the snippets always resides in the RAM. The code of a
+ * snippet is loaded from its source when it is first used, after which it is
+ * kept in a cache of limited size, from which the least recently used
+ * snippets are evicted.
+ *
  * @author Max 'Libra' Kersten [@LibraAnalysis]
  */
 public class SnippetManager {
 
     /**
-     * The list with all snippets
+     * The published snapshot of all loaded snippets. Readers obtain the
+     * snapshot once per request, and are never blocked. Changes create a new
+     * snapshot, which then replaces the published one in a single step
+     */
+    private static final AtomicReference<SnippetCatalogSnapshot> snapshot = new AtomicReference<>(new SnippetCatalogSnapshot());
+
+    /**
+     * The lock that serialises all changes to the snapshot, ensuring that no
+     * snippet that is added during a reload is lost
+     */
+    private static final Object writeLock = new Object();
+
+    /**
+     * The cache with the most recently used snippets, including their code
+     */
+    private static final SnippetBodyCache bodyCache = new SnippetBodyCache(SnippetConstants.BODY_CACHE_SIZE);
+
+    /**
+     * The store in which the snippets are persisted, which is created when it
+     * is first used
+     */
+    private static ISnippetStore store;
+
+    /**
+     * The index of the snippet files, which is only present when the snippet
+     * folder is watched. In that case, only new and changed files are parsed
+     * when the snippets are loaded
      */
-    private static List<Snippet> snippets = new ArrayList<>();
+    private static SnippetFileIndex fileIndex;
 
     /**
-     * A list with strings (each entry is equal to
-     * <code>snippet.toString()</code>) that is used to check if a snippet is
-     * already present in the <code>snippets</code> list
+     * The watcher of the snippet folder, which is only present when the
+     * snippet folder is watched
      */
-    private static List<String> snippetHashes = new ArrayList<>();
+    private static SnippetFolderWatcher watcher;
 
     /**
-     * Adds a snippet to the internal snippets list
+     * Adds a snippet to the internal snippets list. The snippet is saved to
+     * the disk first, in the store in which the snippets are persisted, after
+     * which it is added to the loaded snippets. As such, a snippet that cannot
+     * be saved is never loaded, and a crash during the save never leaves a
+     * partially written snippet behind.
      *
-     * @param snippet the snippet to add
+     * @param snippet the parsed snippet to add
+     * @param jsonSnippet the snippet data to save
      * @throws SnippetAlreadyExistsException is thrown if there already exists a
      * snippet with the ID of the snippet that is to be added
+     * @throws IOException is thrown if an error occurs during the writing of
+     * the snippet
      */
-    public static void addSnippet(Snippet snippet) throws SnippetAlreadyExistsException {
-        //If the list of hashes already contains the hash, then thrown an exception
-        if (snippetHashes.contains(snippet.toString())) {
-            throw new SnippetAlreadyExistsException("The snippet (id: " + snippet.getId() + ") already exists!");
+    public static void addSnippet(Snippet snippet, String jsonSnippet) throws SnippetAlreadyExistsException, IOException {
+        SnippetMetadata metadata = new SnippetMetadata(snippet);
+        byte[] content = getContent(jsonSnippet);
+        synchronized (writeLock) {
+            //The snippet is checked prior to saving it, as a snippet that already exists should not be overwritten
+            SnippetCatalogSnapshot current = snapshot.get();
+            current.checkAbsent(Collections.singletonList(metadata));
+            //Save the snippet, after which its code is loaded from the store once it has been evicted from the cache
+            ISnippetSource source = getStore().save(Collections.singletonList(snippet), Collections.singletonList(content)).get(0);
+            //The parsed snippet is already known, so its first use does not require it to be parsed again
+            bodyCache.put(source, snippet);
+            //Publish the new snapshot, which also changes the generation
+            snapshot.set(current.add(metadata, source));
         }
-        //If the snippet hash did not exist, the snippet is added to the list of hashes to avoid future duplicates
-        snippetHashes.add(snippet.toString());
-        //Additionally, the complete snippet is added to the list of loaded snippets (in RAM)
-        snippets.add(snippet);
     }
 
     /**
-     * Returns all loaded snippets in a list
+     * Returns all loaded snippets in a list, in the order in which they were
+     * loaded. The code of snippets that are not cached is loaded from their
+     * source. A snippet that cannot be loaded is omitted from the list.
      *
-     * @return return all loaded snippets in a list
+     * @return return all loaded snippets in a list, which are not to be
+     * altered
      */
     public static List<Snippet> getSnippets() {
-        return snippets;
+        SnippetCatalogSnapshot current = snapshot.get();
+        return getSnippets(current, current.getCatalog().getSnippets());
+    }
+
+    /**
+     * Returns the metadata of all loaded snippets in a list, in the order in
+     * which they were loaded. The code of the snippets is not loaded.
+     *
+     * @return the metadata of all loaded snippets in a read-only list
+     */
+    public static List<SnippetMetadata> getSnippetMetadata() {
+        return snapshot.get().getCatalog().getSnippets();
+    }
+
+    /**
+     * Returns the complete snippets that belong to the given metadata. The
+     * code of snippets that are not cached is loaded from their source. A
+     * snippet that is no longer loaded, or that cannot be loaded, is omitted
+     * from the list.
+     *
+     * @param snippets the metadata of the snippets to get
+     * @return the snippets, in the order of the given metadata, which are not
+     * to be altered
+     */
+    public static List<Snippet> getSnippets(List<SnippetMetadata> snippets) {
+        return getSnippets(snapshot.get(), snippets);
+    }
+
+    /**
+     * Gets a page of the loaded snippets, in the order in which they were
+     * loaded. The page starts after the snippet that matches the cursor (if
+     * any), after which the given amount of snippets is skipped.
+     *
+     * @param cursor the ID of the last snippet of the previous page, or null
+     * to start at the first snippet
+     * @param offset the amount of snippets to skip
+     * @param limit the maximum amount of snippets on the page
+     * @return the page of snippets, which only contains their metadata
+     * @throws SnippetNotFoundException if no loaded snippet matches the cursor
+     */
+    public static SnippetPage getSnippetPage(String cursor, int offset, int limit) throws SnippetNotFoundException {
+        //Use a single snapshot, so the cursor is resolved in the catalog that the page is taken from
+        SnippetCatalog catalog = snapshot.get().getCatalog();
+        int start = 0;
+        if (cursor != null) {
+            int position = catalog.indexOf(cursor);
+            if (position == -1) {
+                throw new SnippetNotFoundException("No snippet found for the given cursor: " + cursor);
+            }
+            start = position + 1;
+        }
+        List<SnippetMetadata> snippets = catalog.getSnippets();
+        int from = (int) Math.min((long) start + offset, snippets.size());
+        int to = (int) Math.min((long) from + limit, snippets.size());
+        List<SnippetMetadata> page = snippets.subList(from, to);
+        //The next page only exists if this page does not end with the last snippet
+        String nextCursor = to < snippets.size() && !page.isEmpty() ? page.get(page.size() - 1).getId() : null;
+        return new SnippetPage(page, snippets.size(), from, nextCursor);
     }
 
     /**
-     * Loads all snippets from the disk, as specified in the
-     * <code>SnippetLoader</code>
+     * Loads all snippets from the disk, from the store in which the snippets
+     * are persisted (see <code>getStore</code>)
      *
      * @throws JsonFolderNotFoundException if the folder where the JSON files
      * are stored cannot be found
      * @throws JsonParseException if a JSON file cannot be parsed properly
      */
     public static void loadSnippets() throws JsonFolderNotFoundException, JsonParseException {
-        //Create a new instance of the snippet loader
-        SnippetLoader loader = new SnippetLoader();
-        //Load all snippes, and store the result in the snippets list
-        snippets = loader.loadSnippets();
-        //Reset the list of snippet hashes
-        snippetHashes = new ArrayList<>();
-        //Add hashes of all loaded snippets to the hashes list, which is later used to avoid adding duplicate snippets
-        for (Snippet snippet : snippets) {
-            snippetHashes.add(snippet.toString());
+        synchronized (writeLock) {
+            //If the folder is watched, only the files that changed since they were last indexed are parsed
+            if (fileIndex != null) {
+                if (fileIndex.refresh()) {
+                    publish(fileIndex.getFiles());
+                }
+                return;
+            }
+            //Load all snippets from the store, and replace the published snapshot with them
+            publish(getStore().load());
+        }
+    }
+
+    /**
+     * Loads the snippets of the given files from the disk, as reported by the
+     * watcher of the snippet folder. Files that no longer exist are removed
+     * from the loaded snippets. If the snippet folder is not watched, nothing
+     * is loaded.
+     *
+     * @param fileNames the names of the files in the snippet folder that have
+     * changed
+     * @throws JsonParseException if a JSON file cannot be parsed properly
+     */
+    public static void loadSnippetFiles(Collection<String> fileNames) throws JsonParseException {
+        synchronized (writeLock) {
+            if (fileIndex != null && fileIndex.refresh(fileNames)) {
+                publish(fileIndex.getFiles());
+            }
+        }
+    }
+
+    /**
+     * Loads all snippets from the disk, after which the snippet folder is
+     * watched for changes. From then on, only the snippets of files that are
+     * added, changed or deleted are loaded again, both when a change is
+     * detected and when <code>loadSnippets</code> is called.
+     *
+     * @throws JsonFolderNotFoundException if the folder where the JSON files
+     * are stored cannot be found
+     * @throws JsonParseException if a JSON file cannot be parsed properly
+     * @throws IOException if the snippet folder cannot be watched, or if the
+     * snippets are not stored in the snippet folder
+     */
+    public static void startWatching() throws JsonFolderNotFoundException, JsonParseException, IOException {
+        synchronized (writeLock) {
+            //The folder is only watched once
+            if (watcher != null) {
+                return;
+            }
+            //Only the snippet folder can be altered by others, and is therefore the only store that can be watched
+            if (!(getStore() instanceof FolderSnippetStore)) {
+                throw new IOException("Unable to watch the snippets, as they are not stored in " + SnippetConstants.SNIPPET_FOLDER + "!");
+            }
+            SnippetLoader loader = ((FolderSnippetStore) getStore()).getLoader();
+            //The watcher is created prior to the initial load, so no change that is made during the load is missed
+            SnippetFolderWatcher newWatcher = new SnippetFolderWatcher(loader.getFolder());
+            SnippetFileIndex newFileIndex;
+            try {
+                newFileIndex = new SnippetFileIndex(loader, loader.loadSnippetFiles());
+            } catch (JsonFolderNotFoundException | JsonParseException ex) {
+                newWatcher.stop();
+                throw ex;
+            }
+            publish(newFileIndex.getFiles());
+            fileIndex = newFileIndex;
+            watcher = newWatcher;
+            watcher.start();
+        }
+    }
+
+    /**
+     * Stops watching the snippet folder, after which all snippets are parsed
+     * again when <code>loadSnippets</code> is called
+     */
+    public static void stopWatching() {
+        synchronized (writeLock) {
+            if (watcher != null) {
+                watcher.stop();
+                watcher = null;
+                fileIndex = null;
+            }
+        }
+    }
+
+    /**
+     * Stops watching the snippet folder, and closes the store in which the
+     * snippets are persisted. The snippets that are loaded remain available,
+     * but can no longer be loaded from the store, and is therefore only to be
+     * used during the shutdown of Genesis.
+     */
+    public static void closeStore() {
+        synchronized (writeLock) {
+            stopWatching();
+            if (store != null) {
+                store.close();
+                store = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the store in which the snippets are persisted, which is created
+     * when it is first used. The snippets are stored in a log if
+     * <code>SnippetConstants.USE_SNIPPET_LOG</code> is true, and in the
+     * snippet folder otherwise. Must only be called while the write lock is
+     * held.
+     *
+     * @return the store of the snippets
+     */
+    private static ISnippetStore getStore() {
+        if (store == null) {
+            if (SnippetConstants.USE_SNIPPET_LOG) {
+                store = new LogSnippetStore(Paths.get(SnippetConstants.SNIPPET_LOG_FOLDER), bodyCache);
+            } else {
+                store = new FolderSnippetStore(bodyCache);
+            }
         }
+        return store;
+    }
+
+    /**
+     * Replaces the published snapshot with a new snapshot of the snippets of
+     * the given files, which is the next generation. Must only be called while
+     * the write lock is held.
+     *
+     * @param files the snippet files to publish
+     */
+    private static void publish(List<SnippetFile> files) {
+        //Create the new snapshot, in which snippets that were removed no longer have a source
+        SnippetCatalogSnapshot newSnapshot = new SnippetCatalogSnapshot(files, snapshot.get().getGeneration() + 1);
+        //Replace the snapshot in a single step, meaning readers either see all old or all new snippets
+        snapshot.set(newSnapshot);
+    }
+
+    /**
+     * Gets the generation of the catalog, which changes every time a snippet
+     * is added or all snippets are loaded. Responses that are based on the
+     * catalog can be reused as long as the generation is unchanged.
+     *
+     * @return the generation of the catalog
+     */
+    public static long getGeneration() {
+        return snapshot.get().getGeneration();
+    }
+
+    /**
+     * Gets the latest snapshot of the statistics of all loaded snippets, which
+     * is kept up to date when snippets are loaded or added
+     *
+     * @return the statistics of all loaded snippets
+     */
+    public static SnippetStatistics getStatistics() {
+        return snapshot.get().getStatistics();
+    }
+
+    /**
+     * Gets the amount of requested snippets of which the code was present in
+     * the cache
+     *
+     * @return the amount of cache hits
+     */
+    public static long getCacheHits() {
+        return bodyCache.getHits();
+    }
+
+    /**
+     * Gets the amount of requested snippets of which the code had to be loaded
+     * from its source
+     *
+     * @return the amount of cache misses
+     */
+    public static long getCacheMisses() {
+        return bodyCache.getMisses();
+    }
+
+    /**
+     * Gets all loaded snippets where the ID, title, description, author, date,
+     * language, architecture, any of the techniques, or any of the tactics of
+     * these techniques contains the given keyword (regardless of the casing)
+     *
+     * @param keyword the keyword to search for
+     * @return all matching snippets, in the order in which they were loaded
+     */
+    public static List<Snippet> searchSnippets(String keyword) {
+        SnippetCatalogSnapshot current = snapshot.get();
+        return getSnippets(current, current.getSearchIndex().search(keyword));
+    }
+
+    /**
+     * Gets all loaded snippets where any of the searchable fields, or any word
+     * within these fields, starts with the given prefix (regardless of the
+     * casing)
+     *
+     * @param prefix the prefix to search for
+     * @return all matching snippets, in the order in which they were loaded
+     */
+    public static List<Snippet> searchSnippetsByPrefix(String prefix) {
+        SnippetCatalogSnapshot current = snapshot.get();
+        return getSnippets(current, current.getSearchIndex().searchPrefix(prefix));
     }
 
     /**
      * Gets a snippet from the list of loaded snippets that matches the unique
-     * id
+     * id. The returned snippet is a deep copy of the cached snippet, meaning it
+     * can be altered without changing the loaded snippet. Only if the snippet
+     * is not cached, it is loaded from its source.
      *
      * @param id the id of the snippet to match
-     * @return the snippet that corresponds with the id
+     * @return a copy of the snippet that corresponds with the id
      * @throws SnippetNotFoundException is thrown when there is no snippet
      * loaded that corresponds with the given id
      * @throws JsonParseException if the snippet's JSON is malformed
      * @throws JsonFolderNotFoundException if the JSON folder cannot be found
      */
     public static Snippet getSnippet(String id) throws SnippetNotFoundException, JsonParseException, JsonFolderNotFoundException {
-        //Iterate through all snippets
-        for (Snippet snippet : snippets) {
-            //If the given ID matches the ID of a snippet (disregarding the casing), a new instance of the snippet is returned
-            if (snippet.getId().equalsIgnoreCase(id)) {
-                //Creates a snippet loader instance
-                SnippetLoader snippetLoader = new SnippetLoader();
-                //Return a snippet object, based on the given ID
-                return snippetLoader.loadSnippet(id);
+        //Get the source from a single snapshot, so it belongs to the catalog in which the ID is looked up
+        ISnippetSource source = snapshot.get().getSource(id);
+        //If no snippet matches the given ID (disregarding the casing), an exception is thrown
+        if (source == null) {
+            throw new SnippetNotFoundException("No snippet found for the given ID: " + id);
+        }
+        //Return a copy, as the cached snippet itself should never be altered
+        return bodyCache.get(id, source).copy();
+    }
+
+    /**
+     * Gets the complete snippets that belong to the given metadata, which are
+     * loaded from their source in the given snapshot if they are not cached. A
+     * snippet that is loaded here is not added to the cache, as a listing or a
+     * search would otherwise evict the snippets that are used in builds. A
+     * snippet that cannot be loaded is omitted, and the failure is logged.
+     *
+     * @param current the snapshot that the metadata belongs to
+     * @param snippets the metadata of the snippets to get
+     * @return the snippets, in the order of the given metadata, which are not
+     * to be altered
+     */
+    private static List<Snippet> getSnippets(SnippetCatalogSnapshot current, List<SnippetMetadata> snippets) {
+        List<Snippet> result = new ArrayList<>(snippets.size());
+        for (SnippetMetadata snippet : snippets) {
+            ISnippetSource source = current.getSource(snippet.getId());
+            //Snippets that were removed in the meantime are omitted
+            if (source == null) {
+                continue;
+            }
+            try {
+                result.add(bodyCache.scan(snippet.getId(), source));
+            } catch (JsonParseException ex) {
+                Logger.getLogger(SnippetManager.class.getName()).log(Level.WARNING, "Unable to load the snippet (id: " + snippet.getId() + ")", ex);
             }
         }
-        //If all snippets are iterated, but no match is found, an exception is thrown
-        throw new SnippetNotFoundException("No snippet found for the given ID: " + id);
+        return result;
     }
 
     /**
@@ -144,27 +468,57 @@ public class SnippetManager {
     }
 
     /**
-     * Saves a snippet to the disk in the snippet folder (as specified in
-     * <code>SnippetConstants.SNIPPET_FOLDER</code>).
+     * Imports the given snippets, which are parsed in parallel. The snippets
+     * are either all imported, or none are imported. All snippets are saved
+     * to the disk at once, in the store in which the snippets are persisted,
+     * after which they are added to the loaded snippets in a single step.
      *
-     * @param jsonSnippet the snippet data to save
-     * @param fileName the file name of the snippet to save
+     * @param jsonSnippets the snippets to import, in JSON format
+     * @return the amount of imported snippets
+     * @throws JsonParseException is thrown if any of the snippets cannot be
+     * parsed, because the JSON is either malformed or an unimplemented language
+     * is used
+     * @throws SnippetAlreadyExistsException is thrown if the ID of any of the
+     * snippets is already in use, or if it is used more than once in the given
+     * snippets
      * @throws IOException is thrown if an error occurs during the writing of
-     * the file
-     */
-    public static void saveSnippetToDisk(String jsonSnippet, String fileName) throws IOException {
-        try {
-            //Creates a new buffered writer (minimises system calls to write the data, thus minimising the server load) object, based on the snippet file that resides in the snippet folder
-            BufferedWriter bw = new BufferedWriter(new FileWriter(new File(SnippetConstants.SNIPPET_FOLDER + fileName + ".json"), true));
-            //Writes the output
-            bw.write(jsonSnippet);
-            //Adds a newline
-            bw.newLine();
-            //Closes the writer
-            bw.close();
-        } catch (IOException ex) {
-            //If an error occurs, a matching error message is thrown
-            throw new IOException("Unable to write '" + fileName + ".json' to " + SnippetConstants.SNIPPET_FOLDER + "! Check if the required permissions are granted before you try again.");
+     * the snippets
+     */
+    public static int importSnippets(List<JSONObject> jsonSnippets) throws JsonParseException, SnippetAlreadyExistsException, IOException {
+        //Parse all snippets prior to obtaining the lock, as this does not depend on the loaded snippets
+        List<Snippet> snippets = new SnippetLoader().parseSnippets(jsonSnippets);
+        List<byte[]> contents = new ArrayList<>(snippets.size());
+        for (JSONObject jsonSnippet : jsonSnippets) {
+            contents.add(getContent(jsonSnippet.toString()));
         }
+        synchronized (writeLock) {
+            //The snippets are checked prior to saving them, as the saved files would otherwise not match the loaded snippets
+            SnippetCatalogSnapshot current = snapshot.get();
+            List<SnippetMetadata> metadata = new ArrayList<>(snippets.size());
+            for (Snippet snippet : snippets) {
+                metadata.add(new SnippetMetadata(snippet));
+            }
+            current.checkAbsent(metadata);
+            //Save all snippets at once, after which their code is loaded from the store once it has been evicted from the cache
+            List<ISnippetSource> sources = getStore().save(snippets, contents);
+            for (int i = 0; i < snippets.size(); i++) {
+                //The parsed snippets are already known, so their first use does not require them to be parsed again
+                bodyCache.put(sources.get(i), snippets.get(i));
+            }
+            //Publish all snippets in a single step, which also changes the generation only once
+            snapshot.set(current.add(metadata, sources));
+        }
+        return snippets.size();
+    }
+
+    /**
+     * Gets the content with which a snippet is stored for the given snippet
+     * data
+     *
+     * @param jsonSnippet the snippet data
+     * @return the content, encoded in UTF-8
+     */
+    private static byte[] getContent(String jsonSnippet) {
+        return (jsonSnippet + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
     }
 }
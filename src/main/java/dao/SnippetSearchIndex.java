@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import model.mitre.TacticManager;
+import model.mitre.TacticType;
+import model.mitre.Technique;
+import model.snippet.SnippetMetadata;
+
+/**
+ * An inverted index on the searchable fields of the loaded snippets. Every
+ * field is stored in lower case, both as a whole and split into tokens, and
+ * refers to the snippets in which it occurs. A search therefore only iterates
+ * the distinct terms that can match, rather than every field of every snippet.
+ *
+ * The indexed fields are the ID, title, description, author, date, language,
+ * architecture, the techniques, and the names of the tactics that the
+ * techniques belong to. Snippets are returned in the order in which they were
+ * added.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetSearchIndex {
+
+    /**
+     * The length of the grams that are used to find the terms that contain a
+     * keyword
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * All indexed snippets, where the index in the list is the position that
+     * is used in the postings
+     */
+    private final List<SnippetMetadata> snippets;
+
+    /**
+     * The postings, where the key is a term and the value contains the
+     * positions of the snippets in which the term occurs. The terms are sorted,
+     * which is used for the prefix lookups
+     */
+    private final TreeMap<String, BitSet> postings;
+
+    /**
+     * All terms that contain a gram, where the key is the gram
+     */
+    private final Map<String, Set<String>> grams;
+
+    /**
+     * Creates an empty index
+     */
+    public SnippetSearchIndex() {
+        snippets = new ArrayList<>();
+        postings = new TreeMap<>();
+        grams = new HashMap<>();
+    }
+
+    /**
+     * Creates an index that contains all given snippets
+     *
+     * @param snippets the snippets to index
+     */
+    public SnippetSearchIndex(List<SnippetMetadata> snippets) {
+        this();
+        for (SnippetMetadata snippet : snippets) {
+            add(snippet);
+        }
+    }
+
+    /**
+     * Creates an index that contains all snippets of the given index. The
+     * postings and grams are copied, meaning that adding a snippet to the new
+     * index does not alter the given index.
+     *
+     * @param index the index to copy
+     */
+    public SnippetSearchIndex(SnippetSearchIndex index) {
+        snippets = new ArrayList<>(index.snippets);
+        postings = new TreeMap<>();
+        for (Map.Entry<String, BitSet> entry : index.postings.entrySet()) {
+            postings.put(entry.getKey(), (BitSet) entry.getValue().clone());
+        }
+        grams = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : index.grams.entrySet()) {
+            grams.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        }
+    }
+
+    /**
+     * Adds the given snippet to the index. The index is not thread-safe, and
+     * should therefore not be altered once it is shared between threads.
+     *
+     * @param snippet the snippet to add
+     */
+    public void add(SnippetMetadata snippet) {
+        //The position of the snippet is used in the postings
+        int position = snippets.size();
+        snippets.add(snippet);
+        for (String field : getFields(snippet)) {
+            //Fields that are not set cannot be matched
+            if (field == null) {
+                continue;
+            }
+            //The whole field is indexed, which is required to match keywords that span multiple tokens
+            String value = field.toLowerCase();
+            addTerm(value, position);
+            //Each token is indexed to allow prefix lookups on every word
+            for (String token : tokenize(value)) {
+                addTerm(token, position);
+            }
+        }
+    }
+
+    /**
+     * Gets all snippets where any of the indexed fields contains the given
+     * keyword, regardless of the casing
+     *
+     * @param keyword the keyword to search for
+     * @return all matching snippets, in the order in which they were added
+     */
+    public List<SnippetMetadata> search(String keyword) {
+        String match = keyword.toLowerCase();
+        //An empty keyword matches every snippet
+        if (match.isEmpty()) {
+            return new ArrayList<>(snippets);
+        }
+        //Get the terms that can contain the keyword
+        Collection<String> candidates = getCandidates(match);
+        //Combine the postings of all terms that contain the keyword
+        BitSet matches = new BitSet(snippets.size());
+        for (String term : candidates) {
+            if (term.contains(match)) {
+                matches.or(postings.get(term));
+                //Once every snippet matches, the remaining terms cannot add anything
+                if (matches.cardinality() == snippets.size()) {
+                    break;
+                }
+            }
+        }
+        return getSnippets(matches);
+    }
+
+    /**
+     * Gets all snippets where any of the indexed fields, or any word within
+     * these fields, starts with the given prefix, regardless of the casing
+     *
+     * @param prefix the prefix to search for
+     * @return all matching snippets, in the order in which they were added
+     */
+    public List<SnippetMetadata> searchPrefix(String prefix) {
+        String match = prefix.toLowerCase();
+        BitSet matches = new BitSet(snippets.size());
+        //The terms are sorted, meaning all terms with the prefix directly follow the prefix itself
+        for (Map.Entry<String, BitSet> entry : postings.tailMap(match, true).entrySet()) {
+            if (!entry.getKey().startsWith(match)) {
+                break;
+            }
+            matches.or(entry.getValue());
+        }
+        return getSnippets(matches);
+    }
+
+    /**
+     * Gets the terms that might contain the given keyword. If the keyword is
+     * at least as long as a gram, only the terms that contain the rarest gram
+     * of the keyword are returned. Otherwise, all terms are returned.
+     *
+     * @param match the lower case keyword
+     * @return the terms that might contain the keyword
+     */
+    private Collection<String> getCandidates(String match) {
+        //Short keywords cannot be looked up using grams
+        if (match.length() < GRAM_LENGTH) {
+            return postings.keySet();
+        }
+        Set<String> candidates = null;
+        for (int i = 0; i + GRAM_LENGTH <= match.length(); i++) {
+            Set<String> terms = grams.get(match.substring(i, i + GRAM_LENGTH));
+            //If any gram does not occur, no term contains the keyword
+            if (terms == null) {
+                return Collections.emptySet();
+            }
+            //The smallest set requires the least amount of verification
+            if (candidates == null || terms.size() < candidates.size()) {
+                candidates = terms;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Adds the given term to the postings, and to the grams if the term is
+     * new
+     *
+     * @param term the term to add
+     * @param position the position of the snippet in which the term occurs
+     */
+    private void addTerm(String term, int position) {
+        BitSet positions = postings.get(term);
+        if (positions == null) {
+            positions = new BitSet();
+            postings.put(term, positions);
+            //Link every gram within the term to the term
+            for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+                String gram = term.substring(i, i + GRAM_LENGTH);
+                Set<String> terms = grams.get(gram);
+                if (terms == null) {
+                    terms = new HashSet<>();
+                    grams.put(gram, terms);
+                }
+                terms.add(term);
+            }
+        }
+        positions.set(position);
+    }
+
+    /**
+     * Gets the snippets that correspond with the given positions
+     *
+     * @param positions the positions of the snippets
+     * @return the snippets, in the order in which they were added
+     */
+    private List<SnippetMetadata> getSnippets(BitSet positions) {
+        List<SnippetMetadata> result = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            result.add(snippets.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Gets all searchable fields of the given snippet
+     *
+     * @param snippet the snippet to get the fields from
+     * @return the searchable fields, which might contain null values
+     */
+    private List<String> getFields(SnippetMetadata snippet) {
+        List<String> fields = new ArrayList<>();
+        fields.add(snippet.getId());
+        fields.add(snippet.getTitle());
+        fields.add(snippet.getDescription());
+        fields.add(snippet.getAuthor());
+        fields.add(snippet.getDate());
+        fields.add(snippet.getLanguage().toString());
+        fields.add(snippet.getArchitecture().toString());
+        for (Technique technique : snippet.getTechniques()) {
+            fields.add(technique.toString());
+            //The tactics of a technique are searchable as well
+            for (TacticType tactic : TacticManager.getTacticTypes(technique)) {
+                fields.add(tactic.getName());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Splits the given value into tokens, which consist of letters and digits
+     *
+     * @param value the value to split
+     * @return all tokens in the given value
+     */
+    private List<String> tokenize(String value) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= value.length(); i++) {
+            boolean partOfToken = i < value.length() && Character.isLetterOrDigit(value.charAt(i));
+            if (partOfToken && start < 0) {
+                //A new token starts
+                start = i;
+            } else if (!partOfToken && start >= 0) {
+                //The current token ends
+                tokens.add(value.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import model.language.enums.Language;
+import model.mitre.Technique;
+
+/**
+ * An immutable snapshot of the statistics of the loaded snippets. A snapshot
+ * is created by the <code>SnippetCounter</code> every time a snippet is added,
+ * meaning that all values within a single snapshot belong together.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetStatistics {
+
+    /**
+     * The amount of snippets
+     */
+    private final int snippetCount;
+
+    /**
+     * The amount of distinct techniques that are used in the snippets
+     */
+    private final int usedTechniqueCount;
+
+    /**
+     * The technique that is used in the most snippets, or null if there is
+     * none
+     */
+    private final Technique mostUsedTechnique;
+
+    /**
+     * The language that is used in the most snippets, or null if there is none
+     */
+    private final Language mostUsedLanguage;
+
+    /**
+     * Creates a snapshot of the statistics
+     *
+     * @param snippetCount the amount of snippets
+     * @param usedTechniqueCount the amount of distinct techniques that are used
+     * in the snippets
+     * @param mostUsedTechnique the technique that is used in the most snippets,
+     * or null if there is none
+     * @param mostUsedLanguage the language that is used in the most snippets,
+     * or null if there is none
+     */
+    public SnippetStatistics(int snippetCount, int usedTechniqueCount, Technique mostUsedTechnique, Language mostUsedLanguage) {
+        this.snippetCount = snippetCount;
+        this.usedTechniqueCount = usedTechniqueCount;
+        this.mostUsedTechnique = mostUsedTechnique;
+        this.mostUsedLanguage = mostUsedLanguage;
+    }
+
+    /**
+     * Gets the amount of snippets
+     *
+     * @return the amount of snippets
+     */
+    public int getSnippetCount() {
+        return snippetCount;
+    }
+
+    /**
+     * Gets the amount of distinct techniques that are used in the snippets
+     *
+     * @return the amount of used techniques
+     */
+    public int getUsedTechniqueCount() {
+        return usedTechniqueCount;
+    }
+
+    /**
+     * Gets the technique that is used in the most snippets. If multiple
+     * techniques are used equally often, the first one in the enumeration is
+     * returned
+     *
+     * @return the most used technique, or null if no snippet uses a technique
+     */
+    public Technique getMostUsedTechnique() {
+        return mostUsedTechnique;
+    }
+
+    /**
+     * Gets the language that is used in the most snippets. If multiple
+     * languages are used equally often, the first one in the enumeration is
+     * returned
+     *
+     * @return the most used language, or null if there are no snippets
+     */
+    public Language getMostUsedLanguage() {
+        return mostUsedLanguage;
+    }
+}
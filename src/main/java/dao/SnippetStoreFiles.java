@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import model.snippet.SnippetConstants;
+
+/**
+ * This class contains the file operations that the snippet stores use to
+ * persist snippets in a crash-safe manner. Content is written to a temporary
+ * file and flushed to the disk, after which the temporary file replaces its
+ * target in a single step.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetStoreFiles {
+
+    /**
+     * The class only contains static methods, and is therefore never
+     * instantiated
+     */
+    private SnippetStoreFiles() {
+    }
+
+    /**
+     * Writes the given content to a new temporary file in the given folder,
+     * after which the content is flushed to the disk. Temporary files are
+     * never loaded as a snippet.
+     *
+     * @param folder the folder to create the temporary file in
+     * @param prefix the prefix of the name of the temporary file
+     * @param content the content to write
+     * @return the temporary file
+     * @throws IOException if the file cannot be created or written
+     */
+    public static Path writeTemporaryFile(Path folder, String prefix, byte[] content) throws IOException {
+        Path temporaryFile = Files.createTempFile(folder, prefix + ".", SnippetConstants.TEMPORARY_FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, ByteBuffer.wrap(content), 0);
+            //Ensure the content is on the disk before the file is moved
+            channel.force(true);
+        } catch (IOException ex) {
+            deleteQuietly(temporaryFile);
+            throw ex;
+        }
+        return temporaryFile;
+    }
+
+    /**
+     * Writes all remaining bytes of the given buffer to the given channel,
+     * starting at the given position
+     *
+     * @param channel the channel to write to
+     * @param buffer the bytes to write
+     * @param position the position in the channel to start writing at
+     * @throws IOException if the bytes cannot be written
+     */
+    public static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Moves the given file to the given target in a single step, replacing the
+     * target if it exists. If the file system does not support an atomic move,
+     * a regular move is used instead.
+     *
+     * @param source the file to move
+     * @param target the location to move the file to
+     * @throws IOException if the file cannot be moved
+     */
+    public static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Flushes the entries of the given directory to the disk, which persists
+     * the files that were created in, moved into, or deleted from it.
+     * Platforms that cannot open a directory, such as Windows, are skipped.
+     *
+     * @param directory the directory to synchronise
+     */
+    public static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            Logger.getLogger(SnippetStoreFiles.class.getName()).log(Level.FINE, "Unable to synchronise " + directory.toAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Deletes the given file, if it is present. Errors are logged, rather than
+     * thrown.
+     *
+     * @param file the file to delete, or null to delete nothing
+     */
+    public static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            Logger.getLogger(SnippetStoreFiles.class.getName()).log(Level.WARNING, "Unable to delete " + file.toAbsolutePath(), ex);
+        }
+    }
+}
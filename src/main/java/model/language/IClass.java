@@ -16,6 +16,7 @@
  */
 package model.language;
 
+import java.io.IOException;
 import java.util.Set;
 import model.language.enums.Architecture;
 import model.language.enums.Language;
@@ -140,4 +141,23 @@ public interface IClass {
      * @return the complete executable class based in a single string
      */
     public String build();
+
+    /**
+     * Builds the class in the same way as <code>build()</code>, but writes
+     * the result to the given output instead of returning a single string.
+     * This avoids keeping a complete copy of a large build in memory.
+     *
+     * @param output the output to write the class to
+     * @throws IOException if the output cannot be written to
+     */
+    public void build(Appendable output) throws IOException;
+
+    /**
+     * Creates a deep copy of this class. All variables and functions are
+     * copied as well, meaning that changes to the copy (or to any of its
+     * variables and functions) do not alter this instance.
+     *
+     * @return a deep copy of this class
+     */
+    public IClass copy();
 }
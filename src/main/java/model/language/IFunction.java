@@ -16,6 +16,7 @@
  */
 package model.language;
 
+import java.io.IOException;
 import model.language.enums.Language;
 import java.util.Map;
 import java.util.Set;
@@ -100,4 +101,23 @@ public interface IFunction {
      * @return the complete executable function in a single string
      */
     public String build();
+
+    /**
+     * Builds the function in the same way as <code>build()</code>, but writes
+     * the result to the given output instead of returning a single string.
+     * This avoids keeping a complete copy of a large build in memory.
+     *
+     * @param output the output to write the function to
+     * @throws IOException if the output cannot be written to
+     */
+    public void build(Appendable output) throws IOException;
+
+    /**
+     * Creates a copy of this function, including a copy of the arguments and
+     * dependencies, meaning that changes to the copy do not alter this
+     * instance.
+     *
+     * @return a copy of this function
+     */
+    public IFunction copy();
 }
@@ -16,6 +16,8 @@
  */
 package model.language;
 
+import java.io.IOException;
+
 /**
  * The interface of a new variable. A new language should be implemented within
  * a new package named <code>model.language.*</code>, where the asterisk is the
@@ -70,4 +72,22 @@ public interface IVariable {
      * @return the variable as a string
      */
     public String build();
+
+    /**
+     * Builds the variable in the same way as <code>build()</code>, but writes
+     * the result to the given output instead of returning a single string.
+     * This avoids keeping a complete copy of a large build in memory.
+     *
+     * @param output the output to write the variable to
+     * @throws IOException if the output cannot be written to
+     */
+    public void build(Appendable output) throws IOException;
+
+    /**
+     * Creates a copy of this variable, meaning that changes to the copy do not
+     * alter this instance.
+     *
+     * @return a copy of this variable
+     */
+    public IVariable copy();
 }
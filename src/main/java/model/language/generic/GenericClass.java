@@ -16,6 +16,7 @@
  */
 package model.language.generic;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
 import model.language.IClass;
@@ -263,4 +264,55 @@ public abstract class GenericClass {
     public Set<IFunction> getFunctions() {
         return functions;
     }
+
+    /**
+     * Copies the content of this class into the given (freshly created)
+     * target. The dependencies and techniques are copied into new sets,
+     * whereas every variable and function is copied individually. This way,
+     * the target can be altered without changing this instance.
+     *
+     * @param target the class to copy the content of this instance into
+     */
+    protected void copyContent(GenericClass target) {
+        //Copy the dependencies into a new set
+        target.dependencies = new HashSet<>(dependencies);
+        //Copy the techniques into a new set
+        target.techniques = new HashSet<>(techniques);
+        //Copy every variable
+        for (IVariable variable : variables) {
+            target.variables.add(variable.copy());
+        }
+        //Copy every function
+        for (IFunction function : functions) {
+            target.functions.add(function.copy());
+        }
+    }
+
+    /**
+     * Builds the class into a single string, using the language specific
+     * <code>build(Appendable)</code> function
+     *
+     * @return the complete executable class in a single string
+     */
+    public String build() {
+        //Create a string builder object to build the class in
+        StringBuilder output = new StringBuilder();
+        try {
+            build(output);
+        } catch (IOException ex) {
+            //A string builder does not throw an IOException
+            throw new IllegalStateException(ex);
+        }
+        //Return the class in the form of a string
+        return output.toString();
+    }
+
+    /**
+     * Builds the class and writes it to the given output. This function
+     * should be implemented within the language specific class.
+     *
+     * @param output the output to write the class to
+     * @throws IOException if the output cannot be written to
+     */
+    public abstract void build(Appendable output) throws IOException;
 }
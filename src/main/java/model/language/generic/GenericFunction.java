@@ -16,6 +16,7 @@
  */
 package model.language.generic;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 import model.language.enums.Language;
@@ -133,4 +134,32 @@ public abstract class GenericFunction {
     public Language getLanguage() {
         return language;
     }
+
+    /**
+     * Builds the function into a single string, using the language specific
+     * <code>build(Appendable)</code> function
+     *
+     * @return the complete executable function in a single string
+     */
+    public String build() {
+        //Create a string builder object to build the function in
+        StringBuilder output = new StringBuilder();
+        try {
+            build(output);
+        } catch (IOException ex) {
+            //A string builder does not throw an IOException
+            throw new IllegalStateException(ex);
+        }
+        //Return the function in the form of a string
+        return output.toString();
+    }
+
+    /**
+     * Builds the function and writes it to the given output. This function
+     * should be implemented within the language specific class.
+     *
+     * @param output the output to write the function to
+     * @throws IOException if the output cannot be written to
+     */
+    public abstract void build(Appendable output) throws IOException;
 }
@@ -16,6 +16,8 @@
  */
 package model.language.generic;
 
+import java.io.IOException;
+
 /**
  * This class contains generic functions that can be used in any language. To
  * suit the need of any language, only the bare minimum requirements are
@@ -79,4 +81,31 @@ public abstract class GenericVariable {
         this.body = body;
     }
 
+    /**
+     * Builds the variable into a single string, using the language specific
+     * <code>build(Appendable)</code> function
+     *
+     * @return the variable as a string
+     */
+    public String build() {
+        //Create a string builder object to build the variable in
+        StringBuilder output = new StringBuilder();
+        try {
+            build(output);
+        } catch (IOException ex) {
+            //A string builder does not throw an IOException
+            throw new IllegalStateException(ex);
+        }
+        //Return the variable in the form of a string
+        return output.toString();
+    }
+
+    /**
+     * Builds the variable and writes it to the given output. This function
+     * should be implemented within the language specific class.
+     *
+     * @param output the output to write the variable to
+     * @throws IOException if the output cannot be written to
+     */
+    public abstract void build(Appendable output) throws IOException;
 }
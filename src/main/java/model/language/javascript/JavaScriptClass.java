@@ -16,6 +16,7 @@
  */
 package model.language.javascript;
 
+import java.io.IOException;
 import model.language.ClassConstants;
 import model.language.IClass;
 import model.language.IFunction;
@@ -75,31 +76,44 @@ public class JavaScriptClass extends GenericClass implements IClass {
 
     /**
      * Builds the JavaScript class, including all global variables, functions
-     * and the entry point
+     * and the entry point, and writes it to the given output
      *
-     * @return returns the complete JavaScript class in the form of a string
+     * @param output the output to write the complete JavaScript class to
+     * @throws IOException if the output cannot be written to
      */
     @Override
-    public String build() {
-        //Create a stringbuilder object
-        StringBuilder output = new StringBuilder();
+    public void build(Appendable output) throws IOException {
         //Build each variable
         for (IVariable variable : super.getVariables()) {
-            output.append(variable.build());
+            variable.build(output);
             output.append(ClassConstants.NEW_LINE);
         }
         //Add a new line
         output.append(ClassConstants.NEW_LINE);
         //Build each function
         for (IFunction function : super.getFunctions()) {
-            output.append(function.build());
+            function.build(output);
             output.append(ClassConstants.NEW_LINE);
         }
         //Add a new line
         output.append(ClassConstants.NEW_LINE);
         //Add the script
         output.append(script);
-        //Return the class
-        return output.toString();
+    }
+
+    /**
+     * Creates a deep copy of this JavaScript class, including the entry point
+     * script, all variables and all functions
+     *
+     * @return a deep copy of this class
+     */
+    @Override
+    public IClass copy() {
+        //Create a new class with the same architecture and script
+        JavaScriptClass copy = new JavaScriptClass(super.getArchitecture(), script);
+        //Copy the variables, functions, techniques and dependencies
+        super.copyContent(copy);
+        //Return the copy
+        return copy;
     }
 }
@@ -16,6 +16,8 @@
  */
 package model.language.javascript;
 
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import model.language.ClassConstants;
@@ -47,34 +49,46 @@ public class JavaScriptFunction extends GenericFunction implements IFunction {
     }
 
     /**
-     * Builds the function in the form of a string
+     * Builds the function and writes it to the given output
      *
-     * @return the function in the form of a string
+     * @param output the output to write the function to
+     * @throws IOException if the output cannot be written to
      */
     @Override
-    public String build() {
-        //Creates a string builder object
-        StringBuilder function = new StringBuilder();
+    public void build(Appendable output) throws IOException {
         //Adds the function tag and name
-        function.append("function" + ClassConstants.SPACE + super.getName() + ClassConstants.BRACKET_OPEN);
-        //Adds the arguments
+        output.append("function").append(ClassConstants.SPACE).append(super.getName()).append(ClassConstants.BRACKET_OPEN);
+        //Adds the arguments, where all but the first argument are preceded by a comma and a space
+        boolean first = true;
         for (Map.Entry<String, String> entry : super.getArguments().entrySet()) {
-            String argumentName = entry.getKey();
-            function.append(argumentName + ClassConstants.COMMA + ClassConstants.SPACE);
-        }
-        //Remove the redundant comma and space from the last argument
-        int index = function.toString().lastIndexOf(ClassConstants.COMMA);
-        if (index != -1) {
-            function.delete(index, index + 2);
+            if (!first) {
+                output.append(ClassConstants.COMMA).append(ClassConstants.SPACE);
+            }
+            output.append(entry.getKey());
+            first = false;
         }
         //Close the argument brackets and open the curly brackets 
-        function.append(ClassConstants.BRACKET_CLOSE + ClassConstants.SPACE + ClassConstants.CURLY_OPEN + ClassConstants.NEW_LINE);
+        output.append(ClassConstants.BRACKET_CLOSE).append(ClassConstants.SPACE).append(ClassConstants.CURLY_OPEN).append(ClassConstants.NEW_LINE);
         //Add the function body
-        function.append(super.getBody() + ClassConstants.NEW_LINE);
+        output.append(super.getBody()).append(ClassConstants.NEW_LINE);
         //Close the curly bracket
-        function.append(ClassConstants.CURLY_CLOSE);
-        //Return the function in string format
-        return function.toString();
+        output.append(ClassConstants.CURLY_CLOSE);
+    }
+
+    /**
+     * Creates a copy of this function, including a copy of the arguments and
+     * the dependencies
+     *
+     * @return a copy of this function
+     */
+    @Override
+    public IFunction copy() {
+        //Create a new function with a copy of the arguments
+        IFunction copy = new JavaScriptFunction(super.getName(), new HashMap<>(super.getArguments()), super.getBody());
+        //Copy the dependencies
+        copy.getDependencies().addAll(super.getDependencies());
+        //Return the copy
+        return copy;
     }
 
 }
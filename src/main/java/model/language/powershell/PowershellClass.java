@@ -16,6 +16,7 @@
  */
 package model.language.powershell;
 
+import java.io.IOException;
 import model.language.ClassConstants;
 import model.language.IClass;
 import model.language.IFunction;
@@ -75,32 +76,45 @@ public class PowershellClass extends GenericClass implements IClass {
 
     /**
      * Builds the Powershell class, including all global variables, functions
-     * and the entry point
+     * and the entry point, and writes it to the given output
      *
-     * @return returns the complete Powershell class in the form of a string
+     * @param output the output to write the complete Powershell class to
+     * @throws IOException if the output cannot be written to
      */
     @Override
-    public String build() {
-        //Create a string builder object
-        StringBuilder result = new StringBuilder();
-        //Add all variables
+    public void build(Appendable output) throws IOException {
+        //Build each variable
         for (IVariable variable : super.getVariables()) {
-            result.append(variable.build());
-            result.append(ClassConstants.NEW_LINE);
+            variable.build(output);
+            output.append(ClassConstants.NEW_LINE);
         }
         //Add a new line
-        result.append(ClassConstants.NEW_LINE);
-        //Add all functions
+        output.append(ClassConstants.NEW_LINE);
+        //Build each function
         for (IFunction function : super.getFunctions()) {
-            result.append(function.build());
-            result.append(ClassConstants.NEW_LINE);
+            function.build(output);
+            output.append(ClassConstants.NEW_LINE);
         }
         //Add a new line
-        result.append(ClassConstants.NEW_LINE);
+        output.append(ClassConstants.NEW_LINE);
         //Add the script
-        result.append(script);
-        //Return the class in string format
-        return result.toString();
+        output.append(script);
+    }
+
+    /**
+     * Creates a deep copy of this Powershell class, including the entry point
+     * script, all variables and all functions
+     *
+     * @return a deep copy of this class
+     */
+    @Override
+    public IClass copy() {
+        //Create a new class with the same architecture and script
+        PowershellClass copy = new PowershellClass(super.getArchitecture(), script);
+        //Copy the variables, functions, techniques and dependencies
+        super.copyContent(copy);
+        //Return the copy
+        return copy;
     }
 
 }
@@ -16,6 +16,8 @@
  */
 package model.language.powershell;
 
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import model.language.ClassConstants;
@@ -69,35 +71,58 @@ public class PowershellFunction extends GenericFunction implements IFunction {
     }
 
     /**
-     * Builds the function in the form of a string
+     * Gets the CmdletBinding tag of the function
      *
-     * @return the function in the form of a string
+     * @return the CmdletBinding tag, or an empty string if the function has
+     * none
+     */
+    public String getCmdletBinding() {
+        return cmdletBinding;
+    }
+
+    /**
+     * Builds the function and writes it to the given output
+     *
+     * @param output the output to write the function to
+     * @throws IOException if the output cannot be written to
      */
     @Override
-    public String build() {
-        //Creates a string builder object
-        StringBuilder function = new StringBuilder();
+    public void build(Appendable output) throws IOException {
         //Appends the function tag, name, and opens the curly brackets
-        function.append("function " + super.getName() + ClassConstants.SPACE + ClassConstants.CURLY_OPEN + ClassConstants.NEW_LINE);
+        output.append("function ").append(super.getName()).append(ClassConstants.SPACE).append(ClassConstants.CURLY_OPEN).append(ClassConstants.NEW_LINE);
         //Check if the cmdlet binding is an empty string
         if (!cmdletBinding.equals("")) {
             //If not, add the cmdlet binding
-            function.append(ClassConstants.TAB + cmdletBinding + ClassConstants.NEW_LINE);
+            output.append(ClassConstants.TAB).append(cmdletBinding).append(ClassConstants.NEW_LINE);
         }
         //Add the function parameters
-        function.append(ClassConstants.TAB + "param" + ClassConstants.BRACKET_OPEN + ClassConstants.NEW_LINE);
+        output.append(ClassConstants.TAB).append("param").append(ClassConstants.BRACKET_OPEN).append(ClassConstants.NEW_LINE);
         for (Map.Entry<String, String> entry : super.getArguments().entrySet()) {
             String parameterName = entry.getKey();
             String parameterValue = entry.getValue();
-            function.append(ClassConstants.TAB + ClassConstants.TAB + parameterValue + ClassConstants.NEW_LINE + parameterName + ClassConstants.NEW_LINE);
+            output.append(ClassConstants.TAB).append(ClassConstants.TAB).append(parameterValue).append(ClassConstants.NEW_LINE).append(parameterName).append(ClassConstants.NEW_LINE);
         }
         //Close the arguments and add a new line
-        function.append(ClassConstants.TAB + ClassConstants.BRACKET_CLOSE + ClassConstants.NEW_LINE);
+        output.append(ClassConstants.TAB).append(ClassConstants.BRACKET_CLOSE).append(ClassConstants.NEW_LINE);
         //Add the function body
-        function.append(ClassConstants.TAB + super.getBody() + ClassConstants.NEW_LINE);
+        output.append(ClassConstants.TAB).append(super.getBody()).append(ClassConstants.NEW_LINE);
         //Close the function with a curly bracket
-        function.append(ClassConstants.CURLY_CLOSE);
-        //Return the function in string format
-        return function.toString();
+        output.append(ClassConstants.CURLY_CLOSE);
+    }
+
+    /**
+     * Creates a copy of this function, including the cmdlet binding and a copy
+     * of the arguments and the dependencies
+     *
+     * @return a copy of this function
+     */
+    @Override
+    public IFunction copy() {
+        //Create a new function with the same cmdlet binding and a copy of the arguments
+        IFunction copy = new PowershellFunction(super.getName(), cmdletBinding, new HashMap<>(super.getArguments()), super.getBody());
+        //Copy the dependencies
+        copy.getDependencies().addAll(super.getDependencies());
+        //Return the copy
+        return copy;
     }
 }
@@ -16,6 +16,7 @@
  */
 package model.language.vba;
 
+import java.io.IOException;
 import model.language.ClassConstants;
 import model.language.IClass;
 import model.language.IFunction;
@@ -47,27 +48,42 @@ public class VbaClass extends GenericClass implements IClass {
 
     /**
      * Builds the VBA macro class, including all global variables and defined
-     * functions
+     * functions, and writes it to the given output
      *
-     * @return returns the complete VBA macro class in the form of a string
+     * @param output the output to write the complete VBA macro class to
+     * @throws IOException if the output cannot be written to
      */
     @Override
-    public String build() {
-        //Creates a string builder object
-        StringBuilder output = new StringBuilder();
+    public void build(Appendable output) throws IOException {
         //Add all variables
         for (IVariable variable : super.getVariables()) {
-            output.append(ClassConstants.TAB + variable.build());
+            output.append(ClassConstants.TAB);
+            variable.build(output);
             output.append(ClassConstants.NEW_LINE);
         }
         //Add a new line
         output.append(ClassConstants.NEW_LINE);
         //Add all functions
         for (IFunction function : super.getFunctions()) {
-            output.append(ClassConstants.TAB + function.build());
+            output.append(ClassConstants.TAB);
+            function.build(output);
             output.append(ClassConstants.NEW_LINE);
         }
-        //Return the class in the form of a string
-        return output.toString();
+    }
+
+    /**
+     * Creates a deep copy of this VBA class, including all variables and all
+     * functions
+     *
+     * @return a deep copy of this class
+     */
+    @Override
+    public IClass copy() {
+        //Create a new class with the same architecture
+        VbaClass copy = new VbaClass(super.getArchitecture());
+        //Copy the variables, functions, techniques and dependencies
+        super.copyContent(copy);
+        //Return the copy
+        return copy;
     }
 }
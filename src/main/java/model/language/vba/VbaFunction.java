@@ -16,6 +16,8 @@
  */
 package model.language.vba;
 
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import model.language.ClassConstants;
@@ -66,43 +68,90 @@ public class VbaFunction extends GenericFunction implements IFunction {
     }
 
     /**
-     * Builds the function in the form of a string
+     * Gets the function's type
      *
-     * @return the function in the form of a string
+     * @return the function's type (<code>Sub</code> or <code>Function</code>)
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets the function's return type
+     *
+     * @return the function's return type
+     */
+    public String getReturnType() {
+        return returnType;
+    }
+
+    /**
+     * Builds the function and writes it to the given output
+     *
+     * @param output the output to write the function to
+     * @throws IOException if the output cannot be written to
      */
     @Override
-    public String build() {
-        //Create a string builder object
-        StringBuilder function = new StringBuilder();
+    public void build(Appendable output) throws IOException {
         //Append the function type and name
-        function.append(type + ClassConstants.SPACE + super.getName() + ClassConstants.BRACKET_OPEN);
-        //Add all arguments
+        output.append(type).append(ClassConstants.SPACE).append(super.getName()).append(ClassConstants.BRACKET_OPEN);
+        //Add all arguments, where all but the first argument are preceded by a comma and a space
+        boolean first = true;
         for (Map.Entry<String, String> entry : super.getArguments().entrySet()) {
             String argumentName = entry.getKey();
             String argumentType = entry.getValue();
-            function.append(argumentType + ClassConstants.SPACE + argumentName + ClassConstants.COMMA + ClassConstants.SPACE);
-        }
-        //Remove the redundant comma and space from the last argument
-        int index = function.toString().lastIndexOf(ClassConstants.COMMA);
-        if (index != -1) {
-            function.delete(index, index + 2);
+            if (!first) {
+                output.append(ClassConstants.COMMA).append(ClassConstants.SPACE);
+            }
+            output.append(argumentType).append(ClassConstants.SPACE).append(argumentName);
+            first = false;
         }
         //Close the arguments bracket, add the return type, and add a new line
-        function.append(ClassConstants.BRACKET_CLOSE + ClassConstants.SPACE + returnType + ClassConstants.NEW_LINE);
-        //Add each line of the body with two tabs as indentation
-        for (String line : super.getBody().split("\n")) {
-            function.append("\t\t" + line + ClassConstants.NEW_LINE);
+        output.append(ClassConstants.BRACKET_CLOSE).append(ClassConstants.SPACE).append(returnType).append(ClassConstants.NEW_LINE);
+        //Add each line of the body with two tabs as indentation, without splitting the body into a new array
+        String body = super.getBody();
+        //Trailing empty lines are omitted, as is done when splitting the body on new lines
+        int end = body.length();
+        while (end > 0 && body.charAt(end - 1) == '\n') {
+            end--;
+        }
+        //An empty body results in a single empty line
+        if (body.isEmpty()) {
+            output.append("\t\t").append(ClassConstants.NEW_LINE);
+        }
+        int lineStart = 0;
+        while (lineStart < end) {
+            int lineEnd = body.indexOf('\n', lineStart);
+            if (lineEnd == -1 || lineEnd > end) {
+                lineEnd = end;
+            }
+            output.append("\t\t").append(body, lineStart, lineEnd).append(ClassConstants.NEW_LINE);
+            lineStart = lineEnd + 1;
         }
         //Append a tab, after which the type is added
-        function.append("\t");
+        output.append("\t");
         if (type.equalsIgnoreCase("sub")) {
-            function.append("End Sub");
+            output.append("End Sub");
         } else { //if its not a sub it is a function
-            function.append("End Function");
+            output.append("End Function");
         }
         //Add a new line
-        function.append(ClassConstants.NEW_LINE);
-        //Return the function in the form of a string
-        return function.toString();
+        output.append(ClassConstants.NEW_LINE);
+    }
+
+    /**
+     * Creates a copy of this function, including the type, the return type and
+     * a copy of the arguments and the dependencies
+     *
+     * @return a copy of this function
+     */
+    @Override
+    public IFunction copy() {
+        //Create a new function with the same (return) type and a copy of the arguments
+        IFunction copy = new VbaFunction(type, super.getName(), new HashMap<>(super.getArguments()), returnType, super.getBody());
+        //Copy the dependencies
+        copy.getDependencies().addAll(super.getDependencies());
+        //Return the copy
+        return copy;
     }
 }
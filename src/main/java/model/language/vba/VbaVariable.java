@@ -16,6 +16,7 @@
  */
 package model.language.vba;
 
+import java.io.IOException;
 import model.language.ClassConstants;
 import model.language.IVariable;
 import model.language.generic.GenericVariable;
@@ -43,14 +44,25 @@ public class VbaVariable extends GenericVariable implements IVariable {
     }
 
     /**
-     * Returns the variable in the form of a string
+     * Writes the variable to the given output
      *
-     * @return the variable in the form of a string
+     * @param output the output to write the variable to
+     * @throws IOException if the output cannot be written to
      */
     @Override
-    public String build() {
-        //Returns the variable in the form of "Const [name] = [body]"
-        return "Const" + ClassConstants.SPACE + super.getName() + ClassConstants.SET_EQUALS + super.getBody();
+    public void build(Appendable output) throws IOException {
+        //Writes the variable in the form of "Const [name] = [body]"
+        output.append("Const").append(ClassConstants.SPACE).append(super.getName()).append(ClassConstants.SET_EQUALS).append(super.getBody());
+    }
+
+    /**
+     * Creates a copy of this variable
+     *
+     * @return a copy of this variable
+     */
+    @Override
+    public IVariable copy() {
+        return new VbaVariable(super.getName(), super.getBody());
     }
 
 }
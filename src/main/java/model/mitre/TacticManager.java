@@ -17,28 +17,313 @@
 package model.mitre;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Within this class, all MITRE ATT&CK tactics are defined based upon
  * techniques. Each tactic contains a list of techniques, as well as the name of
  * the tactic.
  *
- * The MITRE ATT&CK Matrices from April 2019 is used in this class.
+ * The MITRE ATT&CK Matrices from April 2019 is used in this class. The tactics
+ * are created once, after which they are stored in immutable tables. These
+ * tables allow constant time lookups from a tactic to its techniques, and from
+ * a technique to its tactics.
  *
  * @author Max 'Libra' Kersten [@LibraAnalysis]
  */
 public class TacticManager {
 
+    /**
+     * All tactics, in the order of the MITRE ATT&CK matrix
+     */
+    private static final Map<TacticType, Tactic> TACTICS;
+
+    /**
+     * The techniques of each tactic
+     */
+    private static final Map<TacticType, Set<Technique>> TECHNIQUES_PER_TACTIC;
+
+    /**
+     * The tactics that each technique belongs to
+     */
+    private static final Map<Technique, Set<TacticType>> TACTICS_PER_TECHNIQUE;
+
+    /**
+     * The tactic types, where the key is the lower case name of the tactic
+     */
+    private static final Map<String, TacticType> TACTIC_TYPES_BY_NAME;
+
+    /**
+     * The MITRE ATT&CK mapping is created once, after which all lookups use
+     * the immutable tables
+     */
+    static {
+        Map<TacticType, Tactic> tactics = new EnumMap<>(TacticType.class);
+        tactics.put(TacticType.INITIAL_ACCESS, createInitialAccess());
+        tactics.put(TacticType.EXECUTION, createExecution());
+        tactics.put(TacticType.PERSISTENCE, createPersistence());
+        tactics.put(TacticType.PRIVILEGE_ESCALATION, createPrivilegeEscalation());
+        tactics.put(TacticType.DEFENSE_EVASION, createDefenseEvasion());
+        tactics.put(TacticType.CREDENTIAL_ACCESS, createCredentialAccess());
+        tactics.put(TacticType.DISCOVERY, createDiscovery());
+        tactics.put(TacticType.LATERAL_MOVEMENT, createLateralMovement());
+        tactics.put(TacticType.COLLECTION, createCollection());
+        tactics.put(TacticType.EXFILTRATION, createExfiltration());
+        tactics.put(TacticType.COMMAND_AND_CONTROL, createCommandAndControl());
+        tactics.put(TacticType.IMPACT, createImpact());
+
+        Map<TacticType, Set<Technique>> techniquesPerTactic = new EnumMap<>(TacticType.class);
+        Map<Technique, Set<TacticType>> tacticsPerTechnique = new EnumMap<>(Technique.class);
+        Map<String, TacticType> tacticTypesByName = new HashMap<>();
+        for (Map.Entry<TacticType, Tactic> entry : tactics.entrySet()) {
+            TacticType type = entry.getKey();
+            //Store the techniques of the tactic in a set, which is faster to query than the list
+            Set<Technique> techniques = EnumSet.noneOf(Technique.class);
+            techniques.addAll(entry.getValue().getTechniques());
+            techniquesPerTactic.put(type, Collections.unmodifiableSet(techniques));
+            //Link every technique to this tactic
+            for (Technique technique : techniques) {
+                Set<TacticType> types = tacticsPerTechnique.get(technique);
+                if (types == null) {
+                    types = EnumSet.noneOf(TacticType.class);
+                    tacticsPerTechnique.put(technique, types);
+                }
+                types.add(type);
+            }
+            tacticTypesByName.put(type.getName().toLowerCase(), type);
+        }
+        //Techniques that do not belong to any tactic are mapped to an empty set
+        for (Technique technique : Technique.values()) {
+            Set<TacticType> types = tacticsPerTechnique.get(technique);
+            tacticsPerTechnique.put(technique, Collections.unmodifiableSet(types == null ? EnumSet.noneOf(TacticType.class) : types));
+        }
+
+        TACTICS = Collections.unmodifiableMap(tactics);
+        TECHNIQUES_PER_TACTIC = Collections.unmodifiableMap(techniquesPerTactic);
+        TACTICS_PER_TECHNIQUE = Collections.unmodifiableMap(tacticsPerTechnique);
+        TACTIC_TYPES_BY_NAME = Collections.unmodifiableMap(tacticTypesByName);
+    }
+
+    /**
+     * Gets all tactics in the order of the MITRE ATT&CK matrix. The tactics
+     * are shared and cannot be altered
+     *
+     * @return all tactics
+     */
+    public static Collection<Tactic> getTactics() {
+        return TACTICS.values();
+    }
+
+    /**
+     * Gets the tactic of the given type
+     *
+     * @param type the type of the tactic
+     * @return the tactic, which is shared and cannot be altered
+     */
+    public static Tactic getTactic(TacticType type) {
+        return TACTICS.get(type);
+    }
+
+    /**
+     * Gets the tactic type that matches the given name (disregarding the
+     * casing)
+     *
+     * @param name the name of the tactic
+     * @return the tactic type, or null if no tactic matches the given name
+     */
+    public static TacticType getTacticType(String name) {
+        //A missing name never matches a tactic
+        if (name == null) {
+            return null;
+        }
+        return TACTIC_TYPES_BY_NAME.get(name.toLowerCase());
+    }
+
+    /**
+     * Gets the techniques that belong to the tactic of the given type
+     *
+     * @param type the type of the tactic
+     * @return a read-only set with the techniques of the tactic
+     */
+    public static Set<Technique> getTechniques(TacticType type) {
+        return TECHNIQUES_PER_TACTIC.get(type);
+    }
+
+    /**
+     * Gets the types of the tactics that the given technique belongs to
+     *
+     * @param technique the technique to get the tactics for
+     * @return a read-only set with the tactic types, which is empty if the
+     * technique does not belong to any tactic
+     */
+    public static Set<TacticType> getTacticTypes(Technique technique) {
+        return TACTICS_PER_TECHNIQUE.get(technique);
+    }
+
     /**
      * Gets the list of techniques that correspond with the
      * <code>Initial Access</code> tactic (see
      * https://attack.mitre.org/tactics/TA0001/)
      *
-     * @return the techniques corresponding with the <code>Intial Access</code>
+     * @return the shared techniques corresponding with the <code>Intial Access</code>
      * tactic and the name of the tactic in a <code>Tactic</code> object.
      */
     public static Tactic getInitialAccess() {
+        return TACTICS.get(TacticType.INITIAL_ACCESS);
+    }
+
+    /**
+     * Gets the list of techniques that correspond with the
+     * <code>Execution</code> tactic (see
+     * https://attack.mitre.org/tactics/TA0002/)
+     *
+     * @return the shared techniques corresponding with the <code>Execution</code>
+     * tactic and the name of the tactic in a <code>Tactic</code> object.
+     */
+    public static Tactic getExecution() {
+        return TACTICS.get(TacticType.EXECUTION);
+    }
+
+    /**
+     * Gets the list of techniques that correspond with the
+     * <code>Persistance</code> tactic (see
+     * https://attack.mitre.org/tactics/TA0003/)
+     *
+     * @return the shared techniques corresponding with the <code>Persistance</code>
+     * tactic and the name of the tactic in a <code>Tactic</code> object.
+     */
+    public static Tactic getPersistence() {
+        return TACTICS.get(TacticType.PERSISTENCE);
+    }
+
+    /**
+     * Gets the list of techniques that correspond with the
+     * <code>Privilege Escalation</code> tactic (see
+     * https://attack.mitre.org/tactics/TA0004/)
+     *
+     * @return the shared techniques corresponding with the
+     * <code>Privilege Escalation</code> tactic and the name of the tactic in a
+     * <code>Tactic</code> object.
+     */
+    public static Tactic getPrivilegeEscalation() {
+        return TACTICS.get(TacticType.PRIVILEGE_ESCALATION);
+    }
+
+    /**
+     * Gets the list of techniques that correspond with the
+     * <code>Defense Evasion</code> tactic (see
+     * https://attack.mitre.org/tactics/TA0005/)
+     *
+     * @return the shared techniques corresponding with the
+     * <code>Defense Evasion</code> tactic and the name of the tactic in a
+     * <code>Tactic</code> object.
+     */
+    public static Tactic getDefenseEvasion() {
+        return TACTICS.get(TacticType.DEFENSE_EVASION);
+    }
+
+    /**
+     * Gets the list of techniques that correspond with the
+     * <code>Credential Access</code> tactic (see
+     * https://attack.mitre.org/tactics/TA0006/)
+     *
+     * @return the shared techniques corresponding with the
+     * <code>Credential Access</code> tactic and the name of the tactic in a
+     * <code>Tactic</code> object.
+     */
+    public static Tactic getCredentialAccess() {
+        return TACTICS.get(TacticType.CREDENTIAL_ACCESS);
+    }
+
+    /**
+     * Gets the list of techniques that correspond with the
+     * <code>Discovery</code> tactic (see
+     * https://attack.mitre.org/tactics/TA0007/)
+     *
+     * @return the shared techniques corresponding with the <code>Discovery</code>
+     * tactic and the name of the tactic in a <code>Tactic</code> object.
+     */
+    public static Tactic getDiscovery() {
+        return TACTICS.get(TacticType.DISCOVERY);
+    }
+
+    /**
+     * Gets the list of techniques that correspond with the
+     * <code>Lateral Movement</code> tactic (see
+     * https://attack.mitre.org/tactics/TA0008/)
+     *
+     * @return the shared techniques corresponding with the
+     * <code>Lateral Movement</code> tactic and the name of the tactic in a
+     * <code>Tactic</code> object.
+     */
+    public static Tactic getLateralMovement() {
+        return TACTICS.get(TacticType.LATERAL_MOVEMENT);
+    }
+
+    /**
+     * Gets the list of techniques that correspond with the
+     * <code>Collection</code> tactic (see
+     * https://attack.mitre.org/tactics/TA0009/)
+     *
+     * @return the shared techniques corresponding with the <code>Collection</code>
+     * tactic and the name of the tactic in a <code>Tactic</code> object.
+     */
+    public static Tactic getCollection() {
+        return TACTICS.get(TacticType.COLLECTION);
+    }
+
+    /**
+     * Gets the list of techniques that correspond with the
+     * <code>Exfiltration</code> tactic (see
+     * https://attack.mitre.org/tactics/TA0010/)
+     *
+     * @return the shared techniques corresponding with the <code>Exfiltration</code>
+     * tactic and the name of the tactic in a <code>Tactic</code> object.
+     */
+    public static Tactic getExfiltration() {
+        return TACTICS.get(TacticType.EXFILTRATION);
+    }
+
+    /**
+     * Gets the list of techniques that correspond with the
+     * <code>Command & Control</code> tactic (see
+     * https://attack.mitre.org/tactics/TA0011/)
+     *
+     * @return the shared techniques corresponding with the
+     * <code>Command & Control</code> tactic and the name of the tactic in a
+     * <code>Tactic</code> object.
+     */
+    public static Tactic getCommandAndControl() {
+        return TACTICS.get(TacticType.COMMAND_AND_CONTROL);
+    }
+
+    /**
+     * Gets the list of techniques that correspond with the <code>Impact</code>
+     * tactic (see https://attack.mitre.org/tactics/TA0040/)
+     *
+     * @return the shared techniques corresponding with the <code>Impact</code> tactic
+     * and the name of the tactic in a <code>Tactic</code> object.
+     */
+    public static Tactic getImpact() {
+        return TACTICS.get(TacticType.IMPACT);
+    }
+
+    /**
+     * Creates the list of techniques that correspond with the
+     * <code>Initial Access</code> tactic (see
+     * https://attack.mitre.org/tactics/TA0001/)
+     *
+     * @return the techniques corresponding with the <code>Intial Access</code>
+     * tactic and the name of the tactic in a <code>Tactic</code> object.
+     */
+    private static Tactic createInitialAccess() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.DriveByCompromise);
         techniques.add(Technique.ExternalRemoteServices);
@@ -52,19 +337,19 @@ public class TacticManager {
         techniques.add(Technique.TrustedReleationship);
         techniques.add(Technique.ValidAccounts);
 
-        String name = "InitialAccess";
-        return new Tactic(name, techniques);
+        String name = TacticType.INITIAL_ACCESS.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 
     /**
-     * Gets the list of techniques that correspond with the
+     * Creates the list of techniques that correspond with the
      * <code>Execution</code> tactic (see
      * https://attack.mitre.org/tactics/TA0002/)
      *
      * @return the techniques corresponding with the <code>Execution</code>
      * tactic and the name of the tactic in a <code>Tactic</code> object.
      */
-    public static Tactic getExecution() {
+    private static Tactic createExecution() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.AppleScript);
         techniques.add(Technique.CMSTP);
@@ -99,19 +384,19 @@ public class TacticManager {
         techniques.add(Technique.WindowsRemoteManagement);
         techniques.add(Technique.XlsScriptProcessing);
 
-        String name = "Execution";
-        return new Tactic(name, techniques);
+        String name = TacticType.EXECUTION.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 
     /**
-     * Gets the list of techniques that correspond with the
+     * Creates the list of techniques that correspond with the
      * <code>Persistance</code> tactic (see
      * https://attack.mitre.org/tactics/TA0003/)
      *
      * @return the techniques corresponding with the <code>Persistance</code>
      * tactic and the name of the tactic in a <code>Tactic</code> object.
      */
-    public static Tactic getPersistence() {
+    private static Tactic createPersistence() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.BashProfile);
         techniques.add(Technique.Bashrc);
@@ -179,12 +464,12 @@ public class TacticManager {
         techniques.add(Technique.WindowsManagementInstrumentationEventSubscription);
         techniques.add(Technique.WinlogonHelperDll);
 
-        String name = "Persistance";
-        return new Tactic(name, techniques);
+        String name = TacticType.PERSISTENCE.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 
     /**
-     * Gets the list of techniques that correspond with the
+     * Creates the list of techniques that correspond with the
      * <code>Privilege Escalation</code> tactic (see
      * https://attack.mitre.org/tactics/TA0004/)
      *
@@ -192,7 +477,7 @@ public class TacticManager {
      * <code>Privilege Escalation</code> tactic and the name of the tactic in a
      * <code>Tactic</code> object.
      */
-    public static Tactic getPrivilegeEscalation() {
+    private static Tactic createPrivilegeEscalation() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.AccessTokenManipulation);
         techniques.add(Technique.AccessibilityFeatures);
@@ -227,12 +512,12 @@ public class TacticManager {
         techniques.add(Technique.ValidAccounts);
         techniques.add(Technique.WebShell);
 
-        String name = "PrivilegeEscalation";
-        return new Tactic(name, techniques);
+        String name = TacticType.PRIVILEGE_ESCALATION.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 
     /**
-     * Gets the list of techniques that correspond with the
+     * Creates the list of techniques that correspond with the
      * <code>Defense Evasion</code> tactic (see
      * https://attack.mitre.org/tactics/TA0005/)
      *
@@ -240,7 +525,7 @@ public class TacticManager {
      * <code>Defense Evasion</code> tactic and the name of the tactic in a
      * <code>Tactic</code> object.
      */
-    public static Tactic getDefenseEvasion() {
+    private static Tactic createDefenseEvasion() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.ApplicationAccessToken);
         techniques.add(Technique.AccessTokenManipulation);
@@ -315,12 +600,12 @@ public class TacticManager {
         techniques.add(Technique.WebSessionCookie);
         techniques.add(Technique.XslScriptProcessing);
 
-        String name = "DefenseEvasion";
-        return new Tactic(name, techniques);
+        String name = TacticType.DEFENSE_EVASION.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 
     /**
-     * Gets the list of techniques that correspond with the
+     * Creates the list of techniques that correspond with the
      * <code>Credential Access</code> tactic (see
      * https://attack.mitre.org/tactics/TA0006/)
      *
@@ -328,7 +613,7 @@ public class TacticManager {
      * <code>Credential Access</code> tactic and the name of the tactic in a
      * <code>Tactic</code> object.
      */
-    public static Tactic getCredentialAccess() {
+    private static Tactic createCredentialAccess() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.AccountManipulation);
         techniques.add(Technique.BashHistory);
@@ -354,19 +639,19 @@ public class TacticManager {
         techniques.add(Technique.StealWebSessionCookie);
         techniques.add(Technique.TwoFactorAuthenticationInterception);
 
-        String name = "CredentialAccess";
-        return new Tactic(name, techniques);
+        String name = TacticType.CREDENTIAL_ACCESS.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 
     /**
-     * Gets the list of techniques that correspond with the
+     * Creates the list of techniques that correspond with the
      * <code>Discovery</code> tactic (see
      * https://attack.mitre.org/tactics/TA0007/)
      *
      * @return the techniques corresponding with the <code>Discovery</code>
      * tactic and the name of the tactic in a <code>Tactic</code> object.
      */
-    public static Tactic getDiscovery() {
+    private static Tactic createDiscovery() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.AccountDiscovery);
         techniques.add(Technique.ApplicationWindowDiscovey);
@@ -394,12 +679,12 @@ public class TacticManager {
         techniques.add(Technique.SystemTimeDiscovery);
         techniques.add(Technique.VirtualisationAndSandboxEvasion);
 
-        String name = "Discovery";
-        return new Tactic(name, techniques);
+        String name = TacticType.DISCOVERY.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 
     /**
-     * Gets the list of techniques that correspond with the
+     * Creates the list of techniques that correspond with the
      * <code>Lateral Movement</code> tactic (see
      * https://attack.mitre.org/tactics/TA0008/)
      *
@@ -407,7 +692,7 @@ public class TacticManager {
      * <code>Lateral Movement</code> tactic and the name of the tactic in a
      * <code>Tactic</code> object.
      */
-    public static Tactic getLateralMovement() {
+    private static Tactic createLateralMovement() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.AppleScript);
         techniques.add(Technique.ApplicationAccessToken);
@@ -430,19 +715,19 @@ public class TacticManager {
         techniques.add(Technique.WindowsAdminShares);
         techniques.add(Technique.WindowsRemoteManagement);
 
-        String name = "LateralMovement";
-        return new Tactic(name, techniques);
+        String name = TacticType.LATERAL_MOVEMENT.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 
     /**
-     * Gets the list of techniques that correspond with the
+     * Creates the list of techniques that correspond with the
      * <code>Collection</code> tactic (see
      * https://attack.mitre.org/tactics/TA0009/)
      *
      * @return the techniques corresponding with the <code>Collection</code>
      * tactic and the name of the tactic in a <code>Tactic</code> object.
      */
-    public static Tactic getCollection() {
+    private static Tactic createCollection() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.AudioCapture);
         techniques.add(Technique.AutomatedCollection);
@@ -459,19 +744,19 @@ public class TacticManager {
         techniques.add(Technique.ScreenCapture);
         techniques.add(Technique.VideoCapture);
 
-        String name = "Collection";
-        return new Tactic(name, techniques);
+        String name = TacticType.COLLECTION.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 
     /**
-     * Gets the list of techniques that correspond with the
+     * Creates the list of techniques that correspond with the
      * <code>Exfiltration</code> tactic (see
      * https://attack.mitre.org/tactics/TA0010/)
      *
      * @return the techniques corresponding with the <code>Exfiltration</code>
      * tactic and the name of the tactic in a <code>Tactic</code> object.
      */
-    public static Tactic getExfiltration() {
+    private static Tactic createExfiltration() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.AutomatedExfiltration);
         techniques.add(Technique.DataCompressed);
@@ -484,12 +769,12 @@ public class TacticManager {
         techniques.add(Technique.ScheduledTransfer);
         techniques.add(Technique.TransferDataToCloudAccount);
 
-        String name = "Exfiltration";
-        return new Tactic(name, techniques);
+        String name = TacticType.EXFILTRATION.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 
     /**
-     * Gets the list of techniques that correspond with the
+     * Creates the list of techniques that correspond with the
      * <code>Command & Control</code> tactic (see
      * https://attack.mitre.org/tactics/TA0011/)
      *
@@ -497,7 +782,7 @@ public class TacticManager {
      * <code>Command & Control</code> tactic and the name of the tactic in a
      * <code>Tactic</code> object.
      */
-    public static Tactic getCommandAndControl() {
+    private static Tactic createCommandAndControl() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.CommonlyUsedPort);
         techniques.add(Technique.CommunicationThroughRemovableMedia);
@@ -522,18 +807,18 @@ public class TacticManager {
         techniques.add(Technique.UncommonlyUsedPort);
         techniques.add(Technique.WebService);
 
-        String name = "CommandAndControl";
-        return new Tactic(name, techniques);
+        String name = TacticType.COMMAND_AND_CONTROL.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 
     /**
-     * Gets the list of techniques that correspond with the <code>Impact</code>
+     * Creates the list of techniques that correspond with the <code>Impact</code>
      * tactic (see https://attack.mitre.org/tactics/TA0040/)
      *
      * @return the techniques corresponding with the <code>Impact</code> tactic
      * and the name of the tactic in a <code>Tactic</code> object.
      */
-    public static Tactic getImpact() {
+    private static Tactic createImpact() {
         List<Technique> techniques = new ArrayList<>();
         techniques.add(Technique.AccountAccessRemoval);
         techniques.add(Technique.DataDestruction);
@@ -552,7 +837,7 @@ public class TacticManager {
         techniques.add(Technique.SystemShutdownOrReboot);
         techniques.add(Technique.TransmittedDataManipulation);
 
-        String name = "Impact";
-        return new Tactic(name, techniques);
+        String name = TacticType.IMPACT.getName();
+        return new Tactic(name, Collections.unmodifiableList(techniques));
     }
 }
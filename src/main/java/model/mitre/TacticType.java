@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.mitre;
+
+/**
+ * Within this enumeration, all MITRE ATT&CK tactics are listed, in the order in
+ * which they are shown in the matrix. Each tactic has a name, which is used
+ * when the tactic is returned or searched for.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public enum TacticType {
+    INITIAL_ACCESS("InitialAccess"),
+    EXECUTION("Execution"),
+    PERSISTENCE("Persistance"),
+    PRIVILEGE_ESCALATION("PrivilegeEscalation"),
+    DEFENSE_EVASION("DefenseEvasion"),
+    CREDENTIAL_ACCESS("CredentialAccess"),
+    DISCOVERY("Discovery"),
+    LATERAL_MOVEMENT("LateralMovement"),
+    COLLECTION("Collection"),
+    EXFILTRATION("Exfiltration"),
+    COMMAND_AND_CONTROL("CommandAndControl"),
+    IMPACT("Impact");
+
+    /**
+     * The name of the tactic
+     */
+    private final String name;
+
+    /**
+     * Creates a tactic type with the given name
+     *
+     * @param name the name of the tactic
+     */
+    private TacticType(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the tactic
+     *
+     * @return the tactic's name
+     */
+    public String getName() {
+        return name;
+    }
+}
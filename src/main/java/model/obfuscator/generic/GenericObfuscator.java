@@ -16,9 +16,13 @@
  */
 package model.obfuscator.generic;
 
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import model.language.IClass;
 import model.language.IFunction;
+import model.language.IVariable;
+import model.obfuscator.generic.magicsquare.MagicSquare;
 
 /**
  * This class contains functions that are language agnostic. Implementing a
@@ -52,19 +56,46 @@ public abstract class GenericObfuscator {
     private GenericObfuscatorTechniques obfuscatorTechniques;
 
     /**
-     * Creates a new GenericObfuscator object, which instantiates four objects:
+     * The allocator that hands out unique identifiers during this build
+     */
+    private IdentifierAllocator identifierAllocator;
+
+    /**
+     * The magic square functions that have been added to a class, mapped by
+     * the size of the square. The classes are compared by reference
+     */
+    private Map<IClass, Map<Integer, IFunction>> magicSquareFunctions;
+
+    /**
+     * True if all characters that use a magic square of the same size share a
+     * single function within a class, false if every character gets its own
+     * function
+     */
+    private boolean shareMagicSquareFunctions;
+
+    /**
+     * Creates a new GenericObfuscator object, which instantiates five objects:
      * a generic string obfuscator, a generic integer obfuscator, a generic
-     * control flow obfuscator, and a generic obfuscator technique generator
+     * control flow obfuscator, a generic obfuscator technique generator, and an
+     * identifier allocator
+     *
+     * @param lexer the language specific lexer that is used to find string
+     * literals
      */
-    public GenericObfuscator() {
+    public GenericObfuscator(ILiteralLexer lexer) {
         //Instantiate the generic string obfuscator object
-        stringObfuscator = new GenericStringObfuscator();
+        stringObfuscator = new GenericStringObfuscator(lexer);
         //Instantiate the generic integer obfuscator object
         integerObfuscator = new GenericIntegerObfuscator();
         //Instantiate the generic control flow obfuscator object
         controlFlowObfuscator = new GenericControlFlowObfuscator();
         //Instantiate the generic obfuscator techniques object
         obfuscatorTechniques = new GenericObfuscatorTechniques();
+        //Instantiate the identifier allocator object
+        identifierAllocator = new IdentifierAllocator();
+        //Magic square functions are shared by default, as every character has its own offset
+        magicSquareFunctions = new IdentityHashMap<>();
+        shareMagicSquareFunctions = true;
     }
 
     /**
@@ -104,35 +135,78 @@ public abstract class GenericObfuscator {
     }
 
     /**
-     * Replaces the key of the given mapping with the value of the given mapping
-     * in the given <code>IClass</code> object. Only the functions of the
-     * <code>IClass</code> object are iterated, since this is part of the
-     * generic class. Additional properties need to be iterated in the language
-     * specific class.
+     * Gets the identifier allocator, which hands out unique names for
+     * variables, functions and dead code during this build
+     *
+     * @return the identifier allocator object
+     */
+    public IdentifierAllocator getIdentifierAllocator() {
+        return identifierAllocator;
+    }
+
+    /**
+     * Sets whether magic square functions are shared within a class. If they
+     * are, at most one function per square size is added to a class, and each
+     * character is obtained by adding its own offset to the value of that
+     * function. If they are not, a new function is added for every character.
      *
-     * @param classObject the class to iterate
-     * @param mapping the mapping to use during the iteration
-     * @return the altered
-     */
-    public IClass remapFunctions(IClass classObject, Map<String, String> mapping) {
-        //Iterate through the mapping
-        for (Map.Entry<String, String> entry : mapping.entrySet()) {
-            //Get the old name, which is the key in the mapping
-            String oldName = entry.getKey();
-            //Get the new name, which is the value in the mapping
-            String newName = entry.getValue();
-
-            //Iterate through all functions
-            for (IFunction function : classObject.getFunctions()) {
-                //Get the body
-                String body = function.getBody();
-                //Replace all occurences of the old name with the new name
-                body = body.replace(oldName, newName);
-                //Set the new body
-                function.setBody(body);
-            }
+     * @param shareMagicSquareFunctions true to share the functions, false to
+     * create a function for every character
+     */
+    public void setShareMagicSquareFunctions(boolean shareMagicSquareFunctions) {
+        this.shareMagicSquareFunctions = shareMagicSquareFunctions;
+    }
+
+    /**
+     * Gets the function for the given magic square within the given class. A
+     * new function is only created (and added to the class) if there is no
+     * function for a square of the same size yet, or if the functions are not
+     * shared.
+     *
+     * @param classObject the class to which the function belongs
+     * @param magicSquare the magic square that the function returns the value
+     * of
+     * @param generator the language specific generator of the function
+     * @return the function that returns the value of the given magic square
+     */
+    public IFunction getMagicSquareFunction(IClass classObject, MagicSquare magicSquare, IMagicSquareFunctionGenerator generator) {
+        //Without sharing, every call results in a new function
+        if (!shareMagicSquareFunctions) {
+            IFunction function = generator.generateMagicSquareFunction(magicSquare);
+            classObject.addFunction(function);
+            return function;
+        }
+        //Get the functions that are already present in the class
+        Map<Integer, IFunction> functions = magicSquareFunctions.get(classObject);
+        if (functions == null) {
+            functions = new HashMap<>();
+            magicSquareFunctions.put(classObject, functions);
+        }
+        //Only create and add the function for this size once
+        IFunction function = functions.get(magicSquare.getSquareSize());
+        if (function == null) {
+            function = generator.generateMagicSquareFunction(magicSquare);
+            classObject.addFunction(function);
+            functions.put(magicSquare.getSquareSize(), function);
+        }
+        return function;
+    }
+
+    /**
+     * Reserves the names of all functions and variables within the given
+     * <code>IClass</code> object, which ensures that the identifier allocator
+     * does not hand out a name that is already in use
+     *
+     * @param classObject the class whose names should be reserved
+     */
+    public void reserveIdentifiers(IClass classObject) {
+        //Reserve the name of every function
+        for (IFunction function : classObject.getFunctions()) {
+            identifierAllocator.reserve(function.getName());
+        }
+        //Reserve the name of every variable
+        for (IVariable variable : classObject.getVariables()) {
+            identifierAllocator.reserve(variable.getName());
         }
-        //Return the class object with changes (if any)
-        return classObject;
     }
 }
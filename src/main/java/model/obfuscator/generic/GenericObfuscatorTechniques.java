@@ -16,6 +16,7 @@
  */
 package model.obfuscator.generic;
 
+import java.security.SecureRandom;
 import model.obfuscator.generic.magicsquare.MagicSquare;
 import model.obfuscator.generic.magicsquare.MagicSquareGenerator;
 import model.obfuscator.generic.polynomial.Polynomial;
@@ -39,6 +40,11 @@ public class GenericObfuscatorTechniques {
 
     private PolynomialGenerator polynomialGenerator;
 
+    /**
+     * The random object that is used to pick the size of a magic square
+     */
+    private SecureRandom random;
+
     /**
      * Creates an object that contains all embedded techniques, which can then
      * be generated using one of the listed generators
@@ -48,7 +54,8 @@ public class GenericObfuscatorTechniques {
         magicSquareGenerator = new MagicSquareGenerator();
         //Instantiate a polynomial generator object
         polynomialGenerator = new PolynomialGenerator();
-
+        //Instantiate the random object once, rather than once per magic square
+        random = new SecureRandom();
     }
 
     /**
@@ -62,6 +69,17 @@ public class GenericObfuscatorTechniques {
         return magicSquareGenerator.generate(size);
     }
 
+    /**
+     * Gets a magic square with a random size between 1 and 11, all of which
+     * are precomputed
+     *
+     * @return a magic square with a random size
+     */
+    public MagicSquare getRandomMagicSquare() {
+        //Since the upper bound is exclusive and 0 is a potential outcome, the size is increased by one
+        return magicSquareGenerator.generate(random.nextInt(10) + 1);
+    }
+
     /**
      * Get a polynomial object
      *
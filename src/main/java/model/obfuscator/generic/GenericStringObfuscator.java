@@ -20,10 +20,11 @@ import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Base64.Encoder;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Scanner;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
 import model.language.ClassConstants;
 import model.language.IClass;
 import model.language.IFunction;
@@ -44,61 +45,85 @@ public class GenericStringObfuscator {
      */
     private Encoder encoder;
 
+    /**
+     * The random object that is used within this string obfuscator
+     */
+    private SecureRandom random;
+
+    /**
+     * The language specific lexer that is used to find string literals
+     */
+    private ILiteralLexer lexer;
+
+    /**
+     * The literals of the bodies that have been tokenized, but not yet
+     * rewritten. The bodies are compared by reference, as a body that has been
+     * altered is a new string object. This avoids tokenizing the same body
+     * twice when the strings are first collected and then replaced.
+     */
+    private Map<String, List<StringLiteral>> literalCache;
+
     /**
      * Creates an instance of this object. The purpose of this class is to
      * obfuscate strings based on one or more provided <code>IClass</code>
      * objects.
+     *
+     * @param lexer the language specific lexer that is used to find string
+     * literals
      */
-    public GenericStringObfuscator() {
+    public GenericStringObfuscator(ILiteralLexer lexer) {
         encoder = Base64.getEncoder();
+        random = new SecureRandom();
+        this.lexer = lexer;
+        literalCache = new IdentityHashMap<>();
     }
 
     /**
-     * Insert garbage code in every function
+     * Insert garbage code in every function. The garbage code is generated on
+     * demand, meaning that only the lines that are inserted are generated.
      *
      * @param classObject the class to insert the code in
-     * @param loc the lines of code (loc) that are possibly added
+     * @param generator the language specific generator of the lines of code
+     * that are possibly added
      * @param amount the amount of additions that should be done if an insertion
      * is done
      * @return the modified <code>IClass</code> object
      */
-    public IClass insertCode(IClass classObject, List<String> loc, int amount) {
-        //TODO avoid sending a LOC list, as this can be generated in this class(?)
-        //Creates a secure random object
-        SecureRandom random = new SecureRandom();
+    public IClass insertCode(IClass classObject, IDeadCodeGenerator generator, int amount) {
         //Iterates through all functions within the given class object
         for (IFunction function : classObject.getFunctions()) {
-            //Initiate the new body as an empty string, to which new lines are appended
-            String newBody = "";
-            //The boolean which decides if code is inserted at a given point
-            boolean insertLine;
-            //The scanner reads the whole function body
-            Scanner scanner = new Scanner(function.getBody());
-            //Iterate through each line 
-            while (scanner.hasNextLine()) {
-                //Get a single line
-                String line = scanner.nextLine();
+            String body = function.getBody();
+            //The new body is at least as big as the old body, and roughly twice as big once dead code is added
+            StringBuilder newBody = new StringBuilder(body.length() * 2);
+            //The start of the current line
+            int lineStart = 0;
+            //Iterate through each line, without copying the body
+            while (lineStart < body.length()) {
+                //Get the end of the line, which is either the next newline character or the end of the body
+                int lineEnd = body.indexOf('\n', lineStart);
+                int nextLineStart = lineEnd + 1;
+                if (lineEnd == -1) {
+                    lineEnd = body.length();
+                    nextLineStart = lineEnd;
+                }
+                //Windows line endings are replaced with a single newline character
+                int contentEnd = lineEnd;
+                if (contentEnd > lineStart && body.charAt(contentEnd - 1) == '\r') {
+                    contentEnd--;
+                }
                 //Loop as many lines of code as amount is in size
                 for (int i = 0; i < amount; i++) {
-                    //Set the insert line boolean to either true or false (making the addition of a line roughly 50% of the size of amount, but not always the same
-                    insertLine = random.nextBoolean();
-                    //If the boolean is true and the provided list is not empty, a new line of code is added to the function's body
-                    if (insertLine && loc.size() > 0) {
-                        //Get a random index
-                        int randomIndex = random.nextInt(loc.size());
-                        //Add the random line of code at the random index to the body of the function
-                        newBody += loc.get(randomIndex);
-                        //Remove the entry at the given index to avoid reusing it
-                        loc.remove(randomIndex);
+                    //Insert a line roughly 50% of the time, making the addition roughly 50% of the size of amount, but not always the same
+                    if (random.nextBoolean()) {
+                        newBody.append(generator.generateDeadCode());
                     }
                 }
-                //Add a newline character, since it is removed by the scanner
-                newBody += line + "\n";
+                //Add the line, followed by a newline character
+                newBody.append(body, lineStart, contentEnd).append('\n');
+                lineStart = nextLineStart;
             }
-            //Close the scanner object
-            scanner.close();
             //Set the new body in the function
-            function.setBody(newBody);
+            function.setBody(newBody.toString());
         }
         //Return the changed class object
         return classObject;
@@ -143,32 +168,27 @@ public class GenericStringObfuscator {
     /**
      * Generates a list of random strings, which are unique within the given
      * list. This function can be used to create strings for variable names,
-     * since all names are unique, no duplicates can occur.
+     * since all names are unique, no duplicates can occur. To avoid collisions
+     * with other names in the same build, use the
+     * <code>IdentifierAllocator</code> instead.
      *
      * @param amount the amount of random strings
      * @return the list of random strings, where the size of the list equals
      * <code>amount</code>.
      */
     public List<String> generateRandomStrings(int amount) {
-        //Create an array list to store the output in
-        List<String> output = new ArrayList<>();
         //Check if the amount is less than zero, if so: return the empty list
         if (amount < 0) {
-            return output;
+            return new ArrayList<>();
         }
-        //Iterate as many times as requested
-        for (int i = 0; i < amount; i++) {
-            //Create a random string
-            String randomString = generateRandomString(20);
-            //If the string is already present in the list, decrease i with one, causing the next loop to try again
-            if (output.contains(randomString)) {
-                i--;
-            } else { //if the string is not present, add it to the output list
-                output.add(randomString);
-            }
+        //Store the strings in a set, which makes the check for duplicates a constant time operation
+        Set<String> output = new LinkedHashSet<>();
+        //Loop until the requested amount of unique strings has been generated
+        while (output.size() < amount) {
+            output.add(generateRandomString(20));
         }
         //Return the output
-        return output;
+        return new ArrayList<>(output);
     }
 
     /**
@@ -183,31 +203,26 @@ public class GenericStringObfuscator {
      * to the value of <code>lengthIndication</code> plus 10.
      */
     public String generateRandomString(int lengthIndication) {
+        //Create the dictionary variable
+        String dictionary = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
         /**
-         * Ensure that no negative value is used. If this is the case, simply
-         * set the value to zero, since the additional 10 random characters that
-         * are generated will suffice in this case
+         * Get the length, with 10 as a minimum value. If the length indication
+         * is zero or less, the additional 10 random characters that are
+         * generated will suffice
          */
-        if (lengthIndication < 0) {
-            lengthIndication = 0;
+        int length = 10;
+        if (lengthIndication > 0) {
+            length += random.nextInt(lengthIndication);
         }
-        //Create the dictionary variable
-        String dictionary = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
-        //Create the output variable
-        String output = "";
-        //Create a new secure random object
-        SecureRandom random = new SecureRandom();
-        //Get the length, with 10 as a minimum value
-        int length = random.nextInt(lengthIndication) + 10;
+        //Create the output buffer
+        char[] output = new char[length];
         //Iterate for the given length
         for (int i = 0; i < length; i++) {
-            //Get a random value that is within the bounds of the given dictionary
-            int randomValue = random.nextInt(dictionary.length());
-            //Append the character from the dictionary to the output
-            output += dictionary.substring(randomValue, randomValue + 1);
+            //Get a random character that is within the bounds of the given dictionary
+            output[i] = dictionary.charAt(random.nextInt(dictionary.length()));
         }
         //Return the output
-        return output;
+        return new String(output);
     }
 
     /**
@@ -221,9 +236,40 @@ public class GenericStringObfuscator {
     }
 
     /**
-     * Get the strings from a given string. The string matches this regular
-     * expression <code>([\s\S]*?)</code> between the provided
-     * <code>enclosing</code> strings.
+     * Escapes the given value, so it can be placed between the given enclosing
+     * in the language of this obfuscator
+     *
+     * @param value the value to escape
+     * @param enclosing the enclosing in which the value is placed
+     * @return the escaped value
+     */
+    public String escape(String value, String enclosing) {
+        return lexer.escape(value, enclosing);
+    }
+
+    /**
+     * Gets the string literals from the given body, using the language
+     * specific lexer
+     *
+     * @param body the body to tokenize
+     * @return all string literals in the body
+     */
+    public List<StringLiteral> getLiterals(String body) {
+        //Check if the body has been tokenized before
+        List<StringLiteral> literals = literalCache.get(body);
+        if (literals == null) {
+            literals = lexer.getLiterals(body);
+            literalCache.put(body, literals);
+        }
+        return literals;
+    }
+
+    /**
+     * Get the strings from a given string. The body is tokenized based on the
+     * quoting and escaping rules of the language, after which the value of
+     * each string literal that is enclosed by the provided
+     * <code>enclosing</code> is returned. Escape sequences within the value
+     * are resolved.
      *
      * @param enclosing the encoding of a string, which is commonly done with
      * the use of <code>"</code> or <code>'</code>
@@ -233,18 +279,12 @@ public class GenericStringObfuscator {
     public List<String> getStrings(String enclosing, String body) {
         //Create a list that contains all matches
         List<String> matches = new ArrayList<>();
-        //Use lazy/ungreedy flag to be able to find more than one string on a single line
-        Pattern pattern = Pattern.compile(enclosing + "([\\s\\S]*?)" + enclosing);
-        //Match the pattern on the given body
-        Matcher matcher = pattern.matcher(body);
-        //Iterate through all matches
-        while (matcher.find()) {
-            //Get the match
-            String rawMatch = matcher.group();
-            //Remove the quotes around it
-            String match = rawMatch.substring(1, rawMatch.length() - 1);
-            //Add the match
-            matches.add(match);
+        //Iterate through all literals in the body
+        for (StringLiteral literal : getLiterals(body)) {
+            //Only literals with the given enclosing are matched
+            if (literal.getEnclosing().equals(enclosing)) {
+                matches.add(literal.getValue());
+            }
         }
         //Return all matches
         return matches;
@@ -274,4 +314,71 @@ public class GenericStringObfuscator {
         //Return all strings
         return strings;
     }
+
+    /**
+     * Replaces the string literals in the given body that are enclosed by the
+     * provided <code>enclosing</code>. If the value of a literal is a key in
+     * the given mapping, the complete literal (including the enclosing) is
+     * replaced by the mapped value. The literals are rewritten based on their
+     * offsets, meaning that the body is not searched again.
+     *
+     * @param enclosing the enclosing of the literals to replace
+     * @param body the body to replace the literals in
+     * @param mapping the value of a literal as key, and the replacement as
+     * value
+     * @return the altered body
+     */
+    public String replaceStrings(String enclosing, String body, Map<String, String> mapping) {
+        //Get the literals, which are removed from the cache as the body is about to change
+        List<StringLiteral> literals = literalCache.remove(body);
+        if (literals == null) {
+            literals = lexer.getLiterals(body);
+        }
+        //If there is nothing to replace, the body is returned as is
+        if (literals.isEmpty() || mapping.isEmpty()) {
+            return body;
+        }
+        StringBuilder output = new StringBuilder(body.length());
+        //The index up to which the body has been written to the output
+        int written = 0;
+        for (StringLiteral literal : literals) {
+            //Skip literals with a different enclosing
+            if (!literal.getEnclosing().equals(enclosing)) {
+                continue;
+            }
+            String replacement = mapping.get(literal.getValue());
+            //Skip literals that are not mapped
+            if (replacement == null) {
+                continue;
+            }
+            //Write the code before the literal, followed by the replacement
+            output.append(body, written, literal.getStart());
+            output.append(replacement);
+            written = literal.getEnd();
+        }
+        //Write the remainder of the body
+        output.append(body, written, body.length());
+        return output.toString();
+    }
+
+    /**
+     * Replaces the string literals in all functions within the
+     * <code>IClass</code> object, as is described in
+     * <code>replaceStrings</code>
+     *
+     * @param iClass the class whose functions need to be iterated
+     * @param enclosing the enclosing of the literals to replace
+     * @param mapping the value of a literal as key, and the replacement as
+     * value
+     * @return the altered class object
+     */
+    public IClass replaceStrings(IClass iClass, String enclosing, Map<String, String> mapping) {
+        //Iterate through all functions
+        for (IFunction function : iClass.getFunctions()) {
+            //Replace the strings in the function's body
+            function.setBody(replaceStrings(enclosing, function.getBody(), mapping));
+        }
+        //Return the altered class object
+        return iClass;
+    }
 }
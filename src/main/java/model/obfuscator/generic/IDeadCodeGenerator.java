@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.obfuscator.generic;
+
+/**
+ * This interface is used by the language specific obfuscators to generate
+ * dead code on demand. Instead of generating a large buffer of dead code in
+ * advance, a single piece of dead code is generated every time it is inserted,
+ * meaning that the amount of work depends on the size of the obfuscated
+ * snippet.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public interface IDeadCodeGenerator {
+
+    /**
+     * Generates a single piece of language specific dead code, which can be
+     * inserted as garbage code. Each piece of dead code uses unique names.
+     *
+     * @return a single piece of dead code, which ends with a new line
+     */
+    public String generateDeadCode();
+}
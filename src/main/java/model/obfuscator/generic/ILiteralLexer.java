@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.obfuscator.generic;
+
+import java.util.List;
+
+/**
+ * This interface is used by the language specific obfuscators to find the
+ * string literals in a body of code. Each language has its own quoting and
+ * escaping rules, as well as comments in which quotes should be ignored.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public interface ILiteralLexer {
+
+    /**
+     * Tokenizes the given body once and returns all string literals that are
+     * found, in the order in which they occur
+     *
+     * @param body the body of code to tokenize
+     * @return all string literals in the body, or an empty list if there are
+     * none
+     */
+    public List<StringLiteral> getLiterals(String body);
+
+    /**
+     * Escapes the given value, so it can be placed between the given enclosing
+     * in the language of this lexer
+     *
+     * @param value the value to escape
+     * @param enclosing the enclosing in which the value is placed
+     * @return the escaped value
+     */
+    public String escape(String value, String enclosing);
+}
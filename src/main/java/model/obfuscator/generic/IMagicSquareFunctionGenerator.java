@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.obfuscator.generic;
+
+import model.language.IFunction;
+import model.obfuscator.generic.magicsquare.MagicSquare;
+
+/**
+ * This interface is used by the language specific obfuscators to generate a
+ * function that returns the value of a magic square. The generic obfuscator
+ * decides when such a function is generated, which allows a single function to
+ * be shared by all characters that use a square of the same size.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public interface IMagicSquareFunctionGenerator {
+
+    /**
+     * Generates a language specific function that returns the value of the
+     * given magic square. The name of the function is unique within the build.
+     *
+     * @param magicSquare the magic square to return the value of
+     * @return the function that returns the value of the given magic square
+     */
+    public IFunction generateMagicSquareFunction(MagicSquare magicSquare);
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.obfuscator.generic;
+
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This class hands out random identifiers during the obfuscation of a single
+ * snippet. Every identifier that is handed out (or reserved) is stored, which
+ * guarantees that the same identifier is never used twice, regardless of it
+ * being used as the name of a variable, a function or dead code. Identifiers
+ * are compared without taking the casing into account, as some of the
+ * supported languages (such as VBA and Powershell) are case insensitive.
+ *
+ * A new instance should be used for every build, as the amount of stored
+ * identifiers grows with every identifier that is handed out.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class IdentifierAllocator {
+
+    /**
+     * The dictionary from which the characters of an identifier are picked
+     */
+    private static final char[] DICTIONARY = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    /**
+     * The minimum length of a generated identifier
+     */
+    private static final int MINIMUM_LENGTH = 10;
+
+    /**
+     * The random object that is used to generate identifiers
+     */
+    private final SecureRandom random;
+
+    /**
+     * All identifiers (in lower case) that are handed out or reserved
+     */
+    private final Set<String> identifiers;
+
+    /**
+     * The buffer in which an identifier is generated, which grows if a longer
+     * identifier is requested
+     */
+    private char[] buffer;
+
+    /**
+     * Creates an identifier allocator without any used identifiers
+     */
+    public IdentifierAllocator() {
+        random = new SecureRandom();
+        identifiers = new HashSet<>();
+        buffer = new char[MINIMUM_LENGTH];
+    }
+
+    /**
+     * Returns a random identifier that has not been handed out or reserved
+     * before. The length of the identifier is equal to at least 10 characters,
+     * with a maximum of the given length (<code>lengthIndication</code>) plus
+     * 10.
+     *
+     * @param lengthIndication the length that is roughly requested
+     * @return a unique random identifier
+     */
+    public String allocate(int lengthIndication) {
+        //Generate an identifier
+        String identifier = generate(lengthIndication);
+        //If the identifier is already in use, a new one is generated
+        while (!reserve(identifier)) {
+            identifier = generate(lengthIndication);
+        }
+        //Return the unique identifier
+        return identifier;
+    }
+
+    /**
+     * Reserves the given identifier, after which it will not be handed out by
+     * this allocator. This is used for names that are already present in the
+     * code that is obfuscated.
+     *
+     * @param identifier the identifier to reserve
+     * @return true if the identifier was not yet in use, false if it was
+     * already handed out or reserved
+     */
+    public boolean reserve(String identifier) {
+        return identifiers.add(identifier.toLowerCase());
+    }
+
+    /**
+     * Generates a random identifier based on the dictionary
+     * <code>abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ</code>, without
+     * checking if it is unique
+     *
+     * @param lengthIndication the length that is roughly requested
+     * @return a random identifier
+     */
+    private String generate(int lengthIndication) {
+        //Get the length, with 10 as a minimum value (a value of zero or less cannot be used as the upper bound)
+        int length = MINIMUM_LENGTH;
+        if (lengthIndication > 0) {
+            length += random.nextInt(lengthIndication);
+        }
+        //Grow the buffer if it is too small for the requested length
+        if (buffer.length < length) {
+            buffer = new char[length];
+        }
+        //Fill the buffer with random characters from the dictionary
+        for (int i = 0; i < length; i++) {
+            buffer[i] = DICTIONARY[random.nextInt(DICTIONARY.length)];
+        }
+        //Return the identifier
+        return new String(buffer, 0, length);
+    }
+}
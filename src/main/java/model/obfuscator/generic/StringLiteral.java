@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.obfuscator.generic;
+
+/**
+ * A string literal that is found in a body of code by an
+ * <code>ILiteralLexer</code>. The offsets of the literal are stored, which
+ * allows the literal to be rewritten without searching for it again.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class StringLiteral {
+
+    /**
+     * The index of the opening enclosing within the body
+     */
+    private final int start;
+
+    /**
+     * The index directly after the closing enclosing within the body
+     */
+    private final int end;
+
+    /**
+     * The enclosing of the literal, such as <code>"</code> or
+     * <code>'</code>
+     */
+    private final String enclosing;
+
+    /**
+     * The value of the literal, where all escape sequences have been resolved
+     */
+    private final String value;
+
+    /**
+     * Creates a string literal
+     *
+     * @param start the index of the opening enclosing within the body
+     * @param end the index directly after the closing enclosing within the
+     * body
+     * @param enclosing the enclosing of the literal
+     * @param value the value of the literal, where all escape sequences have
+     * been resolved
+     */
+    public StringLiteral(int start, int end, String enclosing, String value) {
+        this.start = start;
+        this.end = end;
+        this.enclosing = enclosing;
+        this.value = value;
+    }
+
+    /**
+     * Gets the index of the opening enclosing within the body
+     *
+     * @return the start of the literal
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the index directly after the closing enclosing within the body
+     *
+     * @return the end of the literal
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Gets the enclosing of the literal
+     *
+     * @return the enclosing of the literal
+     */
+    public String getEnclosing() {
+        return enclosing;
+    }
+
+    /**
+     * Gets the value of the literal, where all escape sequences have been
+     * resolved
+     *
+     * @return the value of the literal
+     */
+    public String getValue() {
+        return value;
+    }
+}
@@ -19,7 +19,9 @@ package model.obfuscator.generic.magicsquare;
 /**
  * This class contains a magic square object. The magic square itself is present
  * as a two dimensional integer array. The value and size of the magic square
- * are also stored in this class.
+ * are also stored in this class. Magic squares are shared between builds (see
+ * <code>MagicSquareGenerator</code>), meaning that the array should not be
+ * altered.
  *
  * @author Max 'Libra' Kersten [@LibraAnalysis] & Mike
  */
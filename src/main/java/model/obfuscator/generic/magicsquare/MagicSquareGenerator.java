@@ -19,14 +19,35 @@ package model.obfuscator.generic.magicsquare;
 import java.security.SecureRandom;
 
 /**
- * Class to generate a <code>MagicSquare</code> object of an arbitrary size
+ * Class to generate a <code>MagicSquare</code> object of an arbitrary size.
+ * The squares up to and including <code>PRECOMPUTED_SIZE</code> are calculated
+ * once per JVM, after which the same objects are returned for every request.
  *
  * @author Max 'Libra' Kersten [@LibraAnalysis] & Mike
  */
 public class MagicSquareGenerator {
 
     /**
-     * Generates a magic square with a given size
+     * The largest size of a precomputed magic square. Requested sizes from 1
+     * up to and including 10 result in an odd size of at most 11
+     */
+    public static final int PRECOMPUTED_SIZE = 11;
+
+    /**
+     * The precomputed magic squares, where the index equals the size of the
+     * square. Only the odd indices contain a square
+     */
+    private static final MagicSquare[] PRECOMPUTED_SQUARES = precompute();
+
+    /**
+     * The random object that is used to round even sizes
+     */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Generates a magic square with a given size. Squares up to and including
+     * <code>PRECOMPUTED_SIZE</code> are shared, and should therefore not be
+     * altered.
      *
      * @param size the size of the magic square. If this value is even, it is
      * either increased or decreased by one before the square is calculated
@@ -36,13 +57,40 @@ public class MagicSquareGenerator {
         //Square generation at this point only works using odd sizes
         if (!isOdd(size)) {
             //If the value is not odd, the value is increased or decreased by 1
-            SecureRandom random = new SecureRandom();
-            if (random.nextBoolean()) {
+            if (RANDOM.nextBoolean()) {
                 size++;
             } else {
                 size--;
             }
         }
+        //Return the precomputed square if it exists
+        if (size > 0 && size <= PRECOMPUTED_SIZE) {
+            return PRECOMPUTED_SQUARES[size];
+        }
+        return create(size);
+    }
+
+    /**
+     * Calculates all odd sized magic squares up to and including
+     * <code>PRECOMPUTED_SIZE</code>
+     *
+     * @return an array where the index equals the size of the square
+     */
+    private static MagicSquare[] precompute() {
+        MagicSquare[] squares = new MagicSquare[PRECOMPUTED_SIZE + 1];
+        for (int size = 1; size <= PRECOMPUTED_SIZE; size += 2) {
+            squares[size] = create(size);
+        }
+        return squares;
+    }
+
+    /**
+     * Creates a magic square with the given odd size
+     *
+     * @param size the odd size of the magic square
+     * @return the magic square with the given size
+     */
+    private static MagicSquare create(int size) {
         //The magic square is stored in a two dimensional array
         int[][] magicSquare = calculate(size);
         //The value of the square is stored in a different field for later use
@@ -75,7 +123,7 @@ public class MagicSquareGenerator {
      * @return a two dimensional integer array which contains the square's
      * values
      */
-    private int[][] calculate(int size) {
+    private static int[][] calculate(int size) {
         int[][] magicSquare = new int[size][size];
         int number = 1;
         int row = 0;
@@ -113,7 +161,7 @@ public class MagicSquareGenerator {
      * @param magicSquare the magic square to calculate the value for
      * @return the value of the given magic square
      */
-    private int calculateMagicSquareValue(int[][] magicSquare) {
+    private static int calculateMagicSquareValue(int[][] magicSquare) {
         //The value, which is 0 and increased by the fields that are read
         int value = 0;
         //Read from top to bottom on one index, whilst the other stays zero. There are more methods to get the value, but all correct methods provide the same result, as such, a simple version is used here
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.obfuscator.javascript;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.obfuscator.generic.ILiteralLexer;
+import model.obfuscator.generic.StringLiteral;
+
+/**
+ * The string literal lexer for the JavaScript language. Strings are enclosed
+ * in <code>"</code>, <code>'</code> or <code>`</code>, where a backslash
+ * escapes the next character. Quotes within line comments
+ * (<code>//</code>) and block comments (<code>/* ... *&#47;</code>) are
+ * ignored.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class JavaScriptLiteralLexer implements ILiteralLexer {
+
+    @Override
+    public List<StringLiteral> getLiterals(String body) {
+        //Create a list to store all literals in
+        List<StringLiteral> literals = new ArrayList<>();
+        int length = body.length();
+        int i = 0;
+        while (i < length) {
+            char character = body.charAt(i);
+            char next = i + 1 < length ? body.charAt(i + 1) : 0;
+            if (character == '/' && next == '/') {
+                //Skip the line comment, up until the new line
+                int end = body.indexOf('\n', i);
+                i = end == -1 ? length : end;
+            } else if (character == '/' && next == '*') {
+                //Skip the block comment, including the closing characters
+                int end = body.indexOf("*/", i + 2);
+                i = end == -1 ? length : end + 2;
+            } else if (character == '"' || character == '\'' || character == '`') {
+                //Read the string literal
+                i = readLiteral(body, i, literals);
+            } else {
+                i++;
+            }
+        }
+        //Return all literals
+        return literals;
+    }
+
+    /**
+     * Reads a single string literal, which starts at the given index. Only
+     * template literals (which are enclosed in <code>`</code>) can span
+     * multiple lines. If the literal is not terminated, it is ignored.
+     *
+     * @param body the body of code
+     * @param start the index of the opening enclosing
+     * @param literals the list to add the literal to
+     * @return the index directly after the literal
+     */
+    private int readLiteral(String body, int start, List<StringLiteral> literals) {
+        char enclosing = body.charAt(start);
+        StringBuilder value = new StringBuilder();
+        int i = start + 1;
+        while (i < body.length()) {
+            char character = body.charAt(i);
+            if (character == enclosing) {
+                //The literal is terminated
+                literals.add(new StringLiteral(start, i + 1, String.valueOf(enclosing), value.toString()));
+                return i + 1;
+            } else if (character == '\\' && i + 1 < body.length()) {
+                //Resolve the escape sequence
+                i = unescape(body, i + 1, value);
+            } else if (character == '\n' && enclosing != '`') {
+                //The literal is not terminated on this line, meaning it is not a literal
+                return i;
+            } else {
+                value.append(character);
+                i++;
+            }
+        }
+        //The literal is not terminated
+        return i;
+    }
+
+    /**
+     * Resolves the escape sequence that starts at the given index (directly
+     * after the backslash) and appends the result to the value
+     *
+     * @param body the body of code
+     * @param index the index of the escaped character
+     * @param value the value to append the resolved character to
+     * @return the index directly after the escape sequence
+     */
+    private int unescape(String body, int index, StringBuilder value) {
+        char character = body.charAt(index);
+        switch (character) {
+            case 'n':
+                value.append('\n');
+                break;
+            case 'r':
+                value.append('\r');
+                break;
+            case 't':
+                value.append('\t');
+                break;
+            case 'b':
+                value.append('\b');
+                break;
+            case 'f':
+                value.append('\f');
+                break;
+            case 'v':
+                value.append('\u000B');
+                break;
+            case '0':
+                value.append('\0');
+                break;
+            case 'x':
+                return unescapeHex(body, index, 2, value);
+            case 'u':
+                return unescapeHex(body, index, 4, value);
+            case '\n':
+                //A line continuation is not part of the value
+                break;
+            default:
+                value.append(character);
+                break;
+        }
+        return index + 1;
+    }
+
+    /**
+     * Resolves a hexadecimal escape sequence, such as <code>\x41</code>, or a
+     * unicode escape sequence, which is a backslash and a <code>u</code>
+     * followed by four hexadecimal digits. If the sequence is malformed, the
+     * escaped character is used as is.
+     *
+     * @param body the body of code
+     * @param index the index of the <code>x</code> or <code>u</code>
+     * @param digits the amount of hexadecimal digits
+     * @param value the value to append the resolved character to
+     * @return the index directly after the escape sequence
+     */
+    private int unescapeHex(String body, int index, int digits, StringBuilder value) {
+        if (index + digits < body.length()) {
+            int character = 0;
+            for (int i = index + 1; i <= index + digits; i++) {
+                //Every character has to be an ASCII hexadecimal digit, as neither a sign nor another script's digits are allowed
+                char current = body.charAt(i);
+                int digit = current < 128 ? Character.digit(current, 16) : -1;
+                if (digit < 0) {
+                    character = -1;
+                    break;
+                }
+                character = character * 16 + digit;
+            }
+            if (character >= 0) {
+                value.append((char) character);
+                return index + 1 + digits;
+            }
+        }
+        //The sequence is malformed, the character is used as is
+        value.append(body.charAt(index));
+        return index + 1;
+    }
+
+    @Override
+    public String escape(String value, String enclosing) {
+        StringBuilder output = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            switch (character) {
+                case '\\':
+                    output.append("\\\\");
+                    break;
+                case '\n':
+                    output.append("\\n");
+                    break;
+                case '\r':
+                    output.append("\\r");
+                    break;
+                case '\t':
+                    output.append("\\t");
+                    break;
+                default:
+                    //The enclosing needs to be escaped, as it would terminate the string otherwise
+                    if (enclosing.indexOf(character) != -1) {
+                        output.append('\\');
+                    }
+                    output.append(character);
+                    break;
+            }
+        }
+        return output.toString();
+    }
+}
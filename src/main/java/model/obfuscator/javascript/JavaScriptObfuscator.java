@@ -16,7 +16,6 @@
  */
 package model.obfuscator.javascript;
 
-import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -28,6 +27,8 @@ import model.language.IVariable;
 import model.language.javascript.JavaScriptClass;
 import model.language.javascript.JavaScriptFunction;
 import model.obfuscator.generic.GenericObfuscator;
+import model.obfuscator.generic.IDeadCodeGenerator;
+import model.obfuscator.generic.IMagicSquareFunctionGenerator;
 import model.obfuscator.generic.magicsquare.MagicSquare;
 
 /**
@@ -36,7 +37,7 @@ import model.obfuscator.generic.magicsquare.MagicSquare;
  *
  * @author Max 'Libra' Kersten (@LibraAnalysis)
  */
-public class JavaScriptObfuscator extends GenericObfuscator {
+public class JavaScriptObfuscator extends GenericObfuscator implements IDeadCodeGenerator, IMagicSquareFunctionGenerator {
 
     /**
      * The language specific enclosing for strings
@@ -53,6 +54,14 @@ public class JavaScriptObfuscator extends GenericObfuscator {
      */
     protected final String SPLIT_CALL = "String.fromCharCode(";
 
+    /**
+     * Creates an instance of the JavaScript obfuscator, which uses the JavaScript
+     * specific lexer to find string literals
+     */
+    public JavaScriptObfuscator() {
+        super(new JavaScriptLiteralLexer());
+    }
+
     /**
      * Encodes all strings in the class with the base64 encoding
      *
@@ -69,35 +78,37 @@ public class JavaScriptObfuscator extends GenericObfuscator {
         for (String string : strings) {
             //Encode the string
             String encodedString = BASE64_CALL + ENCLOSING + super.getStringObfuscator().base64EncodeString(string) + ENCLOSING + ClassConstants.BRACKET_CLOSE;
-            //Add quotes for the replace
-            string = ENCLOSING + string + ENCLOSING;
             //Add the mapping
             mapping.put(string, encodedString);
         }
 
         //Replace the old name with the new name (replace the string with the function call)
-        classObject = super.remapFunctions(classObject, mapping);
+        classObject = super.getStringObfuscator().replaceStrings(classObject, ENCLOSING, mapping);
 
         //Get the script
         String script = ((JavaScriptClass) classObject).getScript();
         //Get the strings from the script
         List<String> entryPointStrings = super.getStringObfuscator().getStrings(ENCLOSING, script);
 
+        //Map each string in the script to the encoded string
+        Map<String, String> scriptMapping = new HashMap<>();
         //Iterate through all strings
         for (String string : entryPointStrings) {
             //Encode the string
             String encodedString = BASE64_CALL + ENCLOSING + super.getStringObfuscator().base64EncodeString(string) + ENCLOSING + ClassConstants.BRACKET_CLOSE;
-            //Add quotes to fully replace the string
-            string = ENCLOSING + string + ENCLOSING;
-            //Replace all occurences
-            script = script.replace(string, encodedString);
+            //Add the mapping
+            scriptMapping.put(string, encodedString);
         }
+        //Replace all occurences in a single pass
+        script = super.getStringObfuscator().replaceStrings(ENCLOSING, script, scriptMapping);
         //Set the body within the class object
         ((JavaScriptClass) classObject).setScript(script);
         //Iterate through all variables
         for (IVariable variable : classObject.getVariables()) {
             //Search the body of each variable for strings
             List<String> variableStrings = super.getStringObfuscator().getStrings(ENCLOSING, variable.getBody());
+            //Map each string in the variable to the encoded string
+            Map<String, String> variableMapping = new HashMap<>();
             //Iterate through all variable strings
             for (String string : variableStrings) {
                 //Variables are only encoded once every time encodeStrings is called
@@ -106,11 +117,11 @@ public class JavaScriptObfuscator extends GenericObfuscator {
                 }
                 //Encode the string in a runtime decode call
                 String encodedString = BASE64_CALL + ENCLOSING + super.getStringObfuscator().base64EncodeString(string) + ENCLOSING + ClassConstants.BRACKET_CLOSE;
-                //Add quotes to replace the string
-                string = ENCLOSING + string + ENCLOSING;
-                //Replace all occurences
-                variable.setBody(variable.getBody().replace(string, encodedString));
+                //Add the mapping
+                variableMapping.put(string, encodedString);
             }
+            //Replace all occurences in a single pass
+            variable.setBody(super.getStringObfuscator().replaceStrings(ENCLOSING, variable.getBody(), variableMapping));
         }
         //Return the class object
         return classObject;
@@ -152,7 +163,7 @@ public class JavaScriptObfuscator extends GenericObfuscator {
         //Loop through the character array per character
         for (int i = 0; i < characters.length; i++) {
             //Add the used enclosing, as that is required for the concatenation
-            parsedString.add(ENCLOSING + characters[i] + ENCLOSING);
+            parsedString.add(ENCLOSING + super.getStringObfuscator().escape(String.valueOf(characters[i]), ENCLOSING) + ENCLOSING);
         }
         //Concatenate the string and return the end result
         return super.getStringObfuscator().concatenateString(parsedString, "", ClassConstants.PLUS);
@@ -175,14 +186,12 @@ public class JavaScriptObfuscator extends GenericObfuscator {
 
         //If they are, loop through each character of the string that needs to be parsed
         for (int i = 0; i < characters.length; i++) {
-            //Create a magic square with a maximum size of 50 (meaning 49 or 51 at most, as only odd sized squares are generated)
-            MagicSquare magicSquare = super.getObfuscatorTechniques().getMagicSquare(new SecureRandom().nextInt(10) + 1);
+            //Get a precomputed magic square with a random size, which is at most 11
+            MagicSquare magicSquare = super.getObfuscatorTechniques().getRandomMagicSquare();
             //Get the difference between the the integer value of the character and the value of the magic square when it is read. This is used later on to get the correct value back
             int difference = characters[i] - magicSquare.getValue();
-            //Create the function object for the magic square
-            IFunction magicSquareFunction = createMagicSquareFunction(classObject, magicSquare);
-            //Add the function to the class object
-            classObject.addFunction(magicSquareFunction);
+            //Get the function for a magic square of this size, which is only created and added to the class object if it is not present yet
+            IFunction magicSquareFunction = super.getMagicSquareFunction(classObject, magicSquare, this);
             //Get the function call, including brackets, to the magic square function
             String magicSquareFunctionCall = magicSquareFunction.getName() + ClassConstants.BRACKETS;
             //Get the string to replace the original string with. The string looks like (magicSquareFunctionCall + difference). If the difference is negative, the minus overrules plus.
@@ -195,21 +204,16 @@ public class JavaScriptObfuscator extends GenericObfuscator {
     }
 
     /**
-     * Creates an <code>IFunction</code> object which contains the magic square
-     * function object
+     * Generates an <code>IFunction</code> object which returns the value of
+     * the given magic square
      *
-     * @param classObject the class object to check if the used function name is
-     * already in use
-     * @param magicSquare the magic square to add to the class object
+     * @param magicSquare the magic square to return the value of
      * @return the function object for the magic square
      */
-    private IFunction createMagicSquareFunction(IClass classObject, MagicSquare magicSquare) {
-        //Get a list of unique strings, 25 will do fine
-        List<String> uniqueStrings = super.getStringObfuscator().generateRandomStrings(25);
-        //Generate unique name for function
-        String functionName = uniqueStrings.get(0);
-        //Remove the used string, as it is not unique anymore
-        uniqueStrings.remove(functionName);
+    @Override
+    public IFunction generateMagicSquareFunction(MagicSquare magicSquare) {
+        //Get a unique name for the function from the identifier allocator, which also knows all existing names
+        String functionName = super.getIdentifierAllocator().allocate(20);
         //The magic square string
         String magicSquareString = "";
         //Obtain the magic square
@@ -224,10 +228,9 @@ public class JavaScriptObfuscator extends GenericObfuscator {
         }
         magicSquareString = magicSquareString.substring(0, magicSquareString.length() - 2) + "\n"; //Remove redundant comma
         //Generate body with random names
-        List<String> randomNames = super.getStringObfuscator().generateRandomStrings(3);
-        String items = randomNames.get(0);
-        String value = randomNames.get(1);
-        String i = randomNames.get(2);
+        String items = super.getIdentifierAllocator().allocate(20);
+        String value = super.getIdentifierAllocator().allocate(20);
+        String i = super.getIdentifierAllocator().allocate(20);
         String body = "var " + items + " = [\n";
         body += magicSquareString.substring(0, magicSquareString.length() - 1); //remove the comma and the newline of the last value of the two dimensional array
         //TODO Insert multiple read methods, as now the same method is used during every read operation
@@ -237,14 +240,8 @@ public class JavaScriptObfuscator extends GenericObfuscator {
                 + "    " + value + " += " + items + "[" + i + "][0];\n"
                 + "}\n"
                 + "return " + value + ";";
-        //The magic square function is added
-        IFunction magicSquareFunction = new JavaScriptFunction(functionName, new HashMap<String, String>(), body);
-        //Add IFunction to the IClass object, note the unique name
-        while (classObject.containsFunction(magicSquareFunction)) {
-            magicSquareFunction.setName(uniqueStrings.get(0)); //some other name
-            uniqueStrings.remove(0);
-        }
-        return magicSquareFunction;
+        //The magic square function is created, its name is unique within the class object since it is handed out by the allocator
+        return new JavaScriptFunction(functionName, new HashMap<String, String>(), body);
     }
 
     /**
@@ -271,27 +268,19 @@ public class JavaScriptObfuscator extends GenericObfuscator {
     }
 
     /**
-     * Generates random (dead) code, which can later be inserted as garbage
-     * code.
+     * Generates a single piece of random (dead) code, which can be inserted as
+     * garbage code.
      *
-     * @param amount the amount of unique names that are present in the returned
-     * list
-     * @return a list filled with garbage code, where each list entry is a
-     * single piece of garbage code.
+     * @return a variable declaration and instantiation, where both the name
+     * and the value are unique
      */
-    protected List<String> generateCode(int amount) {
-        //Get random strings equal to the given amount times two, since two strings are used for a single string
-        List<String> uniqueVariableNames = super.getStringObfuscator().generateRandomStrings(amount * 2);
-        //Create an array list to store the result in
-        List<String> loc = new ArrayList<>();
-        //Loop through the givne amount, note that i steps with 2 instead of 1
-        for (int i = 0; i < uniqueVariableNames.size(); i = i + 2) {
-            //Gets the variable name from the random string list
-            String name = uniqueVariableNames.get(i);
-            //Add the line of code, which contains the variable declaration and instantiation within one entry in the list
-            loc.add("var " + name + ClassConstants.SEMICOLON + ClassConstants.NEW_LINE + name + ClassConstants.SET_EQUALS + ENCLOSING + uniqueVariableNames.get(i + 1) + ENCLOSING + ClassConstants.SEMICOLON + ClassConstants.NEW_LINE);
-        }
-        //Return all lines of code
-        return loc;
+    @Override
+    public String generateDeadCode() {
+        //Gets a unique variable name
+        String name = super.getIdentifierAllocator().allocate(20);
+        //Gets a unique value
+        String value = super.getIdentifierAllocator().allocate(20);
+        //Return the line of code, which contains the variable declaration and instantiation
+        return "var " + name + ClassConstants.SEMICOLON + ClassConstants.NEW_LINE + name + ClassConstants.SET_EQUALS + ENCLOSING + value + ENCLOSING + ClassConstants.SEMICOLON + ClassConstants.NEW_LINE;
     }
 }
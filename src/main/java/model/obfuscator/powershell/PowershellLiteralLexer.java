@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.obfuscator.powershell;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.obfuscator.generic.ILiteralLexer;
+import model.obfuscator.generic.StringLiteral;
+
+/**
+ * The string literal lexer for the Powershell language. Expandable strings
+ * are enclosed in <code>"</code>, where a backtick escapes the next character
+ * and a doubled quote represents a single quote. Verbatim strings are enclosed
+ * in <code>'</code>, where only a doubled quote is an escape sequence.
+ * Here-strings (<code>@" ... "@</code> and <code>@' ... '@</code>) are skipped,
+ * as are quotes within line comments (<code>#</code>) and block comments
+ * (<code>&lt;# ... #&gt;</code>).
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class PowershellLiteralLexer implements ILiteralLexer {
+
+    @Override
+    public List<StringLiteral> getLiterals(String body) {
+        //Create a list to store all literals in
+        List<StringLiteral> literals = new ArrayList<>();
+        int length = body.length();
+        int i = 0;
+        while (i < length) {
+            char character = body.charAt(i);
+            char next = i + 1 < length ? body.charAt(i + 1) : 0;
+            if (character == '<' && next == '#') {
+                //Skip the block comment, including the closing characters
+                int end = body.indexOf("#>", i + 2);
+                i = end == -1 ? length : end + 2;
+            } else if (character == '#') {
+                //Skip the line comment, up until the new line
+                int end = body.indexOf('\n', i);
+                i = end == -1 ? length : end;
+            } else if (character == '`') {
+                //An escaped character outside of a string is never the start of a string
+                i += 2;
+            } else if (character == '@' && (next == '"' || next == '\'')) {
+                //Skip the here-string, which is terminated by the quote and the @ at the start of a line
+                int end = body.indexOf("\n" + next + "@", i + 2);
+                i = end == -1 ? length : end + 3;
+            } else if (character == '"' || character == '\'') {
+                //Read the string literal
+                i = readLiteral(body, i, literals);
+            } else {
+                i++;
+            }
+        }
+        //Return all literals
+        return literals;
+    }
+
+    /**
+     * Reads a single string literal, which starts at the given index. If the
+     * literal is not terminated, it is ignored.
+     *
+     * @param body the body of code
+     * @param start the index of the opening enclosing
+     * @param literals the list to add the literal to
+     * @return the index directly after the literal
+     */
+    private int readLiteral(String body, int start, List<StringLiteral> literals) {
+        char enclosing = body.charAt(start);
+        StringBuilder value = new StringBuilder();
+        int i = start + 1;
+        while (i < body.length()) {
+            char character = body.charAt(i);
+            if (character == enclosing) {
+                //A doubled enclosing is an escaped enclosing
+                if (i + 1 < body.length() && body.charAt(i + 1) == enclosing) {
+                    value.append(enclosing);
+                    i += 2;
+                    continue;
+                }
+                //The literal is terminated
+                literals.add(new StringLiteral(start, i + 1, String.valueOf(enclosing), value.toString()));
+                return i + 1;
+            } else if (character == '`' && enclosing == '"' && i + 1 < body.length()) {
+                //Resolve the escape sequence, which is only done in expandable strings
+                value.append(unescape(body.charAt(i + 1)));
+                i += 2;
+            } else {
+                value.append(character);
+                i++;
+            }
+        }
+        //The literal is not terminated
+        return i;
+    }
+
+    /**
+     * Resolves the escaped character, which directly follows a backtick
+     *
+     * @param character the escaped character
+     * @return the resolved character
+     */
+    private char unescape(char character) {
+        switch (character) {
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'a':
+                return '\u0007';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'v':
+                return '\u000B';
+            case '0':
+                return '\0';
+            default:
+                return character;
+        }
+    }
+
+    @Override
+    public String escape(String value, String enclosing) {
+        //Verbatim strings only require the enclosing to be doubled
+        if (enclosing.equals("'")) {
+            return value.replace("'", "''");
+        }
+        StringBuilder output = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            switch (character) {
+                case '`':
+                case '"':
+                case '$':
+                    //These characters would otherwise be interpreted within an expandable string
+                    output.append('`').append(character);
+                    break;
+                case '\n':
+                    output.append("`n");
+                    break;
+                case '\r':
+                    output.append("`r");
+                    break;
+                case '\t':
+                    output.append("`t");
+                    break;
+                default:
+                    output.append(character);
+                    break;
+            }
+        }
+        return output.toString();
+    }
+}
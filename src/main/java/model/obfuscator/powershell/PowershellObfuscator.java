@@ -16,7 +16,6 @@
  */
 package model.obfuscator.powershell;
 
-import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -28,6 +27,8 @@ import model.language.IVariable;
 import model.language.powershell.PowershellClass;
 import model.language.powershell.PowershellFunction;
 import model.obfuscator.generic.GenericObfuscator;
+import model.obfuscator.generic.IDeadCodeGenerator;
+import model.obfuscator.generic.IMagicSquareFunctionGenerator;
 import model.obfuscator.generic.magicsquare.MagicSquare;
 
 /**
@@ -36,7 +37,7 @@ import model.obfuscator.generic.magicsquare.MagicSquare;
  *
  * @author Max 'Libra' Kersten [@LibraAnalysis]
  */
-public class PowershellObfuscator extends GenericObfuscator {
+public class PowershellObfuscator extends GenericObfuscator implements IDeadCodeGenerator, IMagicSquareFunctionGenerator {
 
     /**
      * The language specific enclosing for strings
@@ -53,6 +54,14 @@ public class PowershellObfuscator extends GenericObfuscator {
      */
     protected final String SPLIT_CALL = "([char]";
 
+    /**
+     * Creates an instance of the Powershell obfuscator, which uses the Powershell
+     * specific lexer to find string literals
+     */
+    public PowershellObfuscator() {
+        super(new PowershellLiteralLexer());
+    }
+
     /**
      * Encodes all strings in the class with the base64 encoding
      *
@@ -69,42 +78,45 @@ public class PowershellObfuscator extends GenericObfuscator {
         for (String string : strings) {
             //Encode the string
             String encodedString = BASE64_CALL + ENCLOSING + super.getStringObfuscator().base64EncodeString(string) + ENCLOSING + ClassConstants.BRACKET_CLOSE + ClassConstants.BRACKET_CLOSE + ClassConstants.BRACKET_CLOSE;
-            //Add quotes for the replace
-            string = ENCLOSING + string + ENCLOSING;
             //Add the mapping
             mapping.put(string, encodedString);
         }
 
         //Replace the old name with the new name (replace the string with the function call)
-        if (mapping.size() > 0) {
-            classObject = super.remapFunctions(classObject, mapping);
-        }
+        classObject = super.getStringObfuscator().replaceStrings(classObject, ENCLOSING, mapping);
 
         String script = ((PowershellClass) classObject).getScript();
         List<String> entryPointStrings = super.getStringObfuscator().getStrings(ENCLOSING, script);
 
+        //Map each string in the script to the encoded string
+        Map<String, String> scriptMapping = new HashMap<>();
         for (String string : entryPointStrings) {
             //Encode the string
             String encodedString = BASE64_CALL + ENCLOSING + super.getStringObfuscator().base64EncodeString(string) + ENCLOSING + ClassConstants.BRACKET_CLOSE + ClassConstants.BRACKET_CLOSE + ClassConstants.BRACKET_CLOSE;
-            //Add quotes to fully replace the string
-            string = ENCLOSING + string + ENCLOSING;
-            script = script.replace(string, encodedString);
+            //Add the mapping
+            scriptMapping.put(string, encodedString);
         }
+        //Replace all occurences in a single pass
+        script = super.getStringObfuscator().replaceStrings(ENCLOSING, script, scriptMapping);
         //Set the body within the class object
         ((PowershellClass) classObject).setScript(script);
         //Iterate through all variables
         for (IVariable variable : classObject.getVariables()) {
             //Search the body of each variable for strings
             List<String> variableStrings = super.getStringObfuscator().getStrings(ENCLOSING, variable.getBody());
+            //Map each string in the variable to the encoded string
+            Map<String, String> variableMapping = new HashMap<>();
             for (String string : variableStrings) {
                 //Variables are only encoded once every time encodeStrings is called
                 if (string.contains(BASE64_CALL)) {
                     continue;
                 }
                 String encodedString = BASE64_CALL + ENCLOSING + super.getStringObfuscator().base64EncodeString(string) + ENCLOSING + ClassConstants.BRACKET_CLOSE + ClassConstants.BRACKET_CLOSE + ClassConstants.BRACKET_CLOSE;
-                string = ENCLOSING + string + ENCLOSING;
-                variable.setBody(variable.getBody().replace(string, encodedString));
+                //Add the mapping
+                variableMapping.put(string, encodedString);
             }
+            //Replace all occurences in a single pass
+            variable.setBody(super.getStringObfuscator().replaceStrings(ENCLOSING, variable.getBody(), variableMapping));
         }
         //Return the class object
         return classObject;
@@ -147,7 +159,7 @@ public class PowershellObfuscator extends GenericObfuscator {
         //Iterate through the character array
         for (int i = 0; i < characters.length; i++) {
             //Add the enclosing as it is required for the concatenate function below
-            parsedString.add(ENCLOSING + characters[i] + ENCLOSING);
+            parsedString.add(ENCLOSING + super.getStringObfuscator().escape(String.valueOf(characters[i]), ENCLOSING) + ENCLOSING);
         }
         //Concatenate the string and return the result
         return super.getStringObfuscator().concatenateString(parsedString, "", ClassConstants.PLUS);
@@ -171,14 +183,12 @@ public class PowershellObfuscator extends GenericObfuscator {
 
         //If they are, loop through each character of the string that needs to be parsed
         for (int i = 0; i < characters.length; i++) {
-            //Create a magic square with a maximum size of 50 (meaning 49 or 51 at most, as only odd sized squares are generated)
-            MagicSquare magicSquare = super.getObfuscatorTechniques().getMagicSquare(new SecureRandom().nextInt(10) + 1);
+            //Get a precomputed magic square with a random size, which is at most 11
+            MagicSquare magicSquare = super.getObfuscatorTechniques().getRandomMagicSquare();
             //Get the difference between the the integer value of the character and the value of the magic square when it is read. This is used later on to get the correct value back
             int difference = characters[i] - magicSquare.getValue();
-            //Create the function object for the magic square
-            IFunction magicSquareFunction = createMagicSquareFunction(classObject, magicSquare);
-            //Add the function to the class object
-            classObject.addFunction(magicSquareFunction);
+            //Get the function for a magic square of this size, which is only created and added to the class object if it is not present yet
+            IFunction magicSquareFunction = super.getMagicSquareFunction(classObject, magicSquare, this);
             //Get the function call, including brackets, to the magic square function
             String magicSquareFunctionCall = magicSquareFunction.getName();
             //Get the string to replace the original string with. The string looks like (magicSquareFunctionCall + difference). If the difference is negative, the minus overrules plus.
@@ -191,20 +201,16 @@ public class PowershellObfuscator extends GenericObfuscator {
     }
 
     /**
-     * Creates an <code>IFunction</code> object which contains the magic square
-     * function object
+     * Generates an <code>IFunction</code> object which returns the value of
+     * the given magic square
      *
-     * @param classObject the class object to check if the used function name is
-     * already in use
-     * @param magicSquare the magic square to add to the class object
+     * @param magicSquare the magic square to return the value of
      * @return the function object for the magic square
      */
-    private IFunction createMagicSquareFunction(IClass classObject, MagicSquare magicSquare) {
-        //Get a list of unique strings, 25 will do fine
-        List<String> uniqueStrings = super.getStringObfuscator().generateRandomStrings(25);
-        //Generate unique name for function
-        String functionName = uniqueStrings.get(0);
-        uniqueStrings.remove(functionName);
+    @Override
+    public IFunction generateMagicSquareFunction(MagicSquare magicSquare) {
+        //Get a unique name for the function from the identifier allocator, which also knows all existing names
+        String functionName = super.getIdentifierAllocator().allocate(20);
         String magicSquareString = "";
         int[][] magicArray = magicSquare.getMagicSquare();
         for (int row = 0; row < magicArray.length; row++) {
@@ -225,38 +231,24 @@ public class PowershellObfuscator extends GenericObfuscator {
                 + "    $value += $items[$i][0];\n"
                 + "}\n"
                 + "return $value;";
-        //read function here
-        IFunction magicSquareFunction = new PowershellFunction(functionName, new HashMap<String, String>(), body);
-        //Add IFunction to the IClass object
-        while (classObject.containsFunction(magicSquareFunction)) {
-            magicSquareFunction.setName(uniqueStrings.get(0)); //some other name
-            uniqueStrings.remove(0);
-        }
-        return magicSquareFunction;
+        //read function here, its name is unique within the class object since it is handed out by the allocator
+        return new PowershellFunction(functionName, new HashMap<String, String>(), body);
     }
 
     /**
-     * Generates random (dead) code, which can later be inserted as garbage
-     * code.
+     * Generates a single piece of random (dead) code, which can be inserted as
+     * garbage code.
      *
-     * @param amount the amount of unique names that are present in the returned
-     * list
-     * @return a list filled with garbage code, where each list entry is a
-     * single piece of garbage code.
+     * @return a variable instantiation, where both the name and the value are
+     * unique
      */
-    protected List<String> generateCode(int amount) {
-        //Generate a certain amount of unique strings (the requested amount times two, as two strings are used per string)
-        List<String> uniqueVariableNames = super.getStringObfuscator().generateRandomStrings(amount * 2);
-        //Create a list to store the output in
-        List<String> loc = new ArrayList<>();
-        //Iterate as many times as required, note that i is incremented with 2 instead of 1
-        for (int i = 0; i < uniqueVariableNames.size(); i = i + 2) {
-            //Gets a random variable that is used as the name
-            String name = uniqueVariableNames.get(i);
-            //Creates a variable and instantiates it based on another string (index i+1, hence the increase with 2), which is added in the output list
-            loc.add("$" + name + ClassConstants.SET_EQUALS + ENCLOSING + uniqueVariableNames.get(i + 1) + ENCLOSING + ClassConstants.SEMICOLON + ClassConstants.NEW_LINE);
-        }
-        //Return the list of variables
-        return loc;
+    @Override
+    public String generateDeadCode() {
+        //Gets a unique variable name
+        String name = super.getIdentifierAllocator().allocate(20);
+        //Gets a unique value
+        String value = super.getIdentifierAllocator().allocate(20);
+        //Creates a variable and instantiates it
+        return "$" + name + ClassConstants.SET_EQUALS + ENCLOSING + value + ENCLOSING + ClassConstants.SEMICOLON + ClassConstants.NEW_LINE;
     }
 }
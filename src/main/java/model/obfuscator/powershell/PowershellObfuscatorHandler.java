@@ -52,14 +52,12 @@ public class PowershellObfuscatorHandler implements IObfuscatorHandler {
         }
         //Create an obfuscator object for this language
         PowershellObfuscator obfuscator = new PowershellObfuscator();
+        //Reserve the names that are already in use, which ensures that newly generated names are unique
+        obfuscator.reserveIdentifiers(classObject);
         //Amount of insertions per time
         int insertionSize = 6;
-        //Assume buffer size
-        int bufferSize = 10000;
-        //Generate code based on buffer size
-        List<String> deadCode = obfuscator.generateCode(bufferSize);
-        //Insert dead code
-        classObject = obfuscator.getStringObfuscator().insertCode(classObject, deadCode, insertionSize);
+        //Insert dead code, which is generated by the obfuscator on demand
+        classObject = obfuscator.getStringObfuscator().insertCode(classObject, obfuscator, insertionSize);
         //Since the upper bound is exclusive and 0 is a potential outcome, the minimum value is 1, to ensure that all content is at least encoded once
         int encodingIterations = new SecureRandom().nextInt(5) + 1;
         //Loop 
@@ -92,13 +90,11 @@ public class PowershellObfuscatorHandler implements IObfuscatorHandler {
                     parsedString = obfuscator.splitStringMagicSquares(classObject, string);
                     break;
             }
-            //Add enclosing to the string
-            string = obfuscator.ENCLOSING + string + obfuscator.ENCLOSING;
             //Store the old and new string in a mapper
             mapping.put(string, parsedString);
         }
         //Remap functions based on the mapping
-        classObject = obfuscator.remapFunctions(classObject, mapping);
+        classObject = obfuscator.getStringObfuscator().replaceStrings(classObject, obfuscator.ENCLOSING, mapping);
 
         //Return class object
         return classObject;
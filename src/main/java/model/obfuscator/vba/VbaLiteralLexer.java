@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.obfuscator.vba;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.obfuscator.generic.ILiteralLexer;
+import model.obfuscator.generic.StringLiteral;
+
+/**
+ * The string literal lexer for the VBA language. Strings are enclosed in
+ * <code>"</code>, where a doubled quote represents a single quote. A string
+ * cannot span multiple lines. Quotes within comments, which start with
+ * <code>'</code>, are ignored.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class VbaLiteralLexer implements ILiteralLexer {
+
+    @Override
+    public List<StringLiteral> getLiterals(String body) {
+        //Create a list to store all literals in
+        List<StringLiteral> literals = new ArrayList<>();
+        int length = body.length();
+        int i = 0;
+        while (i < length) {
+            char character = body.charAt(i);
+            if (character == '\'') {
+                //Skip the comment, up until the new line
+                int end = body.indexOf('\n', i);
+                i = end == -1 ? length : end;
+            } else if (character == '"') {
+                //Read the string literal
+                i = readLiteral(body, i, literals);
+            } else {
+                i++;
+            }
+        }
+        //Return all literals
+        return literals;
+    }
+
+    /**
+     * Reads a single string literal, which starts at the given index. If the
+     * literal is not terminated on the same line, it is ignored.
+     *
+     * @param body the body of code
+     * @param start the index of the opening quote
+     * @param literals the list to add the literal to
+     * @return the index directly after the literal
+     */
+    private int readLiteral(String body, int start, List<StringLiteral> literals) {
+        StringBuilder value = new StringBuilder();
+        int i = start + 1;
+        while (i < body.length()) {
+            char character = body.charAt(i);
+            if (character == '"') {
+                //A doubled quote is an escaped quote
+                if (i + 1 < body.length() && body.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i += 2;
+                    continue;
+                }
+                //The literal is terminated
+                literals.add(new StringLiteral(start, i + 1, "\"", value.toString()));
+                return i + 1;
+            } else if (character == '\n') {
+                //The literal is not terminated on this line, meaning it is not a literal
+                return i;
+            } else {
+                value.append(character);
+                i++;
+            }
+        }
+        //The literal is not terminated
+        return i;
+    }
+
+    @Override
+    public String escape(String value, String enclosing) {
+        //The only escape sequence is a doubled quote
+        return value.replace(enclosing, enclosing + enclosing);
+    }
+}
@@ -16,10 +16,9 @@
  */
 package model.obfuscator.vba;
 
-import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,13 +28,15 @@ import model.language.IFunction;
 import model.language.IVariable;
 import model.language.vba.VbaFunction;
 import model.obfuscator.generic.GenericObfuscator;
+import model.obfuscator.generic.IDeadCodeGenerator;
+import model.obfuscator.generic.IMagicSquareFunctionGenerator;
 import model.obfuscator.generic.magicsquare.MagicSquare;
 
 /**
  *
  * @author Max 'Libra' Kersten [@LibraAnalysis]
  */
-public class VbaObfuscator extends GenericObfuscator {
+public class VbaObfuscator extends GenericObfuscator implements IDeadCodeGenerator, IMagicSquareFunctionGenerator {
 
     /**
      * The language specific enclosing for strings
@@ -53,48 +54,66 @@ public class VbaObfuscator extends GenericObfuscator {
     protected final String SPLIT_CALL = "Chr(";
 
     /**
-     * A list that contains unique strings that are ready to use, generated when
-     * this class is instantiated
+     * The maximum length of a name in the list of unique strings
      */
-    private List<String> uniqueStrings;
+    private static final int UNIQUE_STRING_LENGTH = 29;
 
     /**
-     * Creates an instance of the VBA obfuscator, which creates a list of unique
-     * strings in the constructor
+     * A list that contains unique strings that are ready to use, sorted by
+     * length. The list is generated once per JVM and is shared by all builds,
+     * which is why it cannot be altered
+     */
+    private static final List<String> UNIQUE_STRINGS = createUniqueStrings();
+
+    /**
+     * The index of the next name in the list of unique strings that has not
+     * been handed out during this build
+     */
+    private int uniqueStringIndex;
+
+    /**
+     * Creates an instance of the VBA obfuscator, which starts at the shortest
+     * name of the shared list of unique strings
      */
     public VbaObfuscator() {
-        List<String> uniqueStrings = new ArrayList<>();
+        super(new VbaLiteralLexer());
+        uniqueStringIndex = 0;
+    }
 
-        for (int stringLength = 0; stringLength < 30; stringLength++) {
+    /**
+     * Creates the list of unique strings, which consists of every upper and
+     * lower case letter repeated once up to and including
+     * <code>UNIQUE_STRING_LENGTH</code> times. Since the strings are generated
+     * per length, the list is sorted by length without the need to sort it.
+     *
+     * @return an unmodifiable list of unique strings, sorted by length
+     */
+    private static List<String> createUniqueStrings() {
+        List<String> uniqueStrings = new ArrayList<>(UNIQUE_STRING_LENGTH * 52);
+        for (int stringLength = 1; stringLength <= UNIQUE_STRING_LENGTH; stringLength++) {
             //65d tm 90d
-            for (int character = 65; character < 91; character++) {
-                String toAdd = new String(new char[stringLength]).replace("\0", new String("" + (char) character));
-                //String toAdd = new String("" + (char) character) * stringLength;
-                if (toAdd.isEmpty()) {
-                    continue;
-                }
-                uniqueStrings.add(toAdd);
+            for (char character = 'A'; character <= 'Z'; character++) {
+                uniqueStrings.add(repeat(character, stringLength));
             }
             //97d tm 122d
-            for (int character = 97; character < 123; character++) {
-                String toAdd = new String(new char[stringLength]).replace("\0", new String("" + (char) character));
-                if (toAdd.isEmpty()) {
-                    continue;
-                }
-                uniqueStrings.add(toAdd);
+            for (char character = 'a'; character <= 'z'; character++) {
+                uniqueStrings.add(repeat(character, stringLength));
             }
         }
-        /**
-         * Comparator taken from Chris Mart's StackOverflow reply:
-         * https://stackoverflow.com/a/52063614
-         */
-        Comparator c = new Comparator<String>() {
-            public int compare(String s1, String s2) {
-                return Integer.compare(s1.length(), s2.length());
-            }
-        };
-        Collections.sort(uniqueStrings, c);
-        this.uniqueStrings = uniqueStrings;
+        return Collections.unmodifiableList(uniqueStrings);
+    }
+
+    /**
+     * Creates a string in which the given character is repeated
+     *
+     * @param character the character to repeat
+     * @param length the amount of times the character is repeated
+     * @return the string with the repeated character
+     */
+    private static String repeat(char character, int length) {
+        char[] output = new char[length];
+        Arrays.fill(output, character);
+        return new String(output);
     }
 
     /**
@@ -105,13 +124,7 @@ public class VbaObfuscator extends GenericObfuscator {
      */
     protected IClass encodeStrings(IClass classObject) {
         //Create the base64 decoder function, as VBA has no default method of decoding base64 encoded strings
-        IFunction base64DecodeFunction = addBase64Decoder(super.getStringObfuscator().generateRandomString(5));
-
-        //Make sure the name of the function is not in use
-        while (classObject.containsFunction(base64DecodeFunction)) {
-            String base64DecodeFuncitonName = super.getStringObfuscator().generateRandomString(5);
-            base64DecodeFunction.setName(base64DecodeFuncitonName);
-        }
+        IFunction base64DecodeFunction = addBase64Decoder(super.getIdentifierAllocator().allocate(5));
 
         //The base64_call variable is equal to the function, after which a bracket open is added
         BASE64_CALL = base64DecodeFunction.getName() + ClassConstants.BRACKET_OPEN;
@@ -125,30 +138,30 @@ public class VbaObfuscator extends GenericObfuscator {
         for (String string : strings) {
             //Encode the string
             String encodedString = BASE64_CALL + ENCLOSING + super.getStringObfuscator().base64EncodeString(string) + ENCLOSING + ClassConstants.BRACKET_CLOSE;
-            //Add quotes for the replace
-            string = ENCLOSING + string + ENCLOSING;
             //Add the mapping
             mapping.put(string, encodedString);
         }
 
         //Replace the old name with the new name (replace the string with the function call)
-        if (mapping.size() > 0) {
-            classObject = super.remapFunctions(classObject, mapping);
-        }
+        classObject = super.getStringObfuscator().replaceStrings(classObject, ENCLOSING, mapping);
 
         //Iterate through all variables
         for (IVariable variable : classObject.getVariables()) {
             //Search the body of each variable for strings
             List<String> variableStrings = super.getStringObfuscator().getStrings(ENCLOSING, variable.getBody());
+            //Map each string in the variable to the encoded string
+            Map<String, String> variableMapping = new HashMap<>();
             for (String string : variableStrings) {
                 //Variables are only encoded once every time encodeStrings is called
                 if (string.contains(BASE64_CALL)) {
                     continue;
                 }
                 String encodedString = BASE64_CALL + ENCLOSING + super.getStringObfuscator().base64EncodeString(string) + ENCLOSING + ClassConstants.BRACKET_CLOSE + ClassConstants.BRACKET_CLOSE;
-                string = ENCLOSING + string + ENCLOSING;
-                variable.setBody(variable.getBody().replace(string, encodedString));
+                //Add the mapping
+                variableMapping.put(string, encodedString);
             }
+            //Replace all occurences in a single pass
+            variable.setBody(super.getStringObfuscator().replaceStrings(ENCLOSING, variable.getBody(), variableMapping));
         }
         //Avoid recursion by 'decoding strings in the decode function using the decode function' by adding it after everything has been changed
         classObject.addFunction(base64DecodeFunction);
@@ -193,7 +206,7 @@ public class VbaObfuscator extends GenericObfuscator {
         //Iterate over all characters
         for (int i = 0; i < characters.length; i++) {
             //Add enclosing to each character, as is required for the concatenate string function below
-            parsedString.add(ENCLOSING + characters[i] + ENCLOSING);
+            parsedString.add(ENCLOSING + super.getStringObfuscator().escape(String.valueOf(characters[i]), ENCLOSING) + ENCLOSING);
         }
         //Return the concatenated string
         return super.getStringObfuscator().concatenateString(parsedString, "", ClassConstants.PLUS);
@@ -216,14 +229,12 @@ public class VbaObfuscator extends GenericObfuscator {
 
         //If they are, loop through each character of the string that needs to be parsed
         for (int i = 0; i < characters.length; i++) {
-            //Create a magic square with a maximum size of 50 (meaning 49 or 51 at most, as only odd sized squares are generated)
-            MagicSquare magicSquare = super.getObfuscatorTechniques().getMagicSquare(new SecureRandom().nextInt(10) + 1);
+            //Get a precomputed magic square with a random size, which is at most 11
+            MagicSquare magicSquare = super.getObfuscatorTechniques().getRandomMagicSquare();
             //Get the difference between the the integer value of the character and the value of the magic square when it is read. This is used later on to get the correct value back
             int difference = characters[i] - magicSquare.getValue();
-            //Create the function object for the magic square
-            IFunction magicSquareFunction = createMagicSquareFunction(classObject, magicSquare);
-            //Add the function to the class object
-            classObject.addFunction(magicSquareFunction);
+            //Get the function for a magic square of this size, which is only created and added to the class object if it is not present yet
+            IFunction magicSquareFunction = super.getMagicSquareFunction(classObject, magicSquare, this);
             //Get the function call, including brackets, to the magic square function
             String magicSquareFunctionCall = magicSquareFunction.getName() + ClassConstants.BRACKETS;
             //Get the string to replace the original string with. The string looks like (magicSquareFunctionCall + difference). If the difference is negative, the minus overrules plus.
@@ -235,39 +246,29 @@ public class VbaObfuscator extends GenericObfuscator {
     }
 
     /**
-     * Creates an <code>IFunction</code> object which contains the magic square
-     * function object
+     * Generates an <code>IFunction</code> object which returns the value of
+     * the given magic square
      *
-     * @param classObject the class object to check if the used function name is
-     * already in use
-     * @param magicSquare the magic square to add to the class object
+     * @param magicSquare the magic square to return the value of
      * @return the function object for the magic square
      */
-    private IFunction createMagicSquareFunction(IClass classObject, MagicSquare magicSquare) {
-        //Get a list of unique strings, 25 will do fine
-        //List<String> uniqueStrings = super.getStringObfuscator().generateRandomStrings(25);
-
-        //Generate unique name for function
-        //TODO fix the unique strings to always work, instead of working with a buffer, note that this is for all languages
-        String functionName = uniqueStrings.get(0);
-        IFunction tempFunction = new VbaFunction(ENCLOSING, functionName, new HashMap<String, String>(), ENCLOSING, ENCLOSING);
-        while (classObject.containsFunction(tempFunction)) {
-            uniqueStrings.remove(functionName);
-            functionName = uniqueStrings.get(0);
-            tempFunction.setName(functionName);
-        }
+    @Override
+    public IFunction generateMagicSquareFunction(MagicSquare magicSquare) {
+        //Generate unique name for function, taken from the short names in the list of unique strings
+        String functionName = getUniqueName();
+        //Generate the names of the variables within the body
+        String items = super.getIdentifierAllocator().allocate(20);
+        String value = super.getIdentifierAllocator().allocate(20);
+        String i = super.getIdentifierAllocator().allocate(20);
+        //Assign every field of the magic square to the array
         String magicSquareString = "";
         int[][] magicArray = magicSquare.getMagicSquare();
         for (int row = 0; row < magicArray.length; row++) {
             for (int column = 0; column < magicArray.length; column++) {
-                magicSquareString += "    items(" + row + ", " + column + ") = " + magicArray[row][column] + "\n";
+                magicSquareString += "    " + items + "(" + row + ", " + column + ") = " + magicArray[row][column] + "\n";
             }
         }
         //Generate body
-        List<String> randomNames = super.getStringObfuscator().generateRandomStrings(3);
-        String items = randomNames.get(0);
-        String value = randomNames.get(1);
-        String i = randomNames.get(2);
         String body = "Dim " + items + "(" + magicSquare.getSquareSize() + "," + magicSquare.getSquareSize() + ") as Integer\n";
         body += magicSquareString.substring(0, magicSquareString.length() - 1); //remove the comma and the newline of the last value of the two dimensional array
         //TODO Insert multiple read methods, as now the same method is used during every read operation
@@ -279,12 +280,34 @@ public class VbaObfuscator extends GenericObfuscator {
                 + "    " + value + " = " + value + " + " + items + "(" + i + ", 0)\n"
                 + "Next " + i + "\n"
                 + "\n"
-                + functionName + " = value";
+                + functionName + " = " + value;
         //Read function here
         IFunction magicSquareFunction = new VbaFunction("Function", functionName, new HashMap<String, String>(), "As Integer", body);
         return magicSquareFunction;
     }
 
+    /**
+     * Gets the shortest name from the list of unique strings that is not yet
+     * in use within this build. The shared list is not altered, as the index
+     * of the next name is kept per build instead. If the list is exhausted, a
+     * random name is allocated instead.
+     *
+     * @return a name that is unique within this build
+     */
+    private String getUniqueName() {
+        //Iterate through the remainder of the list of unique strings, which is sorted by length
+        while (uniqueStringIndex < UNIQUE_STRINGS.size()) {
+            //Take the shortest name that has not been handed out yet
+            String name = UNIQUE_STRINGS.get(uniqueStringIndex++);
+            //If the name is not in use (regardless of the casing, as VBA is case insensitive), it is returned
+            if (super.getIdentifierAllocator().reserve(name)) {
+                return name;
+            }
+        }
+        //If all names have been used, a random name is allocated
+        return super.getIdentifierAllocator().allocate(5);
+    }
+
     /**
      * A method to base64 decode base64 encoded values.
      *
@@ -296,17 +319,17 @@ public class VbaObfuscator extends GenericObfuscator {
      * @return the function as an <code>IFunction</code> object
      */
     private IFunction addBase64Decoder(String name) {
-        String dictionary = super.getStringObfuscator().generateRandomString(10);
-        String argument = super.getStringObfuscator().generateRandomString(10);
-        String dataLength = super.getStringObfuscator().generateRandomString(10);
-        String sOut = super.getStringObfuscator().generateRandomString(10);
-        String groupBegin = super.getStringObfuscator().generateRandomString(10);
-        String numDataBytes = super.getStringObfuscator().generateRandomString(10);
-        String CharCounter = super.getStringObfuscator().generateRandomString(10);
-        String thisChar = super.getStringObfuscator().generateRandomString(10);
-        String thisData = super.getStringObfuscator().generateRandomString(10);
-        String nGroup = super.getStringObfuscator().generateRandomString(10);
-        String pOut = super.getStringObfuscator().generateRandomString(10);
+        String dictionary = super.getIdentifierAllocator().allocate(10);
+        String argument = super.getIdentifierAllocator().allocate(10);
+        String dataLength = super.getIdentifierAllocator().allocate(10);
+        String sOut = super.getIdentifierAllocator().allocate(10);
+        String groupBegin = super.getIdentifierAllocator().allocate(10);
+        String numDataBytes = super.getIdentifierAllocator().allocate(10);
+        String CharCounter = super.getIdentifierAllocator().allocate(10);
+        String thisChar = super.getIdentifierAllocator().allocate(10);
+        String thisData = super.getIdentifierAllocator().allocate(10);
+        String nGroup = super.getIdentifierAllocator().allocate(10);
+        String pOut = super.getIdentifierAllocator().allocate(10);
         String base64DecodeFunctionBody
                 = "  Const " + dictionary + " = \"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/\"\n"
                 + "  Dim " + dataLength + ", " + sOut + ", " + groupBegin + "\n"
@@ -355,25 +378,19 @@ public class VbaObfuscator extends GenericObfuscator {
     }
 
     /**
-     * Generates lines of code to later insert into the script with the sole
-     * purpose of cluttering the original document
+     * Generates a line of code to insert into the script with the sole purpose
+     * of cluttering the original document
      *
-     * @param amount the amount of unique strings to return
-     * @return a list of variable declarations and instantiations
+     * @return a variable declaration and instantiation, where both the name
+     * and the value are unique
      */
-    protected List<String> generateCode(int amount) {
-        //Generate twice as many strings as are requested, as each generated piece of code requires two strings from this list
-        List<String> uniqueVariableNames = super.getStringObfuscator().generateRandomStrings(amount * 2);
-        //Creates a list that is used to store the result in
-        List<String> loc = new ArrayList<>();
-        //Iterate through the request amount, note that i is incremented with 2 instead of 1
-        for (int i = 0; i < uniqueVariableNames.size(); i = i + 2) {
-            //Get a random string to use as the varaible's name
-            String name = uniqueVariableNames.get(i);
-            //Create the variable and assign a value
-            loc.add("Dim " + name + " As String\n" + name + " = \"" + uniqueVariableNames.get(i + 1) + "\"\n");
-        }
-        //Return all created code
-        return loc;
+    @Override
+    public String generateDeadCode() {
+        //Get a unique string to use as the variable's name
+        String name = super.getIdentifierAllocator().allocate(20);
+        //Get a unique string to use as the variable's value
+        String value = super.getIdentifierAllocator().allocate(20);
+        //Create the variable and assign a value
+        return "Dim " + name + " As String\n" + name + " = \"" + value + "\"\n";
     }
 }
@@ -46,14 +46,12 @@ public class VbaObfuscatorHandler implements IObfuscatorHandler {
         }
         //Create an obfuscator object for this language
         VbaObfuscator obfuscator = new VbaObfuscator();
+        //Reserve the names that are already in use, which ensures that newly generated names are unique
+        obfuscator.reserveIdentifiers(classObject);
         //Amount of insertions per time
         int insertionSize = 3;
-        //Assume buffer size
-        int bufferSize = 10000;
-        //Generate code based on buffer size
-        List<String> deadCode = obfuscator.generateCode(bufferSize);
-        //Insert dead code
-        classObject = obfuscator.getStringObfuscator().insertCode(classObject, deadCode, insertionSize);
+        //Insert dead code, which is generated by the obfuscator on demand
+        classObject = obfuscator.getStringObfuscator().insertCode(classObject, obfuscator, insertionSize);
         //Encode all strings
         classObject = obfuscator.encodeStrings(classObject);
         //Save all strings that reside within the given class' functions
@@ -82,13 +80,11 @@ public class VbaObfuscatorHandler implements IObfuscatorHandler {
                     parsedString = obfuscator.splitStringMagicSquares(classObject, string);
                     break;
             }
-            //Add enclosing to the string
-            string = obfuscator.ENCLOSING + string + obfuscator.ENCLOSING;
             //Store the old and new string in a mapper
             mapping.put(string, parsedString);
         }
         //Remap functions based on the mapping
-        classObject = obfuscator.remapFunctions(classObject, mapping);
+        classObject = obfuscator.getStringObfuscator().replaceStrings(classObject, obfuscator.ENCLOSING, mapping);
 
         //Return class object
         return classObject;
@@ -20,6 +20,7 @@ import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.List;
 import model.language.IClass;
 
@@ -97,6 +98,34 @@ public class Snippet {
         this.id = hash();
     }
 
+    /**
+     * Creates a deep copy of the given snippet. The ID is taken over as-is,
+     * since the fields it is based on are equal.
+     *
+     * @param snippet the snippet to copy
+     */
+    private Snippet(Snippet snippet) {
+        //Sets the ID
+        this.id = snippet.id;
+        //Sets the title
+        this.title = snippet.title;
+        //Sets the description
+        this.description = snippet.description;
+        //Sets the author
+        this.author = snippet.author;
+        //Sets the date
+        this.date = snippet.date;
+        //Copies the alterators, as key-value pairs can be altered
+        this.alterators = new ArrayList<>();
+        for (KeyValuePair kvp : snippet.alterators) {
+            this.alterators.add(new KeyValuePair(kvp.getKey(), kvp.getValue()));
+        }
+        //Copies the class object, if it is set
+        if (snippet.classObject != null) {
+            this.classObject = snippet.classObject.copy();
+        }
+    }
+
     /**
      * Gets the alterators in this snippet
      *
@@ -180,6 +209,17 @@ public class Snippet {
         return date;
     }
 
+    /**
+     * Creates a deep copy of this snippet, including a deep copy of the
+     * <code>IClass</code> object. The copy can be alterated and obfuscated
+     * without changing this instance.
+     *
+     * @return a deep copy of this snippet
+     */
+    public Snippet copy() {
+        return new Snippet(this);
+    }
+
     /**
      * Checks if the given snippet is equal to this one, based on the
      * <code>toString()</code> function of the snippet. Note that the casing of
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.snippet;
+
+import java.util.List;
+
+/**
+ * This object is received via the API in the <code>BuildService</code> and
+ * contains a list of <code>SnippetAlteration</code> objects, each of which is
+ * built as many times as the requested amount of variants.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetBatchAlteration {
+
+    /**
+     * The alterations to build
+     */
+    private List<SnippetAlteration> alterations;
+
+    /**
+     * The amount of variants that is built for each alteration
+     */
+    private int variants;
+
+    /**
+     * Creates a <code>SnippetBatchAlteration</code> object
+     *
+     * @param alterations the alterations to build
+     * @param variants the amount of variants that is built for each
+     * alteration
+     */
+    public SnippetBatchAlteration(List<SnippetAlteration> alterations, int variants) {
+        //Sets the alterations
+        this.alterations = alterations;
+        //Sets the amount of variants
+        this.variants = variants;
+    }
+
+    /**
+     * Gets the alterations to build
+     *
+     * @return the alterations to build
+     */
+    public List<SnippetAlteration> getAlterations() {
+        return alterations;
+    }
+
+    /**
+     * Gets the amount of variants that is built for each alteration. If no
+     * amount was provided, a single variant is built.
+     *
+     * @return the amount of variants for each alteration
+     */
+    public int getVariants() {
+        if (variants <= 0) {
+            return 1;
+        }
+        return variants;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.snippet;
+
+/**
+ * The result of a single build within a batch build. Either the build or the
+ * message is set, depending on the success of the build.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetBuildResult {
+
+    /**
+     * The index of the alteration within the batch
+     */
+    private int alteration;
+
+    /**
+     * The variant of the alteration, starting at zero
+     */
+    private int variant;
+
+    /**
+     * The id of the snippet that was built
+     */
+    private String snippetId;
+
+    /**
+     * The build of the snippet, null if the build failed
+     */
+    private String build;
+
+    /**
+     * The error message, null if the build succeeded
+     */
+    private String message;
+
+    /**
+     * Creates a <code>SnippetBuildResult</code> object
+     *
+     * @param alteration the index of the alteration within the batch
+     * @param variant the variant of the alteration
+     * @param snippetId the id of the snippet that was built
+     * @param build the build of the snippet, null if the build failed
+     * @param message the error message, null if the build succeeded
+     */
+    public SnippetBuildResult(int alteration, int variant, String snippetId, String build, String message) {
+        this.alteration = alteration;
+        this.variant = variant;
+        this.snippetId = snippetId;
+        this.build = build;
+        this.message = message;
+    }
+
+    /**
+     * Gets the index of the alteration within the batch
+     *
+     * @return the index of the alteration
+     */
+    public int getAlteration() {
+        return alteration;
+    }
+
+    /**
+     * Gets the variant of the alteration, starting at zero
+     *
+     * @return the variant of the alteration
+     */
+    public int getVariant() {
+        return variant;
+    }
+
+    /**
+     * Gets the id of the snippet that was built
+     *
+     * @return the id of the snippet
+     */
+    public String getSnippetId() {
+        return snippetId;
+    }
+
+    /**
+     * Gets the build of the snippet
+     *
+     * @return the build of the snippet, null if the build failed
+     */
+    public String getBuild() {
+        return build;
+    }
+
+    /**
+     * Gets the error message
+     *
+     * @return the error message, null if the build succeeded
+     */
+    public String getMessage() {
+        return message;
+    }
+}
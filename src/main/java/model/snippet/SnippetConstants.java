@@ -41,6 +41,102 @@ public class SnippetConstants {
      */
     public static final String SNIPPET_FOLDER = "/json/";
 
+    /**
+     * The suffix of the temporary files in the snippet folder, to which a
+     * snippet is written prior to replacing the snippet file. Files with this
+     * suffix are never loaded as a snippet
+     */
+    public static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    /**
+     * If true, the snippet folder is watched for changes after the start-up of
+     * Genesis. Only the snippets of files that are added, changed or deleted
+     * are then loaded again, rather than all snippets
+     */
+    public static final boolean WATCH_SNIPPET_FOLDER = false;
+
+    /**
+     * If true, the parsed snippets are stored in a binary snapshot, which is
+     * used to avoid parsing unchanged snippet files during the next start-up
+     */
+    public static final boolean USE_CATALOG_SNAPSHOT = false;
+
+    /**
+     * The location on the disk where the binary snapshot of the parsed
+     * snippets is stored, which resides next to the snippet folder, in a
+     * directory that only the user that runs Genesis can access
+     */
+    public static final String CATALOG_SNAPSHOT_FILE = "/json-catalog/catalog.bin";
+
+    /**
+     * If true, a snippet file of which the last modified time and the size are
+     * unchanged is assumed to be unchanged, and is not read again. Otherwise,
+     * the hash of each snippet file is compared to the hash that is stored in
+     * the catalog snapshot or in the index of the watched folder. Only enable
+     * this if the snippet files are never edited in a way that retains their
+     * last modified time and their size, such as <code>cp -p</code>,
+     * <code>rsync</code>, or <code>git checkout</code>
+     */
+    public static final boolean TRUST_SNIPPET_FILE_METADATA = false;
+
+    /**
+     * If true, the snippets are stored in an append-only log in
+     * <code>SNIPPET_LOG_FOLDER</code>, rather than in a file per snippet in
+     * <code>SNIPPET_FOLDER</code>. The log is read sequentially, and each
+     * snippet is loaded with a single read at its offset, which avoids opening
+     * a file per snippet. The log cannot be watched for changes
+     */
+    public static final boolean USE_SNIPPET_LOG = false;
+
+    /**
+     * The location on the disk where the segments of the snippet log are
+     * stored (in the form of an absolute path)
+     */
+    public static final String SNIPPET_LOG_FOLDER = "/json-log/";
+
+    /**
+     * The size of a segment of the snippet log in bytes, after which a new
+     * segment is started
+     */
+    public static final long SNIPPET_LOG_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The share of the snippet log that may consist of snippets that have been
+     * saved again, before the log is compacted in the background
+     */
+    public static final double SNIPPET_LOG_COMPACTION_RATIO = 0.5;
+
+    /**
+     * The maximum size of the code (the scripts, functions, and variables) of
+     * the snippets that are kept in memory, in characters. Only the metadata
+     * of all snippets is always kept in memory, whereas the code is loaded when
+     * it is required, after which the least recently used code is evicted
+     */
+    public static final long BODY_CACHE_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The amount of snippets on a page when snippets are listed, if no limit
+     * is given
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * The maximum amount of snippets on a page when snippets are listed
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * The minimum size of a response body in bytes, before it is compressed.
+     * Smaller responses are sent as-is, as compressing them saves too little
+     */
+    public static final int COMPRESSION_THRESHOLD = 1024;
+
+    /**
+     * The compression level that is used for responses, ranging from 1 (the
+     * fastest) to 9 (the smallest output)
+     */
+    public static final int COMPRESSION_LEVEL = 6;
+
     /**
      * The version of Genesis
      */
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.snippet;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The fields of a snippet that can be selected when snippets are listed. The
+ * name of each field equals the name of the field in the complete JSON form of
+ * a snippet, with the exception of the language, architecture, and
+ * techniques, which normally reside in the class object.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public enum SnippetField {
+    ID("id", false),
+    TITLE("title", false),
+    DESCRIPTION("description", false),
+    AUTHOR("author", false),
+    DATE("date", false),
+    LANGUAGE("language", false),
+    ARCHITECTURE("architecture", false),
+    TECHNIQUES("techniques", false),
+    ALTERATORS("alterators", true),
+    CLASS_OBJECT("classObject", true);
+
+    /**
+     * The name that selects all fields that are part of the metadata of a
+     * snippet
+     */
+    public static final String METADATA = "metadata";
+
+    /**
+     * The name of the field in JSON
+     */
+    private final String name;
+
+    /**
+     * True if the code of the snippet is required to obtain the value of the
+     * field
+     */
+    private final boolean code;
+
+    /**
+     * Creates a field
+     *
+     * @param name the name of the field in JSON
+     * @param code true if the code of the snippet is required to obtain the
+     * value of the field
+     */
+    private SnippetField(String name, boolean code) {
+        this.name = name;
+        this.code = code;
+    }
+
+    /**
+     * Gets the name of the field in JSON
+     *
+     * @return the name of the field
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Checks if the code of a snippet is required to obtain the value of this
+     * field, in which case the complete snippet has to be loaded
+     *
+     * @return true if the code is required, false if the metadata suffices
+     */
+    public boolean requiresCode() {
+        return code;
+    }
+
+    /**
+     * Parses a comma separated list of field names (regardless of the casing)
+     * into a set of fields. The name "metadata" selects all fields that are
+     * part of the metadata of a snippet.
+     *
+     * @param names the comma separated field names
+     * @return the selected fields
+     * @throws IllegalArgumentException if a name does not match any field, or
+     * if no field is selected
+     */
+    public static Set<SnippetField> parse(String names) {
+        Set<SnippetField> fields = EnumSet.noneOf(SnippetField.class);
+        for (String name : names.split(",")) {
+            name = name.trim();
+            //Empty names (i.e. due to a trailing comma) are ignored
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (name.equalsIgnoreCase(METADATA)) {
+                for (SnippetField field : values()) {
+                    if (!field.requiresCode()) {
+                        fields.add(field);
+                    }
+                }
+                continue;
+            }
+            fields.add(fromName(name));
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("No field is selected!");
+        }
+        return fields;
+    }
+
+    /**
+     * Gets the field with the given name, regardless of the casing
+     *
+     * @param name the name of the field in JSON
+     * @return the matching field
+     * @throws IllegalArgumentException if the name does not match any field
+     */
+    private static SnippetField fromName(String name) {
+        for (SnippetField field : values()) {
+            if (field.name.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("The field \"" + name + "\" does not exist!");
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.snippet;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import model.language.IClass;
+import model.language.enums.Architecture;
+import model.language.enums.Language;
+import model.mitre.Technique;
+
+/**
+ * The metadata of a snippet, which is everything that is required to list,
+ * search, and count snippets. Unlike a <code>Snippet</code>, it does not
+ * contain the code of the snippet (the functions, variables, and scripts),
+ * which makes it small enough to keep the metadata of every snippet in memory.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetMetadata {
+
+    /**
+     * The unique ID of the snippet
+     */
+    private final String id;
+
+    /**
+     * The title of the snippet
+     */
+    private final String title;
+
+    /**
+     * The description of the snippet
+     */
+    private final String description;
+
+    /**
+     * The author of the snippet
+     */
+    private final String author;
+
+    /**
+     * The creation date of the snippet
+     */
+    private final String date;
+
+    /**
+     * The language of the snippet
+     */
+    private final Language language;
+
+    /**
+     * The architecture of the snippet
+     */
+    private final Architecture architecture;
+
+    /**
+     * The techniques that the snippet uses
+     */
+    private final Set<Technique> techniques;
+
+    /**
+     * Creates the metadata of the given snippet
+     *
+     * @param snippet the snippet to create the metadata of
+     */
+    public SnippetMetadata(Snippet snippet) {
+        this(snippet.getId(), snippet.getTitle(), snippet.getDescription(), snippet.getAuthor(), snippet.getDate(), snippet.getClassObject());
+    }
+
+    /**
+     * Creates the metadata of a snippet
+     *
+     * @param id the unique ID of the snippet
+     * @param title the title of the snippet
+     * @param description the description of the snippet
+     * @param author the author of the snippet
+     * @param date the creation date of the snippet
+     * @param classObject the class of the snippet, from which the language,
+     * architecture and techniques are taken
+     */
+    private SnippetMetadata(String id, String title, String description, String author, String date, IClass classObject) {
+        this(id, title, description, author, date, classObject.getLanguage(), classObject.getArchitecture(), classObject.getTechniques());
+    }
+
+    /**
+     * Creates the metadata of a snippet
+     *
+     * @param id the unique ID of the snippet
+     * @param title the title of the snippet
+     * @param description the description of the snippet
+     * @param author the author of the snippet
+     * @param date the creation date of the snippet
+     * @param language the language of the snippet
+     * @param architecture the architecture of the snippet
+     * @param techniques the techniques that the snippet uses
+     */
+    public SnippetMetadata(String id, String title, String description, String author, String date, Language language, Architecture architecture, Set<Technique> techniques) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.author = author;
+        this.date = date;
+        this.language = language;
+        this.architecture = architecture;
+        //The techniques are copied, as the given set might be altered later on
+        this.techniques = Collections.unmodifiableSet(techniques.isEmpty() ? EnumSet.noneOf(Technique.class) : EnumSet.copyOf(techniques));
+    }
+
+    /**
+     * Gets the unique ID of the snippet
+     *
+     * @return the ID of the snippet
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the title of the snippet
+     *
+     * @return the title of the snippet
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the description of the snippet
+     *
+     * @return the description of the snippet
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Gets the author of the snippet
+     *
+     * @return the author of the snippet
+     */
+    public String getAuthor() {
+        return author;
+    }
+
+    /**
+     * Gets the creation date of the snippet
+     *
+     * @return the creation date of the snippet
+     */
+    public String getDate() {
+        return date;
+    }
+
+    /**
+     * Gets the language of the snippet
+     *
+     * @return the language of the snippet
+     */
+    public Language getLanguage() {
+        return language;
+    }
+
+    /**
+     * Gets the architecture of the snippet
+     *
+     * @return the architecture of the snippet
+     */
+    public Architecture getArchitecture() {
+        return architecture;
+    }
+
+    /**
+     * Gets the techniques that the snippet uses
+     *
+     * @return a read-only set with the techniques of the snippet
+     */
+    public Set<Technique> getTechniques() {
+        return techniques;
+    }
+
+    /**
+     * Returns the metadata in the same form as <code>Snippet.toString()</code>,
+     * which is used to detect duplicate snippets
+     *
+     * @return the metadata in the form of a string
+     */
+    @Override
+    public String toString() {
+        return "Snippet{" + "title=" + title + ", description=" + description + ", author=" + author + ", date=" + date + '}';
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package model.snippet;
+
+import java.util.List;
+
+/**
+ * A page of the loaded snippets, which contains the metadata of the snippets
+ * on the page, the position of the page, and the cursor that is used to
+ * obtain the next page.
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class SnippetPage {
+
+    /**
+     * The metadata of the snippets on this page, in the order in which they
+     * were loaded
+     */
+    private final List<SnippetMetadata> snippets;
+
+    /**
+     * The total amount of loaded snippets
+     */
+    private final int total;
+
+    /**
+     * The position of the first snippet of this page within all loaded
+     * snippets
+     */
+    private final int offset;
+
+    /**
+     * The cursor of the next page, or null if this is the last page
+     */
+    private final String nextCursor;
+
+    /**
+     * Creates a page of snippets
+     *
+     * @param snippets the metadata of the snippets on this page
+     * @param total the total amount of loaded snippets
+     * @param offset the position of the first snippet of this page within all
+     * loaded snippets
+     * @param nextCursor the cursor of the next page, or null if this is the
+     * last page
+     */
+    public SnippetPage(List<SnippetMetadata> snippets, int total, int offset, String nextCursor) {
+        this.snippets = snippets;
+        this.total = total;
+        this.offset = offset;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the metadata of the snippets on this page
+     *
+     * @return the metadata of the snippets on this page
+     */
+    public List<SnippetMetadata> getSnippets() {
+        return snippets;
+    }
+
+    /**
+     * Gets the total amount of loaded snippets
+     *
+     * @return the total amount of loaded snippets
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the position of the first snippet of this page within all loaded
+     * snippets
+     *
+     * @return the offset of this page
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the cursor of the next page, which is the ID of the last snippet on
+     * this page
+     *
+     * @return the cursor of the next page, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
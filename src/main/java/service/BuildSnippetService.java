@@ -25,11 +25,26 @@ import exception.JsonFolderNotFoundException;
 import exception.JsonParseException;
 import exception.ObfuscatorNotFoundException;
 import exception.SnippetNotFoundException;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import model.alterator.IAlterator;
+import model.language.ClassConstants;
 import model.language.IClass;
 import model.language.enums.Language;
 import model.snippet.SnippetAlteration;
 import model.snippet.Snippet;
+import model.snippet.SnippetBatchAlteration;
+import model.snippet.SnippetBuildResult;
 import model.obfuscator.IObfuscatorHandler;
 
 /**
@@ -40,6 +55,32 @@ import model.obfuscator.IObfuscatorHandler;
  */
 public class BuildSnippetService {
 
+    /**
+     * The maximum amount of variants that can be requested for a single
+     * alteration within a batch
+     */
+    private static final int MAXIMUM_VARIANTS = 10000;
+
+    /**
+     * The maximum amount of builds that can be requested in a single batch,
+     * which is the amount of alterations multiplied by the amount of variants
+     */
+    private static final int MAXIMUM_BUILDS = 10000;
+
+    /**
+     * The pool in which the builds of a batch are executed. The pool is shared
+     * between all batches, and is bounded by the amount of available
+     * processors.
+     */
+    private static final ForkJoinPool BUILD_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The maximum amount of builds of a single batch that are queued or
+     * running, and whose results have not been written yet. This bounds the
+     * amount of memory that a single batch uses.
+     */
+    private static final int MAXIMUM_PENDING_BUILDS = BUILD_POOL.getParallelism() * 4;
+
     /**
      * Build a snippet based on a given <code>SnippetAlteration</code> object
      * (in JSON form)
@@ -61,11 +102,31 @@ public class BuildSnippetService {
     public Snippet buildSnippet(String snippetAlterationJson) throws SnippetNotFoundException, AlteratorNotFoundException, ObfuscatorNotFoundException, JsonParseException, JsonFolderNotFoundException {
         //Parse the JSON string
         SnippetAlteration snippetAlteration = parseSnippetAlteration(snippetAlterationJson);
-        //Instantiate the services
+        //Instantiate the service
         SnippetService snippetService = new SnippetService();
-        LanguageService languageService = new LanguageService();
-        //Get the snippet and the language
+        //Get the snippet
         Snippet snippet = snippetService.getSnippet(snippetAlteration.getSnippetId());
+        //Alterate and obfuscate the snippet
+        return buildSnippet(snippet, snippetAlteration);
+    }
+
+    /**
+     * Alterates and obfuscates the given snippet based on the given
+     * <code>SnippetAlteration</code> object. The given snippet is altered,
+     * meaning that a copy should be provided if the original is used again.
+     *
+     * @param snippet the snippet to build
+     * @param snippetAlteration the required information to build the snippet
+     * with
+     * @return the given snippet, which is alterated and possibly obfuscated
+     * @throws AlteratorNotFoundException if there is no alterator for the
+     * specified language
+     * @throws ObfuscatorNotFoundException if there is no obfuscator for the
+     * specified language
+     */
+    private Snippet buildSnippet(Snippet snippet, SnippetAlteration snippetAlteration) throws AlteratorNotFoundException, ObfuscatorNotFoundException {
+        //Instantiate the service
+        LanguageService languageService = new LanguageService();
         //Gets the language of the snippet
         Language language = snippet.getClassObject().getLanguage();
         //Get the language specific alterator
@@ -82,6 +143,195 @@ public class BuildSnippetService {
         return snippet;
     }
 
+    /**
+     * Builds all variants of all alterations within the given batch, and
+     * writes the result of each build as a single line of JSON to the given
+     * writer (also known as newline delimited JSON). The results are written
+     * in the order of the alterations, after which the variants are ordered.
+     *
+     * Each snippet is loaded once, after which a copy is made for every
+     * variant. The builds are executed in a bounded pool, where the amount of
+     * builds whose results are not yet written is limited.
+     *
+     * A build that fails does not stop the batch, instead the result contains
+     * the error message.
+     *
+     * @param batch the batch to build
+     * @param writer the writer to write the results to
+     * @throws IOException if the results cannot be written
+     */
+    public void buildSnippets(SnippetBatchAlteration batch, Writer writer) throws IOException {
+        //Creates a new gson object to convert the results
+        Gson gson = new Gson();
+        //Instantiate the service
+        SnippetService snippetService = new SnippetService();
+        //The loaded snippets, where the snippet id is the key
+        Map<String, Snippet> snippets = new HashMap<>();
+        //The builds that are queued or running, in the order in which the results are written
+        Queue<ForkJoinTask<SnippetBuildResult>> pendingBuilds = new ArrayDeque<>();
+
+        try {
+            List<SnippetAlteration> alterations = batch.getAlterations();
+            for (int i = 0; i < alterations.size(); i++) {
+                SnippetAlteration snippetAlteration = alterations.get(i);
+                //Load the snippet once for all variants
+                Snippet snippet = snippets.get(snippetAlteration.getSnippetId());
+                String message = null;
+                if (snippet == null) {
+                    try {
+                        snippet = snippetService.getSnippet(snippetAlteration.getSnippetId());
+                        snippets.put(snippetAlteration.getSnippetId(), snippet);
+                    } catch (SnippetNotFoundException | JsonParseException | JsonFolderNotFoundException ex) {
+                        message = ex.getMessage();
+                    }
+                }
+                //If the snippet cannot be loaded, a single result with the error message is written for this alteration
+                if (snippet == null) {
+                    //Write the pending results first, to keep the results in order
+                    while (!pendingBuilds.isEmpty()) {
+                        writeResult(gson, pendingBuilds.poll().join(), writer);
+                    }
+                    writeResult(gson, new SnippetBuildResult(i, 0, snippetAlteration.getSnippetId(), null, message), writer);
+                    continue;
+                }
+                for (int variant = 0; variant < batch.getVariants(); variant++) {
+                    //Submit the build to the pool
+                    pendingBuilds.add(BUILD_POOL.submit(new SnippetBuildTask(i, variant, snippet, snippetAlteration)));
+                    //Write the oldest result (waiting for it if needed) if too many builds are pending
+                    if (pendingBuilds.size() >= MAXIMUM_PENDING_BUILDS) {
+                        writeResult(gson, pendingBuilds.poll().join(), writer);
+                    }
+                }
+            }
+            //Write the remaining results
+            while (!pendingBuilds.isEmpty()) {
+                writeResult(gson, pendingBuilds.poll().join(), writer);
+            }
+        } finally {
+            //If the results cannot be written, the builds that are still pending are no longer of use
+            for (ForkJoinTask<SnippetBuildResult> pendingBuild : pendingBuilds) {
+                pendingBuild.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Writes the given result as a single line of JSON
+     *
+     * @param gson the gson object to convert the result with
+     * @param result the result to write
+     * @param writer the writer to write the result to
+     * @throws IOException if the result cannot be written
+     */
+    private void writeResult(Gson gson, SnippetBuildResult result, Writer writer) throws IOException {
+        writer.write(gson.toJson(result));
+        writer.write(ClassConstants.NEW_LINE);
+        //Flush the result, as this allows the client to process the results while the batch is built
+        writer.flush();
+    }
+
+    /**
+     * Parses a JSON string into a <code>SnippetBatchAlteration</code> object
+     *
+     * @param json the JSON string to parse
+     * @return the JSON string as a <code>SnippetBatchAlteration</code> object
+     * @throws JsonParseException is thrown when the provided JSON string does
+     * not match the <code>SnippetBatchAlteration</code> lay-out, if there are
+     * no alterations, if an alteration is missing, or if too many variants or
+     * builds are requested
+     */
+    public SnippetBatchAlteration parseSnippetBatchAlteration(String json) throws JsonParseException {
+        SnippetBatchAlteration batch;
+        try {
+            //Creates a new gson object
+            Gson gson = new Gson();
+            //Creates a new JSON parser object
+            JsonParser parser = new JsonParser();
+            //Parse the given string into a JSON object
+            JsonObject batchJson = parser.parse(json).getAsJsonObject();
+            //Create a SnippetBatchAlteration object from the JSON object
+            batch = gson.fromJson(batchJson, SnippetBatchAlteration.class);
+        } catch (JsonSyntaxException | IllegalStateException e) {
+            //If an error occurs when parsing the JSON string, an exception is thrown
+            throw new JsonParseException("The given input cannot be parsed and is likely malformed!");
+        }
+        //Check if there is anything to build
+        if (batch.getAlterations() == null || batch.getAlterations().isEmpty()) {
+            throw new JsonParseException("The given input does not contain any alterations!");
+        }
+        //Check if the amount of variants is within bounds
+        if (batch.getVariants() > MAXIMUM_VARIANTS) {
+            throw new JsonParseException("At most " + MAXIMUM_VARIANTS + " variants can be requested per alteration!");
+        }
+        //Check if every alteration is present, as a JSON array can contain null values
+        for (SnippetAlteration snippetAlteration : batch.getAlterations()) {
+            if (snippetAlteration == null) {
+                throw new JsonParseException("The given input contains an empty alteration!");
+            }
+        }
+        //Check if the total amount of builds is within bounds, as every alteration is built once per variant
+        if ((long) batch.getAlterations().size() * batch.getVariants() > MAXIMUM_BUILDS) {
+            throw new JsonParseException("At most " + MAXIMUM_BUILDS + " builds (alterations multiplied by variants) can be requested per batch!");
+        }
+        return batch;
+    }
+
+    /**
+     * The task that builds a single variant of an alteration within a batch
+     */
+    private class SnippetBuildTask implements Callable<SnippetBuildResult> {
+
+        /**
+         * The index of the alteration within the batch
+         */
+        private final int alteration;
+
+        /**
+         * The variant of the alteration
+         */
+        private final int variant;
+
+        /**
+         * The loaded snippet, which is copied before it is built
+         */
+        private final Snippet snippet;
+
+        /**
+         * The alteration to build the snippet with
+         */
+        private final SnippetAlteration snippetAlteration;
+
+        /**
+         * Creates a task to build a single variant
+         *
+         * @param alteration the index of the alteration within the batch
+         * @param variant the variant of the alteration
+         * @param snippet the loaded snippet, which is not altered
+         * @param snippetAlteration the alteration to build the snippet with
+         */
+        private SnippetBuildTask(int alteration, int variant, Snippet snippet, SnippetAlteration snippetAlteration) {
+            this.alteration = alteration;
+            this.variant = variant;
+            this.snippet = snippet;
+            this.snippetAlteration = snippetAlteration;
+        }
+
+        @Override
+        public SnippetBuildResult call() {
+            try {
+                //Build a copy of the snippet, as the loaded snippet is shared between the variants
+                Snippet build = buildSnippet(snippet.copy(), snippetAlteration);
+                return new SnippetBuildResult(alteration, variant, snippetAlteration.getSnippetId(), build.getClassObject().build(), null);
+            } catch (AlteratorNotFoundException | ObfuscatorNotFoundException ex) {
+                return new SnippetBuildResult(alteration, variant, snippetAlteration.getSnippetId(), null, ex.getMessage());
+            } catch (RuntimeException ex) {
+                //An unexpected failure in an alterator, obfuscator, or lexer only fails this variant, rather than the whole batch
+                Logger.getLogger(BuildSnippetService.class.getName()).log(Level.WARNING, "Unable to build variant " + variant + " of alteration " + alteration, ex);
+                return new SnippetBuildResult(alteration, variant, snippetAlteration.getSnippetId(), null, "Unable to build the snippet: " + ex);
+            }
+        }
+    }
+
     /**
      * Parses a JSON string into a <code>SnippetAlteration</code> object
      *
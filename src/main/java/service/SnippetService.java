@@ -28,6 +28,10 @@ import java.util.List;
 import model.language.enums.Architecture;
 import model.language.enums.Language;
 import model.snippet.Snippet;
+import model.snippet.SnippetMetadata;
+import model.snippet.SnippetPage;
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 /**
@@ -57,23 +61,48 @@ public class SnippetService {
     }
 
     /**
-     * Adds a snippet to the internal snippets list
+     * Returns all loaded snippets in a list
      *
-     * @param snippet the snippet to add
-     * @throws SnippetAlreadyExistsException is thrown when the snippet that is
-     * to be added, already exists
+     * @return return all loaded snippets in a list
      */
-    public void addSnippet(Snippet snippet) throws SnippetAlreadyExistsException {
-        SnippetManager.addSnippet(snippet);
+    public List<Snippet> getSnippets() {
+        return SnippetManager.getSnippets();
     }
 
     /**
-     * Returns all loaded snippets in a list
+     * Returns the complete snippets that belong to the given metadata,
+     * omitting snippets that are no longer loaded
      *
-     * @return return all loaded snippets in a list
+     * @param snippets the metadata of the snippets to get
+     * @return the snippets in the order of the given metadata
      */
-    public List<Snippet> getSnippets() {
-        return SnippetManager.getSnippets();
+    public List<Snippet> getSnippets(List<SnippetMetadata> snippets) {
+        return SnippetManager.getSnippets(snippets);
+    }
+
+    /**
+     * Returns a page of the loaded snippets, which only contains their
+     * metadata
+     *
+     * @param cursor the ID of the last snippet of the previous page, or null
+     * to start at the first snippet
+     * @param offset the amount of snippets to skip
+     * @param limit the maximum amount of snippets on the page
+     * @return the page of snippets
+     * @throws SnippetNotFoundException if no loaded snippet matches the cursor
+     */
+    public SnippetPage getSnippetPage(String cursor, int offset, int limit) throws SnippetNotFoundException {
+        return SnippetManager.getSnippetPage(cursor, offset, limit);
+    }
+
+    /**
+     * Gets the generation of the catalog, which changes every time a snippet
+     * is added or all snippets are loaded
+     *
+     * @return the generation of the catalog
+     */
+    public long getGeneration() {
+        return SnippetManager.getGeneration();
     }
 
     /**
@@ -108,11 +137,37 @@ public class SnippetService {
         JSONObject snippetJsonObject = new JSONObject(jsonSnippet);
         //Parses the snippet in the snippet manager
         Snippet snippet = SnippetManager.parseSnippet(snippetJsonObject);
-        //Adds the snippet to the list that resides in the RAM
-        SnippetManager.addSnippet(snippet);
-        //Saves the snippet to the disk
-        SnippetManager.saveSnippetToDisk(jsonSnippet, snippet.getId());
+        //Saves the snippet to the disk, after which it is added to the list that resides in the RAM
+        SnippetManager.addSnippet(snippet, jsonSnippet);
+    }
 
+    /**
+     * Imports all snippets in the given JSON array, which are saved to the
+     * disk (persisting them across reboots) and added to the list of snippets
+     * that resides in memory (making them directly available). The snippets
+     * are either all imported, or none are imported.
+     *
+     * @param jsonSnippets the JSON array of snippets to import
+     * @return the amount of imported snippets
+     * @throws JsonParseException if the parsing is impossible because the JSON
+     * is malformed or a used language is not supported by Genesis
+     * @throws IOException if the persistence method encounters an error
+     * @throws SnippetAlreadyExistsException if any of the snippets already
+     * exists
+     */
+    public int importSnippets(String jsonSnippets) throws JsonParseException, IOException, SnippetAlreadyExistsException {
+        //Creates a list of snippet objects, based on the given string
+        List<JSONObject> snippetJsonObjects = new ArrayList<>();
+        try {
+            JSONArray snippetJsonArray = new JSONArray(jsonSnippets);
+            for (int i = 0; i < snippetJsonArray.length(); i++) {
+                snippetJsonObjects.add(snippetJsonArray.getJSONObject(i));
+            }
+        } catch (JSONException ex) {
+            throw new JsonParseException("Unable to parse the snippets, as a JSON array of snippets is expected: " + ex.getMessage());
+        }
+        //Imports the snippets in the snippet manager, which saves them to the disk and adds them to the list that resides in the RAM
+        return SnippetManager.importSnippets(snippetJsonObjects);
     }
 
     /**
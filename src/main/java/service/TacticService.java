@@ -19,8 +19,11 @@ package service;
 import exception.TacticNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import model.mitre.Tactic;
 import model.mitre.TacticManager;
+import model.mitre.TacticType;
+import model.mitre.Technique;
 
 /**
  * In this class, all tactics can be accessed, via a function, by obtaining them
@@ -31,25 +34,13 @@ import model.mitre.TacticManager;
 public class TacticService {
 
     /**
-     * Gets all tactics in a list
+     * Gets all tactics in a list, in the order of the MITRE ATT&CK matrix
      *
      * @return a list with all tactics
      */
     public List<Tactic> getAllTactics() {
-        List<Tactic> tactics = new ArrayList<>();
-        tactics.add(TacticManager.getInitialAccess());
-        tactics.add(TacticManager.getExecution());
-        tactics.add(TacticManager.getPersistence());
-        tactics.add(TacticManager.getPrivilegeEscalation());
-        tactics.add(TacticManager.getDefenseEvasion());
-        tactics.add(TacticManager.getCredentialAccess());
-        tactics.add(TacticManager.getDiscovery());
-        tactics.add(TacticManager.getLateralMovement());
-        tactics.add(TacticManager.getCollection());
-        tactics.add(TacticManager.getExfiltration());
-        tactics.add(TacticManager.getCommandAndControl());
-        tactics.add(TacticManager.getImpact());
-        return tactics;
+        //The tactics are shared, only the list itself is created
+        return new ArrayList<>(TacticManager.getTactics());
     }
 
     /**
@@ -61,17 +52,24 @@ public class TacticService {
      * given name
      */
     public Tactic getTacticByName(String name) throws TacticNotFoundException {
-        //Create a list of tactics
-        List<Tactic> tactics = getAllTactics();
-        //Iterate through all tactics
-        for (Tactic tactic : tactics) {
-            //If the tactic name equals the given name (disregarding the casing), it is returned
-            if (tactic.getName().equalsIgnoreCase(name)) {
-                return tactic;
-            }
+        //Look up the tactic type that matches the name (disregarding the casing)
+        TacticType type = TacticManager.getTacticType(name);
+        //If no tactic can be found, an exception is thrown
+        if (type == null) {
+            throw new TacticNotFoundException("Unable to find a tactic which matches the name " + name);
         }
-        //If no technique can be found, an exception is thrown
-        throw new TacticNotFoundException("Unable to find a tactic which matches the name " + name);
+        return TacticManager.getTactic(type);
+    }
+
+    /**
+     * Gets the types of the tactics that the given technique belongs to
+     *
+     * @param technique the technique to get the tactics for
+     * @return a read-only set with the tactic types, which is empty if the
+     * technique does not belong to any tactic
+     */
+    public Set<TacticType> getTacticTypes(Technique technique) {
+        return TacticManager.getTacticTypes(technique);
     }
 
     /**
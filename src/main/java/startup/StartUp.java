@@ -19,12 +19,14 @@ package startup;
 import dao.SnippetManager;
 import exception.JsonFolderNotFoundException;
 import exception.JsonParseException;
+import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.ejb.Startup;
 import javax.ejb.Singleton;
+import model.snippet.SnippetConstants;
 
 /**
  * This class provides two additional features: one can execute code to execute
@@ -49,6 +51,7 @@ public class StartUp {
     @PreDestroy
     public void preDestory() {
         //Code that is executed during the shutdown of the application
+        SnippetManager.closeStore();
     }
 
     /**
@@ -57,6 +60,16 @@ public class StartUp {
      */
     private void loadAllSnippets() {
         try {
+            if (SnippetConstants.WATCH_SNIPPET_FOLDER) {
+                try {
+                    //Loads all snippets, after which only changed snippet files are loaded again
+                    SnippetManager.startWatching();
+                    return;
+                } catch (IOException ex) {
+                    //If the folder cannot be watched, the snippets are loaded without watching the folder
+                    Logger.getLogger(StartUp.class.getName()).log(Level.WARNING, null, ex);
+                }
+            }
             //Loads all snippets
             SnippetManager.loadSnippets();
         } catch (JsonFolderNotFoundException ex) {
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2019 Max 'Libra' Kersten [@LibraAnalysis]
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dao;
+
+import exception.JsonParseException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+import model.snippet.Snippet;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Tests the recovery of the snippet log after a crash, in which the end of the
+ * last segment might not have been written completely
+ *
+ * @author Max 'Libra' Kersten [@LibraAnalysis]
+ */
+public class LogSnippetStoreTest extends TestCase {
+
+    /**
+     * The folder of the log that is used in the current test
+     */
+    private Path folder;
+
+    @Override
+    protected void setUp() throws IOException {
+        folder = Files.createTempDirectory("genesis-log");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(folder);
+    }
+
+    /**
+     * A record of which the length reached the disk while its data did not is
+     * removed when the log is opened
+     *
+     * @throws Exception if the log cannot be written or read
+     */
+    public void testRecordWithZeroedBodyIsRemoved() throws Exception {
+        long size = save(1, 2);
+        long end = save(3);
+        //Zero the body of the last record, while its header remains intact
+        int contentLength = getContent(3).length;
+        zero(end - contentLength, contentLength);
+
+        LogSnippetStore store = open();
+        try {
+            assertEquals(2, store.load().size());
+        } finally {
+            store.close();
+        }
+        assertEquals(size, Files.size(getSegment()));
+    }
+
+    /**
+     * A record of which the size of the segment reached the disk while none of
+     * its data did is removed when the log is opened
+     *
+     * @throws Exception if the log cannot be written or read
+     */
+    public void testZeroedRecordIsRemoved() throws Exception {
+        long size = save(1, 2);
+        long end = save(3);
+        zero(size, end - size);
+
+        LogSnippetStore store = open();
+        try {
+            assertEquals(2, store.load().size());
+        } finally {
+            store.close();
+        }
+        assertEquals(size, Files.size(getSegment()));
+    }
+
+    /**
+     * A record that is partially written is removed when the log is opened
+     *
+     * @throws Exception if the log cannot be written or read
+     */
+    public void testPartialRecordIsRemoved() throws Exception {
+        long size = save(1, 2);
+        long end = save(3);
+        try (RandomAccessFile file = new RandomAccessFile(getSegment().toFile(), "rw")) {
+            file.setLength(end - 10);
+        }
+
+        LogSnippetStore store = open();
+        try {
+            assertEquals(2, store.load().size());
+        } finally {
+            store.close();
+        }
+        assertEquals(size, Files.size(getSegment()));
+    }
+
+    /**
+     * An invalid record that is followed by a valid record is corrupt, as it
+     * cannot be the result of an interrupted write, and is therefore never
+     * removed
+     *
+     * @throws Exception if the log cannot be written
+     */
+    public void testInvalidRecordFollowedByValidRecordFails() throws Exception {
+        long size = save(1);
+        long end = save(2, 3);
+        //Zero the body of the first record, after which two valid records remain
+        int contentLength = getContent(1).length;
+        zero(size - contentLength, contentLength);
+
+        LogSnippetStore store = open();
+        try {
+            store.load();
+            fail("The corrupt log was opened");
+        } catch (JsonParseException ex) {
+            //The log is corrupt, as expected
+        } finally {
+            store.close();
+        }
+        assertEquals(end, Files.size(getSegment()));
+    }
+
+    /**
+     * Opens the log in the folder of the current test
+     *
+     * @return the log
+     */
+    private LogSnippetStore open() {
+        return new LogSnippetStore(folder, new SnippetBodyCache(1024 * 1024));
+    }
+
+    /**
+     * Saves the snippets with the given numbers in the log at once, after
+     * which the log is closed
+     *
+     * @param numbers the numbers of the snippets to save
+     * @return the size of the segment after the snippets were saved
+     * @throws Exception if the log cannot be written
+     */
+    private long save(int... numbers) throws Exception {
+        List<Snippet> snippets = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        for (int number : numbers) {
+            byte[] content = getContent(number);
+            snippets.add(new SnippetLoader().parseSnippet(new JSONObject(new String(content, StandardCharsets.UTF_8))));
+            contents.add(content);
+        }
+        LogSnippetStore store = open();
+        try {
+            store.load();
+            store.save(snippets, contents);
+        } finally {
+            store.close();
+        }
+        return Files.size(getSegment());
+    }
+
+    /**
+     * Gets the content with which the snippet with the given number is saved
+     *
+     * @param number the number of the snippet
+     * @return the snippet in JSON format, encoded in UTF-8
+     */
+    private static byte[] getContent(int number) {
+        JSONObject information = new JSONObject();
+        information.put("title", "Snippet " + number);
+        information.put("description", "A snippet to test the log with");
+        information.put("author", "Max 'Libra' Kersten [@LibraAnalysis]");
+        information.put("date", "2019");
+        JSONObject classObject = new JSONObject();
+        classObject.put("language", "JAVASCRIPT");
+        classObject.put("architecture", "WINDOWS_X86");
+        classObject.put("script", "var snippet = " + number + ";");
+        classObject.put("techniques", new JSONArray());
+        classObject.put("variables", new JSONObject());
+        classObject.put("functions", new JSONArray());
+        JSONObject snippet = new JSONObject();
+        snippet.put("information", information);
+        snippet.put("class", classObject);
+        return snippet.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Overwrites the given range of the segment with zeros
+     *
+     * @param offset the offset of the range
+     * @param length the length of the range
+     * @throws IOException if the segment cannot be written
+     */
+    private void zero(long offset, long length) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(getSegment().toFile(), "rw")) {
+            file.seek(offset);
+            file.write(new byte[(int) length]);
+        }
+    }
+
+    /**
+     * Gets the only segment of the log
+     *
+     * @return the segment file
+     * @throws IOException if the folder cannot be read
+     */
+    private Path getSegment() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, "*.log")) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+}